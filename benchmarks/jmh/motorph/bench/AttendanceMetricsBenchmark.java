@@ -0,0 +1,70 @@
+// AttendanceMetricsBenchmark.java
+package motorph.bench;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Late minutes for one employee over a date range: AttendanceMetrics' running
+ * totals vs building the WeeklyAttendance weeks and adding them up.
+ * 1000 employees; the range length is the parameter. Scores are queries per microsecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttendanceMetricsBenchmark {
+    private static final int EMPLOYEES = 1000;
+    private static final int WEEKS = 156;  // 3 years
+
+    @Param({"7", "30", "365", "1092"})
+    int days;
+
+    private AttendanceStore store;
+    private AttendanceMetrics metrics;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        store = AttendanceStore.fromRows(BenchmarkData.attendance(EMPLOYEES, WEEKS));
+        metrics = AttendanceMetrics.build(store, new ArrayList<>(), ShiftPolicies.builtIn());
+    }
+
+    private int nextEmployee() {
+        int employee = BenchmarkData.FIRST_EMPLOYEE_ID + next;
+        next = next + 1 == EMPLOYEES ? 0 : next + 1;
+        return employee;
+    }
+
+    @Benchmark
+    public int runningTotals() {
+        LocalDate from = BenchmarkData.FIRST_DAY;
+        return metrics.getLateMinutes(nextEmployee(), from, from.plusDays(days - 1));
+    }
+
+    @Benchmark
+    public int weeklyAttendance() {
+        int employee = nextEmployee();
+        int total = 0;
+        for (int day = 0; day < days; day += 7) {
+            WeeklyAttendance week = store.weeklyAttendance(employee, BenchmarkData.FIRST_DAY.plusDays(day));
+            total += week.getTotalLateMinutes();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,71 @@
+// AttendanceReadBenchmark.java
+package motorph.bench;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading attendance.csv: the full parse into an AttendanceIndex (what the
+ * first FileHandler.readAttendanceRecords call on a file pays), and the later
+ * per-employee calls that hit the cached index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttendanceReadBenchmark {
+    @Param({"34", "1000", "10000", "100000"})
+    int employees;
+
+    @Param({"4"})
+    int weeks;
+
+    private String file;
+    private String[] employeeIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void writeFile() throws IOException {
+        Path path = BenchmarkData.writeAttendanceCsv(employees, weeks);
+        file = path.toString();
+        employeeIds = new String[employees];
+        for (int i = 0; i < employees; i++) {
+            employeeIds[i] = String.valueOf(BenchmarkData.FIRST_EMPLOYEE_ID + i);
+        }
+        FileHandler.loadAttendanceIndex(file); // so readAttendanceRecords below finds it cached
+    }
+
+    /**
+     * Whole file, parsed from scratch
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public AttendanceIndex parseWholeFile() throws IOException {
+        return AttendanceIndex.load(file);
+    }
+
+    /**
+     * One employee's records from the already-loaded index
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TimeKeeping[] readAttendanceRecords() throws IOException {
+        String id = employeeIds[next];
+        next = next + 1 == employeeIds.length ? 0 : next + 1;
+        return FileHandler.readAttendanceRecords(file, id);
+    }
+}
@@ -0,0 +1,112 @@
+// BenchmarkData.java
+package motorph.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Made-up employees and attendance for the benchmarks, from the shipped 34
+ * employees up to 100k. Same seed -> same data, so runs can be compared.
+ *
+ * Times look like data/attendance.csv: log in 7:30-10:30 (most people late,
+ * like the real file), log out 16:00-20:00, Monday to Friday.
+ */
+final class BenchmarkData {
+    static final int FIRST_EMPLOYEE_ID = 10001;
+    // Monday 3 June 2024, the first week in the shipped data
+    static final LocalDate FIRST_DAY = LocalDate.of(2024, 6, 3);
+    static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Employees 10001, 10002, ... with hourly rates between 133 and 536 like employees.csv
+     */
+    static List<Employee> employees(int count) {
+        Random random = new Random(SEED);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = new Employee(String.valueOf(FIRST_EMPLOYEE_ID + i), "Last" + i, "First" + i, "01/01/1990");
+            employee.setHourlyRate(133.93 + random.nextInt(40200) / 100.0);
+            employee.setSemiMonthlyRate(employee.getHourlyRate() * 84);
+            employee.setPosition(i % 10 == 0 ? "Supervisor" : "Rank and File");
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Weekday attendance for every employee, several weeks from FIRST_DAY
+     */
+    static AttendanceRows attendance(int employees, int weeks) {
+        Random random = new Random(SEED);
+        AttendanceRows rows = new AttendanceRows(employees * weeks * 5);
+        int firstDay = (int) FIRST_DAY.toEpochDay();
+        for (int e = 0; e < employees; e++) {
+            for (int day = 0; day < weeks * 7; day++) {
+                if (day % 7 >= 5) {
+                    continue; // weekend
+                }
+                rows.add(FIRST_EMPLOYEE_ID + e, firstDay + day, timeIn(random), timeOut(random));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The same attendance written out as attendance.csv
+     */
+    static Path writeAttendanceCsv(int employees, int weeks) throws IOException {
+        Path file = Files.createTempFile("attendance-" + employees + "-", ".csv");
+        file.toFile().deleteOnExit();
+        Random random = new Random(SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Employee #,Last Name,First Name,Date,Log In,Log Out");
+            writer.newLine();
+            for (int e = 0; e < employees; e++) {
+                for (int day = 0; day < weeks * 7; day++) {
+                    LocalDate date = FIRST_DAY.plusDays(day);
+                    if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                        continue;
+                    }
+                    writer.write((FIRST_EMPLOYEE_ID + e) + ",Last" + e + ",First" + e + ","
+                            + AttendanceStore.formatDate((int) date.toEpochDay()) + ","
+                            + AttendanceStore.formatTime(timeIn(random)) + ","
+                            + AttendanceStore.formatTime(timeOut(random)));
+                    writer.newLine();
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Standalone TimeKeeping records (parsed from strings, like the csv loaders make them)
+     */
+    static TimeKeeping[] records(int count) {
+        Random random = new Random(SEED);
+        TimeKeeping[] records = new TimeKeeping[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = new TimeKeeping(String.valueOf(FIRST_EMPLOYEE_ID + i % 34), "06/03/2024",
+                    AttendanceStore.formatTime(timeIn(random)), AttendanceStore.formatTime(timeOut(random)));
+        }
+        return records;
+    }
+
+    private static int timeIn(Random random) {
+        return 7 * 60 + 30 + random.nextInt(181);
+    }
+
+    private static int timeOut(Random random) {
+        return 16 * 60 + random.nextInt(241);
+    }
+}
@@ -0,0 +1,216 @@
+// PayrollCalculatorBenchmark.java
+package motorph.bench;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Every PayrollCalculator method on CALLS employee-weeks that look like the
+ * real data (30-45 regular hours, some overtime, most people late).
+ * Scores are calls per microsecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayrollCalculatorBenchmark {
+    static final int CALLS = 1024;
+
+    private PayrollCalculator calculator;
+    private Employee[] employees;
+    private double[] regularHours;
+    private double[] overtimeHours;
+    private double[] rates;
+    private boolean[] late;
+    private int[] lateMinutes;
+    private double[] gross;        // weekly gross for the single deduction methods
+    private long[] grossCentavos;
+    private long[] regularHundredths;
+    private long[] overtimeHundredths;
+    private long[] rateCentavos;
+
+    private final PayrollCalculator.SalaryDetails details = new PayrollCalculator.SalaryDetails();
+    private final PayrollCalculator.CentavoDetails centavoDetails = new PayrollCalculator.CentavoDetails();
+    private PayrollBatch batch;
+    private double[] taxes;
+
+    @Setup
+    public void makeInputs() {
+        calculator = PayrollCalculator.forDate(LocalDate.of(2024, 6, 30));
+        employees = BenchmarkData.employees(CALLS).toArray(new Employee[0]);
+        Random random = new Random(BenchmarkData.SEED);
+        regularHours = new double[CALLS];
+        overtimeHours = new double[CALLS];
+        rates = new double[CALLS];
+        late = new boolean[CALLS];
+        lateMinutes = new int[CALLS];
+        gross = new double[CALLS];
+        grossCentavos = new long[CALLS];
+        regularHundredths = new long[CALLS];
+        overtimeHundredths = new long[CALLS];
+        rateCentavos = new long[CALLS];
+        batch = new PayrollBatch(CALLS);
+        for (int i = 0; i < CALLS; i++) {
+            regularHours[i] = 30 + random.nextInt(1500) / 100.0;
+            overtimeHours[i] = random.nextInt(4) == 0 ? random.nextInt(600) / 100.0 : 0;
+            rates[i] = employees[i].getHourlyRate();
+            late[i] = random.nextInt(5) != 0;
+            lateMinutes[i] = late[i] ? random.nextInt(300) : 0;
+            gross[i] = regularHours[i] * rates[i];
+            grossCentavos[i] = Money.ofPesos(gross[i]);
+            regularHundredths[i] = Money.hundredths(regularHours[i]);
+            overtimeHundredths[i] = Money.hundredths(overtimeHours[i]);
+            rateCentavos[i] = Money.ofPesos(rates[i]);
+            batch.add(regularHours[i], overtimeHours[i], rates[i], late[i]);
+        }
+        taxes = new double[CALLS];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculateSSS() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculateSSS(gross[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculatePhilHealth() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculatePhilHealth(gross[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculatePagIbig() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculatePagIbig(gross[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculateTax() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculateTax(gross[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double[] calculateTaxBatch() {
+        calculator.calculateTax(gross, taxes, CALLS);
+        return taxes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculateOvertimePay() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculateOvertimePay(overtimeHours[i], rates[i], late[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculateLatePenalty() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculateLatePenalty(gross[i], lateMinutes[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * The original double[] version (allocates an array per call)
+     */
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void calculateFullSalaryDetailsArray(Blackhole blackhole) {
+        for (int i = 0; i < CALLS; i++) {
+            blackhole.consume(calculator.calculateFullSalaryDetails(regularHours[i], overtimeHours[i], rates[i],
+                    late[i], true));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculateFullSalaryDetails() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculateFullSalaryDetails(regularHours[i], overtimeHours[i], rates[i], late[i],
+                    true, details).getNet();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public PayrollBatch calculateBatch() {
+        calculator.calculateBatch(batch, true);
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public long calculateFullSalaryCentavos() {
+        long sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculateFullSalaryCentavos(regularHundredths[i], overtimeHundredths[i],
+                    rateCentavos[i], late[i], true, centavoDetails).getNet();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public long deductionsCentavos() {
+        long sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            long g = grossCentavos[i];
+            sum += calculator.calculateSSSCentavos(g) + calculator.calculatePhilHealthCentavos(g)
+                 + calculator.calculatePagIbigCentavos(g) + calculator.calculateTaxCentavos(g);
+        }
+        return sum;
+    }
+
+    /**
+     * Month deductions for PayPeriodRun (semi-monthly here)
+     */
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public double calculatePeriodSalaryDetails() {
+        double sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += calculator.calculatePeriodSalaryDetails(gross[i] * 2, 0, 2, late[i], details).getNet();
+        }
+        return sum;
+    }
+}
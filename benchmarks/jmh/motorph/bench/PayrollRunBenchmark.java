@@ -0,0 +1,54 @@
+// PayrollRunBenchmark.java
+package motorph.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole month of company payroll (weekly PayrollRun and monthly PayPeriodRun),
+ * from the shipped 34 employees up to 100k. Scores are runs per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollRunBenchmark {
+    @Param({"34", "1000", "10000", "100000"})
+    int employees;
+
+    private List<Employee> list;
+    private AttendanceStore attendance;
+    private final LocalDate from = BenchmarkData.FIRST_DAY;
+    private final LocalDate to = BenchmarkData.FIRST_DAY.plusWeeks(4).minusDays(1);
+
+    @Setup(Level.Trial)
+    public void makeData() {
+        list = BenchmarkData.employees(employees);
+        attendance = AttendanceStore.fromRows(BenchmarkData.attendance(employees, 4));
+    }
+
+    @Benchmark
+    public PayrollRun weeklyPayroll() {
+        return PayrollRun.run(list, attendance, from, to);
+    }
+
+    @Benchmark
+    public PayPeriodRun monthlyPayroll() {
+        return PayPeriodRun.run(list, attendance, PayPeriodRun.Frequency.MONTHLY, from, to);
+    }
+}
@@ -0,0 +1,127 @@
+// TimeKeepingBenchmark.java
+package motorph.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Every TimeKeeping calculation, on a mix of on-time, late, short and overtime days.
+ * Each benchmark goes over RECORDS records, so the scores are per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeKeepingBenchmark {
+    static final int RECORDS = 1024;
+
+    private TimeKeeping[] records;
+    private String[] timeIns;
+    private String[] timeOuts;
+    private ShiftPolicy nightShift;
+
+    @Setup
+    public void makeRecords() {
+        records = BenchmarkData.records(RECORDS);
+        timeIns = new String[RECORDS];
+        timeOuts = new String[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            timeIns[i] = records[i].getTimeIn();
+            timeOuts[i] = records[i].getTimeOut();
+        }
+        nightShift = ShiftPolicy.compile("Mid shift", "10:00", "19:00", 10, "14:00-15:00", "");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public void parseRecord(Blackhole blackhole) {
+        for (int i = 0; i < RECORDS; i++) {
+            blackhole.consume(new TimeKeeping("10001", "06/03/2024", timeIns[i], timeOuts[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public double calculateDailyHours() {
+        double sum = 0;
+        for (TimeKeeping record : records) {
+            sum += record.calculateDailyHours();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public double calculateRegularHours() {
+        double sum = 0;
+        for (TimeKeeping record : records) {
+            sum += record.calculateRegularHours();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public double calculateRegularHoursOtherShift() {
+        double sum = 0;
+        for (TimeKeeping record : records) {
+            sum += record.calculateRegularHours(nightShift);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public double calculateOvertimeHours() {
+        double sum = 0;
+        for (TimeKeeping record : records) {
+            sum += record.calculateOvertimeHours();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int isLateForDeduction() {
+        int late = 0;
+        for (TimeKeeping record : records) {
+            if (record.isLateForDeduction()) {
+                late++;
+            }
+        }
+        return late;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int calculateLateMinutes() {
+        int sum = 0;
+        for (TimeKeeping record : records) {
+            sum += record.calculateLateMinutes();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int calculateUndertimeMinutes() {
+        int sum = 0;
+        for (TimeKeeping record : records) {
+            sum += record.calculateUndertimeMinutes();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,118 @@
+// WeeklyAttendanceBenchmark.java
+package motorph.bench;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The WeeklyAttendance aggregations, over one week of every employee
+ * (weeks read straight from an AttendanceStore, like payroll does).
+ * Scores are weeks per microsecond.
+ *
+ * The single metric methods read the week's cached Summary after the first
+ * cycle, so they measure a cache hit. summarize and payrollQuestions drop the
+ * cache first, so they measure the actual pass over the days.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeeklyAttendanceBenchmark {
+    @Param({"34", "1000", "10000", "100000"})
+    int employees;
+
+    private WeeklyAttendance[] weeks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void makeWeeks() {
+        AttendanceStore store = AttendanceStore.fromRows(BenchmarkData.attendance(employees, 1));
+        weeks = new WeeklyAttendance[employees];
+        LocalDate monday = BenchmarkData.FIRST_DAY;
+        for (int i = 0; i < employees; i++) {
+            weeks[i] = store.weeklyAttendance(BenchmarkData.FIRST_EMPLOYEE_ID + i, monday);
+        }
+    }
+
+    // Next employee's week (cycles through all of them, so big sizes don't stay in cache)
+    private WeeklyAttendance nextWeek() {
+        WeeklyAttendance week = weeks[next];
+        next = next + 1 == weeks.length ? 0 : next + 1;
+        return week;
+    }
+
+    @Benchmark
+    public double calculateWeeklyHours() {
+        return nextWeek().calculateWeeklyHours();
+    }
+
+    @Benchmark
+    public double calculateRegularHours() {
+        return nextWeek().calculateRegularHours();
+    }
+
+    @Benchmark
+    public double calculateOvertimeHours() {
+        return nextWeek().calculateOvertimeHours();
+    }
+
+    @Benchmark
+    public int getTotalLateMinutes() {
+        return nextWeek().getTotalLateMinutes();
+    }
+
+    @Benchmark
+    public boolean hasDeductibleLateness() {
+        return nextWeek().hasDeductibleLateness();
+    }
+
+    @Benchmark
+    public int getDeductibleLateMinutes() {
+        return nextWeek().getDeductibleLateMinutes();
+    }
+
+    @Benchmark
+    public int getTotalUndertimeMinutes() {
+        return nextWeek().getTotalUndertimeMinutes();
+    }
+
+    @Benchmark
+    public int getInvalidDayCount() {
+        return nextWeek().getInvalidDayCount();
+    }
+
+    /**
+     * The one pass that works out every total (cache dropped first)
+     */
+    @Benchmark
+    public WeeklyAttendance.Summary summarize() {
+        WeeklyAttendance week = nextWeek();
+        week.setShiftPolicy(week.getShiftPolicy());  // forgets the cached totals
+        return week.getSummary();
+    }
+
+    /**
+     * Everything payroll asks a week for, one after the other (cache dropped first)
+     */
+    @Benchmark
+    public double payrollQuestions() {
+        WeeklyAttendance week = nextWeek();
+        week.setShiftPolicy(week.getShiftPolicy());
+        return week.calculateRegularHours() + week.calculateOvertimeHours() + week.getTotalLateMinutes()
+             + (week.hasDeductibleLateness() ? 1 : 0) + week.getInvalidDayCount();
+    }
+}
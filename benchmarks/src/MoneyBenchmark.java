@@ -0,0 +1,216 @@
+// MoneyBenchmark.java
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Weekly payroll three ways: the double path, the long-centavo path (Money)
+ * and a BigDecimal version of the same rules as a baseline.
+ *
+ * Run from the project folder (so the data/ tables are found):
+ *   javac -d build/bench src/*.java benchmarks/src/MoneyBenchmark.java
+ *   java -cp build/bench MoneyBenchmark
+ *
+ * First it checks that the centavo path gives exactly what BigDecimal gives
+ * (same rounding rules, so they have to agree to the centavo) and shows how far
+ * the summed doubles end up from the exact total. Then it times all three and
+ * reports the bytes allocated per calculation.
+ */
+public class MoneyBenchmark {
+    private static final int WEEKS = 1 << 16;
+    private static final int ROUNDS = 50;
+
+    // The 2018 tax table, written out for the BigDecimal version
+    private static final BigDecimal[] TAX_OVER = amounts("0", "20832", "33333", "66667", "166667", "666667");
+    private static final BigDecimal[] TAX_RATE = amounts("0", "0.20", "0.25", "0.30", "0.32", "0.35");
+    private static final BigDecimal[] TAX_FIXED = amounts("0", "0", "2500", "10833", "40833.33", "200833.33");
+
+    private static final BigDecimal FOUR = BigDecimal.valueOf(4);
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    public static void main(String[] args) {
+        PayrollCalculator calculator = new PayrollCalculator(SssSchedule.latest(), TaxTable.builtIn());
+
+        // Employee-weeks like the real data: 30-45 regular hours, some overtime, most of them late
+        Random random = new Random(42);
+        long[] regular = new long[WEEKS];
+        long[] overtime = new long[WEEKS];
+        long[] rates = new long[WEEKS];
+        boolean[] late = new boolean[WEEKS];
+        for (int i = 0; i < WEEKS; i++) {
+            regular[i] = 3000 + random.nextInt(1500);
+            overtime[i] = random.nextInt(4) == 0 ? random.nextInt(600) : 0;
+            rates[i] = 9000 + random.nextInt(100000);
+            late[i] = random.nextInt(5) != 0;
+        }
+
+        checkCentavosMatchBigDecimal(calculator, regular, overtime, rates, late);
+        showDrift(calculator, regular, overtime, rates, late);
+
+        for (int i = 0; i < 10; i++) {
+            timeDouble(calculator, regular, overtime, rates, late);
+            timeCentavos(calculator, regular, overtime, rates, late);
+            timeBigDecimal(calculator, regular, overtime, rates, late);
+        }
+        System.out.printf("%-12s  %10s  %12s%n", "Path", "ns/week", "bytes/week");
+        report("double", () -> timeDouble(calculator, regular, overtime, rates, late));
+        report("centavos", () -> timeCentavos(calculator, regular, overtime, rates, late));
+        report("BigDecimal", () -> timeBigDecimal(calculator, regular, overtime, rates, late));
+    }
+
+    private interface Timed {
+        double run();
+    }
+
+    private static void report(String label, Timed timed) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        double nanos = timed.run();
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        System.out.printf("%-12s  %10.2f  %12.1f%n", label, nanos, allocated / (double) ((long) ROUNDS * WEEKS));
+    }
+
+    private static double sink; // keeps the JIT from throwing the loops away
+
+    private static double timeDouble(PayrollCalculator calculator, long[] regular, long[] overtime,
+                                     long[] rates, boolean[] late) {
+        PayrollCalculator.SalaryDetails details = new PayrollCalculator.SalaryDetails();
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < regular.length; i++) {
+                sum += calculator.calculateFullSalaryDetails(regular[i] / 100.0, overtime[i] / 100.0,
+                        rates[i] / 100.0, late[i], true, details).getNet();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += sum;
+        return elapsed / (double) ((long) ROUNDS * regular.length);
+    }
+
+    private static double timeCentavos(PayrollCalculator calculator, long[] regular, long[] overtime,
+                                       long[] rates, boolean[] late) {
+        PayrollCalculator.CentavoDetails details = new PayrollCalculator.CentavoDetails();
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < regular.length; i++) {
+                sum += calculator.calculateFullSalaryCentavos(regular[i], overtime[i], rates[i], late[i], true,
+                        details).getNet();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += sum;
+        return elapsed / (double) ((long) ROUNDS * regular.length);
+    }
+
+    private static double timeBigDecimal(PayrollCalculator calculator, long[] regular, long[] overtime,
+                                         long[] rates, boolean[] late) {
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < regular.length; i++) {
+                sum += bigDecimalNet(calculator, regular[i], overtime[i], rates[i], late[i]).unscaledValue().longValue();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += sum;
+        return elapsed / (double) ((long) ROUNDS * regular.length);
+    }
+
+    private static void checkCentavosMatchBigDecimal(PayrollCalculator calculator, long[] regular, long[] overtime,
+                                                     long[] rates, boolean[] late) {
+        PayrollCalculator.CentavoDetails details = new PayrollCalculator.CentavoDetails();
+        for (int i = 0; i < regular.length; i++) {
+            long centavos = calculator.calculateFullSalaryCentavos(regular[i], overtime[i], rates[i], late[i], true,
+                    details).getNet();
+            BigDecimal exact = bigDecimalNet(calculator, regular[i], overtime[i], rates[i], late[i]);
+            if (exact.movePointRight(2).longValueExact() != centavos) {
+                throw new AssertionError("Week " + i + ": centavos " + Money.format(centavos) + " vs BigDecimal " + exact);
+            }
+        }
+        System.out.println("Centavo path matches BigDecimal on all " + regular.length + " weeks");
+    }
+
+    // Adds up every net pay both ways and shows how far the double total is from the exact one
+    private static void showDrift(PayrollCalculator calculator, long[] regular, long[] overtime,
+                                  long[] rates, boolean[] late) {
+        PayrollCalculator.SalaryDetails doubles = new PayrollCalculator.SalaryDetails();
+        PayrollCalculator.CentavoDetails centavos = new PayrollCalculator.CentavoDetails();
+        double doubleTotal = 0;
+        BigDecimal doubleExactTotal = BigDecimal.ZERO;
+        long centavoTotal = 0;
+        for (int i = 0; i < regular.length; i++) {
+            double net = calculator.calculateFullSalaryDetails(regular[i] / 100.0, overtime[i] / 100.0,
+                    rates[i] / 100.0, late[i], true, doubles).getNet();
+            doubleTotal += net;
+            doubleExactTotal = doubleExactTotal.add(new BigDecimal(net));
+            centavoTotal += calculator.calculateFullSalaryCentavos(regular[i], overtime[i], rates[i], late[i], true,
+                    centavos).getNet();
+        }
+        System.out.printf("Total net of %d weeks: centavos %s, double %s%n", regular.length,
+                Money.format(centavoTotal), new BigDecimal(doubleTotal).toPlainString());
+        System.out.printf("  double total is off its own exact sum by %s (order-dependent),%n",
+                new BigDecimal(doubleTotal).subtract(doubleExactTotal).toPlainString());
+        System.out.printf("  and off the centavo total by %s (unrounded fractions of a centavo)%n",
+                doubleExactTotal.subtract(BigDecimal.valueOf(centavoTotal, 2)).setScale(6, RoundingMode.HALF_UP));
+    }
+
+    // The centavo rules written with BigDecimal (HALF_UP is halves away from zero, same as Money)
+    private static BigDecimal bigDecimalNet(PayrollCalculator calculator, long regularHundredths,
+                                            long overtimeHundredths, long rateCentavos, boolean late) {
+        BigDecimal rate = BigDecimal.valueOf(rateCentavos, 2);
+        BigDecimal regularPay = rate.multiply(BigDecimal.valueOf(regularHundredths, 2)).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal overtimePay = BigDecimal.ZERO;
+        if (!late && overtimeHundredths > 0) {
+            overtimePay = rate.multiply(BigDecimal.valueOf(overtimeHundredths, 2)).multiply(new BigDecimal("1.25"))
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+        BigDecimal gross = regularPay.add(overtimePay);
+        if (!late) {
+            return gross;
+        }
+        BigDecimal monthly = gross.multiply(FOUR);
+        BigDecimal sss = BigDecimal.valueOf(calculator.getSssSchedule().contributionFor(monthly.doubleValue()))
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal philHealthTotal;
+        if (monthly.compareTo(BigDecimal.valueOf(10000)) <= 0) {
+            philHealthTotal = BigDecimal.valueOf(300);
+        } else if (monthly.compareTo(BigDecimal.valueOf(60000)) >= 0) {
+            philHealthTotal = BigDecimal.valueOf(1800);
+        } else {
+            philHealthTotal = monthly.multiply(new BigDecimal("0.03")).setScale(2, RoundingMode.HALF_UP);
+        }
+        BigDecimal philHealth = philHealthTotal.divide(TWO, 2, RoundingMode.HALF_UP);
+        BigDecimal pagIbigRate = monthly.compareTo(BigDecimal.valueOf(1500)) <= 0 ? new BigDecimal("0.01") : new BigDecimal("0.02");
+        BigDecimal pagIbig = monthly.multiply(pagIbigRate).setScale(2, RoundingMode.HALF_UP).min(BigDecimal.valueOf(100));
+
+        sss = sss.divide(FOUR, 2, RoundingMode.HALF_UP);
+        philHealth = philHealth.divide(FOUR, 2, RoundingMode.HALF_UP);
+        pagIbig = pagIbig.divide(FOUR, 2, RoundingMode.HALF_UP);
+        BigDecimal taxable = gross.subtract(sss).subtract(philHealth).subtract(pagIbig);
+
+        BigDecimal monthlyTaxable = taxable.multiply(FOUR);
+        int bracket = 0;
+        for (int b = 1; b < TAX_OVER.length; b++) {
+            if (monthlyTaxable.compareTo(TAX_OVER[b]) > 0) {
+                bracket = b;
+            }
+        }
+        BigDecimal monthlyTax = TAX_FIXED[bracket].add(monthlyTaxable.subtract(TAX_OVER[bracket])
+                .multiply(TAX_RATE[bracket]).setScale(2, RoundingMode.HALF_UP));
+        BigDecimal tax = monthlyTax.divide(FOUR, 2, RoundingMode.HALF_UP).divide(FOUR, 2, RoundingMode.HALF_UP);
+        return taxable.subtract(tax);
+    }
+
+    private static BigDecimal[] amounts(String... values) {
+        BigDecimal[] amounts = new BigDecimal[values.length];
+        for (int i = 0; i < values.length; i++) {
+            amounts[i] = new BigDecimal(values[i]);
+        }
+        return amounts;
+    }
+}
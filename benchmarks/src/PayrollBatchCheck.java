@@ -0,0 +1,124 @@
+// PayrollBatchCheck.java
+import java.util.Random;
+
+/**
+ * Checks that PayrollCalculator.calculateBatch gives exactly (bit for bit) what
+ * calculateFullSalaryDetails gives, row by row, for both batch versions.
+ *
+ * Run from the project folder (so the data/ tables are found):
+ *   javac -d build/bench src/*.java benchmarks/src/PayrollBatchCheck.java
+ *   java -cp build/bench PayrollBatchCheck
+ *
+ * Rows: random employee-weeks (late and not, with and without overtime), plus
+ * monthly salaries just below, on and just above every SSS bracket bound and the
+ * PhilHealth and Pag-IBIG thresholds. Each set is run with and without prorating,
+ * on the tables in data/, on the built-in tables and with what-if rates.
+ * Exits with an exception on the first difference.
+ */
+public class PayrollBatchCheck {
+    private static final int RANDOM_ROWS = 200_000;
+
+    public static void main(String[] args) {
+        PayrollCalculator[] calculators = {
+            new PayrollCalculator(),
+            new PayrollCalculator(SssSchedule.builtIn(), TaxTable.builtIn()),
+            new PayrollCalculator(SssSchedule.latest(), TaxTable.latest(), 1.5, 0.15),
+        };
+
+        PayrollBatch random = randomRows();
+        PayrollBatch edges = bracketEdges();
+        long checked = 0;
+        for (PayrollCalculator calculator : calculators) {
+            for (boolean prorate : new boolean[] {false, true}) {
+                checked += check(calculator, random, prorate);
+                checked += check(calculator, edges, prorate);
+            }
+        }
+        System.out.println("Batch matches calculateFullSalaryDetails on " + checked + " rows");
+    }
+
+    // Employee-weeks like the real data: 30-45 regular hours, some overtime, most of them late
+    private static PayrollBatch randomRows() {
+        Random random = new Random(42);
+        PayrollBatch batch = new PayrollBatch(RANDOM_ROWS);
+        for (int i = 0; i < RANDOM_ROWS; i++) {
+            double regular = Math.round((30 + random.nextDouble() * 15) * 100) / 100.0;
+            double overtime = random.nextInt(4) == 0 ? Math.round(random.nextDouble() * 600) / 100.0 : 0.0;
+            double rate = Math.round((90 + random.nextDouble() * 1000) * 100) / 100.0;
+            batch.add(regular, overtime, rate, random.nextInt(5) != 0);
+        }
+        return batch;
+    }
+
+    // Weekly pay (at a rate of 1) whose monthly salary (x4) sits right on a bracket edge
+    private static PayrollBatch bracketEdges() {
+        PayrollBatch batch = new PayrollBatch();
+        double[] thresholds = {1500, 10000, 60000};
+        for (double threshold : thresholds) {
+            addAround(batch, threshold);
+        }
+        for (int bound = 3250; bound <= 24750; bound += 500) {
+            addAround(batch, bound);
+        }
+        return batch;
+    }
+
+    private static void addAround(PayrollBatch batch, double monthlySalary) {
+        for (double salary : new double[] {Math.nextDown(monthlySalary), monthlySalary, Math.nextUp(monthlySalary)}) {
+            batch.add(salary / 4, 0.0, 1.0, true);
+            batch.add(salary / 4, 2.5, 1.0, false);
+        }
+    }
+
+    private static int check(PayrollCalculator calculator, PayrollBatch batch, boolean prorate) {
+        int n = batch.size();
+        calculator.calculateBatch(batch, prorate);
+
+        // The array version, on copies of the inputs
+        double[] regular = new double[n];
+        double[] overtime = new double[n];
+        double[] rates = new double[n];
+        boolean[] late = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            regular[i] = batch.getRegularHours(i);
+            overtime[i] = batch.getOvertimeHours(i);
+            rates[i] = batch.getHourlyRate(i);
+            late[i] = batch.hasLateness(i);
+        }
+        double[] gross = new double[n];
+        double[] sss = new double[n];
+        double[] philHealth = new double[n];
+        double[] pagIbig = new double[n];
+        double[] taxable = new double[n];
+        double[] tax = new double[n];
+        double[] net = new double[n];
+        calculator.calculateBatch(regular, overtime, rates, late, n, prorate,
+                                  gross, sss, philHealth, pagIbig, taxable, tax, net);
+
+        PayrollCalculator.SalaryDetails expected = new PayrollCalculator.SalaryDetails();
+        for (int i = 0; i < n; i++) {
+            calculator.calculateFullSalaryDetails(regular[i], overtime[i], rates[i], late[i], prorate, expected);
+            String row = "row " + i + " (" + regular[i] + " h, " + overtime[i] + " OT h, rate " + rates[i]
+                    + ", late " + late[i] + ", prorate " + prorate + ")";
+            same(row, "regular pay", expected.getRegularPay(), batch.getRegularPay(i));
+            same(row, "OT pay", expected.getOvertimePay(), batch.getOvertimePay(i));
+            same(row, "gross", expected.getGross(), batch.getGross(i), gross[i]);
+            same(row, "SSS", expected.getSss(), batch.getSss(i), sss[i]);
+            same(row, "PhilHealth", expected.getPhilHealth(), batch.getPhilHealth(i), philHealth[i]);
+            same(row, "Pag-IBIG", expected.getPagIbig(), batch.getPagIbig(i), pagIbig[i]);
+            same(row, "taxable", expected.getTaxable(), batch.getTaxable(i), taxable[i]);
+            same(row, "tax", expected.getTax(), batch.getTax(i), tax[i]);
+            same(row, "net", expected.getNet(), batch.getNet(i), net[i]);
+        }
+        return n;
+    }
+
+    private static void same(String row, String column, double expected, double... actual) {
+        for (double value : actual) {
+            if (Double.doubleToLongBits(value) != Double.doubleToLongBits(expected)) {
+                throw new IllegalStateException(column + " differs at " + row + ": single " + expected
+                        + ", batch " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+// ScaleBenchmark.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * End to end run at company sizes the shipped data never gets near: writes a
+ * made-up workforce with WorkforceGenerator, then loads it and runs payroll the
+ * way the app does, timing each step.
+ *
+ * Run from the project folder (so data/sss_schedules.csv etc. are found):
+ *   javac -d build/bench src/*.java benchmarks/src/WorkforceGenerator.java benchmarks/src/ScaleBenchmark.java
+ *   java -Xmx4g -cp build/bench ScaleBenchmark
+ *
+ * Sizes are employees x years, e.g. "ScaleBenchmark 1000x1 10000x3 50000x1".
+ * The default is 34x1 1000x1 10000x3. Other options:
+ *   --dir <folder>   where to write the data (default: a temp folder)
+ *   --keep           don't delete the generated files afterwards
+ *   --csv <file>     also append every result to a csv file
+ *
+ * Steps for each size:
+ *   employees.csv   FileHandler.readEmployees
+ *   attendance.csv  AttendanceStore.load
+ *   weekly files    WeeklyAttendanceFiles.load
+ *   snapshot build  DataSnapshot.rebuild (both csv files parsed, snapshot written)
+ *   snapshot load   DataSnapshot.load (the fast path every window uses)
+ *   lookups         DataSnapshot.findEmployeeRow for every employee (detail window)
+ *   payroll         PayrollRun.run over the whole generated period
+ *
+ * Each step reports wall time, records per second and the peak heap during the
+ * step (heap pools' peak usage, reset after a GC before the step starts, so it
+ * includes whatever earlier steps still hold). Anything that grows faster than
+ * the data shows up as falling records/sec at the bigger sizes.
+ * Everything runs headless - no Swing.
+ */
+public class ScaleBenchmark {
+    private static final String[] DEFAULT_SIZES = {"34x1", "1000x1", "10000x3"};
+    private static final String CSV_HEADER = "employees,years,step,records,millis,records_per_sec,peak_heap_mb";
+
+    private final List<String> csvLines = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException {
+        List<String> sizes = new ArrayList<>();
+        Path dir = null;
+        Path csv = null;
+        boolean keep = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dir":
+                    dir = Paths.get(args[++i]);
+                    break;
+                case "--csv":
+                    csv = Paths.get(args[++i]);
+                    break;
+                case "--keep":
+                    keep = true;
+                    break;
+                default:
+                    sizes.add(args[i]);
+            }
+        }
+        if (sizes.isEmpty()) {
+            sizes.addAll(List.of(DEFAULT_SIZES));
+        }
+
+        ScaleBenchmark benchmark = new ScaleBenchmark();
+        System.out.printf("Max heap %d MB, %d processors%n", Runtime.getRuntime().maxMemory() >> 20,
+                Runtime.getRuntime().availableProcessors());
+        for (String size : sizes) {
+            String[] parts = size.toLowerCase(Locale.ROOT).split("x");
+            if (parts.length != 2) {
+                System.out.println("Size should look like 10000x3 (employees x years): " + size);
+                System.exit(2);
+            }
+            int employees = Integer.parseInt(parts[0]);
+            int years = Integer.parseInt(parts[1]);
+            Path folder = dir != null ? dir.resolve(employees + "x" + years)
+                    : Files.createTempDirectory("motorph-scale-");
+            try {
+                benchmark.run(folder, employees, years);
+            } finally {
+                if (!keep) {
+                    deleteFolder(folder);
+                }
+            }
+        }
+
+        if (csv != null) {
+            boolean header = !Files.exists(csv) || Files.size(csv) == 0;
+            try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (header) {
+                    writer.write(CSV_HEADER);
+                    writer.newLine();
+                }
+                for (String line : benchmark.csvLines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            System.out.println("Results added to " + csv);
+        }
+    }
+
+    private void run(Path folder, int employees, int years) throws IOException {
+        System.out.println();
+        System.out.printf("== %d employees x %d years ==%n", employees, years);
+        long start = System.nanoTime();
+        WorkforceGenerator.Result generated = WorkforceGenerator.generate(folder, employees, years,
+                WorkforceGenerator.DEFAULT_SEED);
+        System.out.printf("Generated %d attendance rows, %d weekly files, %.1f MB in %.1f s%n",
+                generated.getAttendanceRows(), generated.getWeeklyFiles(), generated.getBytes() / 1e6,
+                (System.nanoTime() - start) / 1e9);
+        System.out.printf("%-16s %12s %12s %14s %14s%n", "Step", "Records", "ms", "Records/sec", "Peak heap MB");
+
+        Path employeesFile = folder.resolve("employees.csv");
+        Path attendanceFile = folder.resolve("attendance.csv");
+        long rows = generated.getAttendanceRows();
+
+        List<Employee> staff = step(employees, years, "employees.csv", employees,
+                () -> FileHandler.readEmployees(employeesFile.toString()));
+        AttendanceStore attendance = step(employees, years, "attendance.csv", rows,
+                () -> AttendanceStore.load(attendanceFile));
+        WeeklyAttendanceFiles weekly = step(employees, years, "weekly files", rows,
+                () -> WeeklyAttendanceFiles.load(folder));
+        check(weekly.getRowCount() == attendance.size(), "weekly files and attendance.csv have different row counts");
+        weekly = null;  // let it go before the next step measures the heap
+
+        step(employees, years, "snapshot build", rows + employees,
+                () -> DataSnapshot.rebuild(employeesFile, attendanceFile));
+        DataSnapshot snapshot = step(employees, years, "snapshot load", rows + employees,
+                () -> DataSnapshot.load(employeesFile, attendanceFile));
+        check(snapshot.isLoadedFromSnapshot(), "snapshot wasn't used on the second load");
+
+        int found = step(employees, years, "lookups", employees, () -> {
+            int hits = 0;
+            for (Employee employee : staff) {
+                if (snapshot.findEmployeeRow(employee.getEmployeeNumber()) != null) {
+                    hits++;
+                }
+            }
+            return hits;
+        });
+        check(found == employees, "only " + found + " of " + employees + " employees found");
+
+        LocalDate from = WorkforceGenerator.FIRST_DAY;
+        LocalDate to = from.plusWeeks(years * 52L).minusDays(1);
+        PayrollRun payroll = step(employees, years, "payroll", rows,
+                () -> PayrollRun.run(staff, attendance, from, to));
+        System.out.printf("Payroll %s to %s: gross %.2f, net %.2f%n",
+                AttendanceStore.formatDate((int) from.toEpochDay()), AttendanceStore.formatDate((int) to.toEpochDay()),
+                payroll.getTotalGross(), payroll.getTotalNet());
+    }
+
+    private interface Step<T> {
+        T run() throws IOException;
+    }
+
+    // Runs one step, prints its line and keeps the csv line
+    private <T> T step(int employees, int years, String name, long records, Step<T> step) throws IOException {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        long start = System.nanoTime();
+        T result = step.run();
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        double perSecond = millis > 0 ? records / (millis / 1000.0) : 0;
+        System.out.printf("%-16s %12d %12.1f %14.0f %14.1f%n", name, records, millis, perSecond, peak / 1048576.0);
+        csvLines.add(String.format(Locale.ROOT, "%d,%d,%s,%d,%.3f,%.0f,%.1f",
+                employees, years, name, records, millis, perSecond, peak / 1048576.0));
+        return result;
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void deleteFolder(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+// SssLookupBenchmark.java
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Per-call time of the SSS lookup: the old if/else chain vs SssSchedule.
+ *
+ * Run from the project folder (so data/sss_schedules.csv is found):
+ *   javac -d build/bench src/*.java benchmarks/src/SssLookupBenchmark.java
+ *   java -cp build/bench SssLookupBenchmark
+ *
+ * It first checks that the table gives exactly what the chain gave for every
+ * salary it tries, then times both on low, top-bracket and mixed salaries.
+ */
+public class SssLookupBenchmark {
+    private static final int SALARIES = 1 << 16;
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        SssSchedule table = SssSchedule.latest();
+        SssSchedule binarySearch = unevenCopy(table);
+
+        checkSameAsChain(table, binarySearch);
+
+        Random random = new Random(42);
+        double[] low = new double[SALARIES];
+        double[] top = new double[SALARIES];
+        double[] mixed = new double[SALARIES];
+        for (int i = 0; i < SALARIES; i++) {
+            low[i] = 1000 + random.nextDouble() * 2000;        // first bracket
+            top[i] = 25000 + random.nextDouble() * 100000;     // past the last bracket
+            mixed[i] = random.nextDouble() * 30000;
+        }
+
+        System.out.printf("%-10s  %12s  %12s  %14s%n", "Salaries", "chain ns", "table ns", "bsearch ns");
+        report("low", low, table, binarySearch);
+        report("top", top, table, binarySearch);
+        report("mixed", mixed, table, binarySearch);
+    }
+
+    private static void report(String label, double[] salaries, SssSchedule table, SssSchedule binarySearch) {
+        // Warm up all three so the JIT has compiled them before timing
+        for (int i = 0; i < 20; i++) {
+            timeChain(salaries);
+            timeTable(salaries, table);
+            timeTable(salaries, binarySearch);
+        }
+        System.out.printf("%-10s  %12.2f  %12.2f  %14.2f%n", label,
+                timeChain(salaries), timeTable(salaries, table), timeTable(salaries, binarySearch));
+    }
+
+    private static double sink; // keeps the JIT from throwing the loops away
+
+    private static double timeChain(double[] salaries) {
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (double salary : salaries) {
+                sum += chain(salary);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += sum;
+        return elapsed / (double) ((long) ROUNDS * salaries.length);
+    }
+
+    private static double timeTable(double[] salaries, SssSchedule schedule) {
+        double sum = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (double salary : salaries) {
+                sum += schedule.contributionFor(salary);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += sum;
+        return elapsed / (double) ((long) ROUNDS * salaries.length);
+    }
+
+    private static void checkSameAsChain(SssSchedule table, SssSchedule binarySearch) {
+        int checked = 0;
+        for (int cents = 0; cents <= 3_000_000; cents++) {
+            double salary = cents / 100.0;
+            double expected = chain(salary);
+            if (table.contributionFor(salary) != expected || binarySearch.contributionFor(salary) != expected) {
+                throw new IllegalStateException("Mismatch at " + salary);
+            }
+            checked++;
+        }
+        for (int bound = 3250; bound <= 24750; bound += 500) {
+            for (double salary : new double[] {Math.nextDown((double) bound), bound, Math.nextUp((double) bound)}) {
+                if (table.contributionFor(salary) != chain(salary)
+                        || binarySearch.contributionFor(salary) != chain(salary)) {
+                    throw new IllegalStateException("Mismatch at " + salary);
+                }
+                checked++;
+            }
+        }
+        System.out.println("Table matches the if/else chain on " + checked + " salaries");
+    }
+
+    // Same amounts, but with the 3,250-3,750 bracket split in two (both paying
+    // 157.50) so the bounds aren't evenly spaced -> the binary search path
+    private static SssSchedule unevenCopy(SssSchedule schedule) {
+        double[] bounds = new double[45];
+        double[] amounts = new double[46];
+        bounds[0] = 3250;
+        bounds[1] = 3500;
+        for (int i = 2; i < bounds.length; i++) {
+            bounds[i] = 3750 + 500 * (i - 2);
+        }
+        amounts[0] = schedule.contributionFor(0);
+        for (int i = 1; i < amounts.length; i++) {
+            amounts[i] = schedule.contributionFor(bounds[i - 1]);
+        }
+        return new SssSchedule(LocalDate.of(2021, 1, 1), bounds, amounts);
+    }
+
+    /**
+     * The old PayrollCalculator.calculateSSS chain (on the monthly salary), kept as the baseline
+     */
+    static double chain(double monthlySalary) {
+        if (monthlySalary < 3250) return 135.00;
+        else if (monthlySalary < 3750) return 157.50;
+        else if (monthlySalary < 4250) return 180.00;
+        else if (monthlySalary < 4750) return 202.50;
+        else if (monthlySalary < 5250) return 225.00;
+        else if (monthlySalary < 5750) return 247.50;
+        else if (monthlySalary < 6250) return 270.00;
+        else if (monthlySalary < 6750) return 292.50;
+        else if (monthlySalary < 7250) return 315.00;
+        else if (monthlySalary < 7750) return 337.50;
+        else if (monthlySalary < 8250) return 360.00;
+        else if (monthlySalary < 8750) return 382.50;
+        else if (monthlySalary < 9250) return 405.00;
+        else if (monthlySalary < 9750) return 427.50;
+        else if (monthlySalary < 10250) return 450.00;
+        else if (monthlySalary < 10750) return 472.50;
+        else if (monthlySalary < 11250) return 495.00;
+        else if (monthlySalary < 11750) return 517.50;
+        else if (monthlySalary < 12250) return 540.00;
+        else if (monthlySalary < 12750) return 562.50;
+        else if (monthlySalary < 13250) return 585.00;
+        else if (monthlySalary < 13750) return 607.50;
+        else if (monthlySalary < 14250) return 630.00;
+        else if (monthlySalary < 14750) return 652.50;
+        else if (monthlySalary < 15250) return 675.00;
+        else if (monthlySalary < 15750) return 697.50;
+        else if (monthlySalary < 16250) return 720.00;
+        else if (monthlySalary < 16750) return 742.50;
+        else if (monthlySalary < 17250) return 765.00;
+        else if (monthlySalary < 17750) return 787.50;
+        else if (monthlySalary < 18250) return 810.00;
+        else if (monthlySalary < 18750) return 832.50;
+        else if (monthlySalary < 19250) return 855.00;
+        else if (monthlySalary < 19750) return 877.50;
+        else if (monthlySalary < 20250) return 900.00;
+        else if (monthlySalary < 20750) return 922.50;
+        else if (monthlySalary < 21250) return 945.00;
+        else if (monthlySalary < 21750) return 967.50;
+        else if (monthlySalary < 22250) return 990.00;
+        else if (monthlySalary < 22750) return 1012.50;
+        else if (monthlySalary < 23250) return 1035.00;
+        else if (monthlySalary < 23750) return 1057.50;
+        else if (monthlySalary < 24250) return 1080.00;
+        else if (monthlySalary < 24750) return 1102.50;
+        else return 1125.00; // max contribution
+    }
+}
@@ -0,0 +1,344 @@
+// WorkforceGenerator.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Writes a made-up company of any size in the same formats as data/:
+ * employees.csv (all 19 columns, quoted like the real file), attendance.csv and
+ * one attendance_MM_DD_YYYY.txt per week.
+ *
+ * Run from the project folder:
+ *   javac -d build/bench src/*.java benchmarks/src/WorkforceGenerator.java
+ *   java -cp build/bench WorkforceGenerator build/scale/10k 10000 3
+ *
+ * Arguments: folder, employees, years of attendance, and optionally a seed.
+ * The same seed always gives the same files.
+ *
+ * The company is a tree like the real one: the CEO (10001, supervisor N/A),
+ * then department managers, team leaders and rank and file, 8 people under
+ * each supervisor. "Immediate Supervisor" is the supervisor's "Last, First",
+ * and every name is different so it always points at exactly one person.
+ *
+ * Attendance is Monday to Friday from Monday 3 June 2024, with the same spread
+ * as data/attendance.csv (log in 7:30-10:30, log out 16:00-20:00, about 3%
+ * absent days). attendance.csv and the weekly files hold exactly the same
+ * punches, so either one can be loaded.
+ */
+public class WorkforceGenerator {
+    public static final int FIRST_EMPLOYEE_ID = 10001;
+    public static final LocalDate FIRST_DAY = LocalDate.of(2024, 6, 3);  // a Monday
+    public static final long DEFAULT_SEED = 42;
+
+    // People under each supervisor
+    private static final int FAN_OUT = 8;
+
+    private static final String EMPLOYEE_HEADER = "Employee #,Last Name,First Name,Birthday,Address,Phone Number,"
+            + "SSS #,Philhealth #,TIN #,Pag-ibig #,Status,Position,Immediate Supervisor,Basic Salary,Rice Subsidy,"
+            + "Phone Allowance,Clothing Allowance,Gross Semi-monthly Rate,Hourly Rate";
+    private static final String ATTENDANCE_HEADER = "Employee #,Last Name,First Name,Date,Log In,Log Out";
+
+    private static final String[] LAST_NAMES = {
+        "Garcia", "Lim", "Aquino", "Reyes", "Hernandez", "Villanueva", "San Jose", "Romualdez", "Atienza",
+        "Alvaro", "Salcedo", "Lopez", "Farala", "Martinez", "Mata", "De Leon", "Rosario", "Bautista", "Lazaro",
+        "Delos Santos", "Santos", "Del Rosario", "Tolentino", "Gutierrez", "Manalaysay", "Villegas", "Ramos",
+        "Maceda", "Aguilar", "Castro", "Cruz", "Mendoza", "Torres", "Flores", "Navarro", "Pascual"
+    };
+    private static final String[] FIRST_NAMES = {
+        "Manuel", "Antonio", "Bianca Sofia", "Isabella", "Eduard", "Andrea Mae", "Brad", "Alice", "Rosie",
+        "Roderick", "Anthony", "Josie", "Martha", "Leila", "Fredrick", "Christian", "Selena", "Allison", "Cydney",
+        "Mark", "Darlene", "Kolby", "Vella", "Tomas", "Jacklyn", "Percival", "Garfield", "Lizeth", "Carol",
+        "Emelia", "Delia", "John Rafael", "Carlos Ian", "Beatriz", "Paolo", "Katrina", "Miguel", "Angelica"
+    };
+    private static final String[] DEPARTMENTS = {
+        "Account", "HR", "Payroll", "Accounting", "IT Operations", "Sales & Marketing", "Supply Chain",
+        "Customer Service"
+    };
+    private static final String[] CITIES = {
+        "Makati City", "Dasmarinas, Cavite", "Taguig City", "Quezon City", "Pasig City", "Cebu City",
+        "Davao City", "Bacolod City", "Iloilo City", "Baguio City"
+    };
+    private static final String[] STREETS = {
+        "Valero Street", "National Highway", "Rizal Avenue", "Mabini Street", "Bonifacio Drive",
+        "Katipunan Avenue", "Aguinaldo Highway", "Osmena Boulevard"
+    };
+    // Rank and file basic salaries in the real file
+    private static final int[] RANK_AND_FILE_SALARIES = {22500, 23250, 24000, 24750};
+    private static final String[] DAY_TOKENS = {"Mon", "Tue", "Wed", "Thu", "Fri"};
+
+    /**
+     * What was written
+     */
+    public static class Result {
+        final int employees;
+        final long attendanceRows;
+        final int weeklyFiles;
+        final long bytes;
+
+        Result(int employees, long attendanceRows, int weeklyFiles, long bytes) {
+            this.employees = employees;
+            this.attendanceRows = attendanceRows;
+            this.weeklyFiles = weeklyFiles;
+            this.bytes = bytes;
+        }
+
+        public int getEmployees() {
+            return employees;
+        }
+
+        public long getAttendanceRows() {
+            return attendanceRows;
+        }
+
+        public int getWeeklyFiles() {
+            return weeklyFiles;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java WorkforceGenerator <folder> <employees> <years> [seed]");
+            System.exit(2);
+        }
+        Path folder = Paths.get(args[0]);
+        int employees = Integer.parseInt(args[1]);
+        int years = Integer.parseInt(args[2]);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+
+        long start = System.nanoTime();
+        Result result = generate(folder, employees, years, seed);
+        System.out.printf("Wrote %d employees, %d attendance rows and %d weekly files (%.1f MB) to %s in %.1f s%n",
+                result.employees, result.attendanceRows, result.weeklyFiles, result.bytes / 1e6,
+                folder.toAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Writes employees.csv, attendance.csv and the weekly files into a folder
+     *
+     * @param folder Where to write (created if needed; existing files are replaced)
+     * @param employees How many employees
+     * @param years Years of attendance (52 weeks each)
+     * @param seed Random seed
+     * @return What was written
+     * @throws IOException If a file can't be written
+     */
+    public static Result generate(Path folder, int employees, int years, long seed) throws IOException {
+        if (employees < 1 || years < 1) {
+            throw new IllegalArgumentException("Need at least 1 employee and 1 year");
+        }
+        Files.createDirectories(folder);
+        String[] lastNames = new String[employees];
+        String[] firstNames = new String[employees];
+        for (int i = 0; i < employees; i++) {
+            lastNames[i] = lastName(i);
+            firstNames[i] = firstName(i);
+        }
+
+        long bytes = writeEmployees(folder.resolve("employees.csv"), lastNames, firstNames, seed);
+        int weeks = years * 52;
+        long rows = 0;
+        String[] times = timeStrings();
+
+        // attendance.csv goes day by day like the real file...
+        Path csv = folder.resolve("attendance.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write(ATTENDANCE_HEADER);
+            writer.newLine();
+            StringBuilder line = new StringBuilder(64);
+            for (int week = 0; week < weeks; week++) {
+                for (int weekday = 0; weekday < 5; weekday++) {
+                    int epochDay = (int) FIRST_DAY.toEpochDay() + week * 7 + weekday;
+                    String date = AttendanceStore.formatDate(epochDay);
+                    for (int i = 0; i < employees; i++) {
+                        long punch = punch(seed, i, epochDay);
+                        if (punch < 0) {
+                            continue;  // absent
+                        }
+                        line.setLength(0);
+                        line.append(FIRST_EMPLOYEE_ID + i).append(',').append(lastNames[i]).append(',')
+                            .append(firstNames[i]).append(',').append(date).append(',')
+                            .append(times[(int) (punch >> 16)]).append(',').append(times[(int) (punch & 0xFFFF)]);
+                        writer.append(line);
+                        writer.newLine();
+                        rows++;
+                    }
+                }
+            }
+        }
+        bytes += Files.size(csv);
+
+        // ...and the weekly files go employee by employee, like data/attendance_*.txt
+        StringBuilder line = new StringBuilder(32);
+        for (int week = 0; week < weeks; week++) {
+            LocalDate monday = FIRST_DAY.plusWeeks(week);
+            Path file = folder.resolve(String.format(Locale.ROOT, "attendance_%02d_%02d_%04d.txt",
+                    monday.getMonthValue(), monday.getDayOfMonth(), monday.getYear()));
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int i = 0; i < employees; i++) {
+                    for (int weekday = 0; weekday < 5; weekday++) {
+                        long punch = punch(seed, i, (int) monday.toEpochDay() + weekday);
+                        if (punch < 0) {
+                            continue;
+                        }
+                        line.setLength(0);
+                        line.append(FIRST_EMPLOYEE_ID + i).append(',').append(DAY_TOKENS[weekday]).append(',')
+                            .append(times[(int) (punch >> 16)]).append(',').append(times[(int) (punch & 0xFFFF)]);
+                        writer.append(line);
+                        writer.newLine();
+                    }
+                }
+            }
+            bytes += Files.size(file);
+        }
+        return new Result(employees, rows, weeks, bytes);
+    }
+
+    private static long writeEmployees(Path file, String[] lastNames, String[] firstNames, long seed)
+            throws IOException {
+        int count = lastNames.length;
+        String[] row = new String[FileHandler.EMPLOYEE_COLUMNS];
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(EMPLOYEE_HEADER);
+            writer.newLine();
+            for (int i = 0; i < count; i++) {
+                long h = mix(seed, i, -1);
+                int depth = depth(i);
+                // Department comes from the manager at the top of the branch
+                int top = i;
+                while (top > FAN_OUT) {
+                    top = supervisor(top);
+                }
+                String department = DEPARTMENTS[(top + DEPARTMENTS.length - 1) % DEPARTMENTS.length];
+
+                int salary;
+                String position;
+                if (depth == 0) {
+                    position = "Chief Executive Officer";
+                    salary = 90000;
+                } else if (depth == 1) {
+                    position = department + " Manager";
+                    salary = 60000;
+                } else if (depth == 2) {
+                    position = department + " Team Leader";
+                    salary = 52670;
+                } else {
+                    position = department + " Rank and File";
+                    salary = RANK_AND_FILE_SALARIES[(int) ((h >>> 8) & 3)];
+                }
+                int allowance = salary >= 60000 ? 2000 : salary >= 50000 ? 1000 : salary >= 40000 ? 800 : 500;
+
+                row[FileHandler.COL_EMPLOYEE_ID] = String.valueOf(FIRST_EMPLOYEE_ID + i);
+                row[FileHandler.COL_LAST_NAME] = lastNames[i];
+                row[FileHandler.COL_FIRST_NAME] = firstNames[i];
+                row[FileHandler.COL_BIRTHDAY] = String.format(Locale.ROOT, "%02d/%02d/%d",
+                        1 + (h >>> 12) % 12, 1 + (h >>> 16) % 28, 1965 + (h >>> 20) % 35);
+                row[4] = (1 + (h >>> 24) % 999) + " " + STREETS[(int) ((h >>> 34) % STREETS.length)] + ", "
+                        + CITIES[(int) ((h >>> 38) % CITIES.length)];
+                row[5] = digits(h, 3) + "-" + digits(h >>> 10, 3) + "-" + digits(h >>> 20, 3);
+                row[6] = digits(h >>> 4, 2) + "-" + digits(h >>> 11, 7) + "-" + digits(h >>> 40, 1);
+                row[7] = digits(h >>> 6, 12);
+                row[8] = digits(h >>> 9, 3) + "-" + digits(h >>> 19, 3) + "-" + digits(h >>> 29, 3) + "-000";
+                row[9] = digits(h >>> 13, 12);
+                row[10] = (h >>> 50) % 3 == 0 ? "Probationary" : "Regular";
+                row[FileHandler.COL_POSITION] = position;
+                row[FileHandler.COL_SUPERVISOR] = i == 0 ? "N/A"
+                        : lastNames[supervisor(i)] + ", " + firstNames[supervisor(i)];
+                row[13] = amount(salary);
+                row[14] = amount(1500);
+                row[15] = amount(allowance);
+                row[16] = amount(salary >= 50000 ? 1000 : allowance);
+                row[FileHandler.COL_SEMI_MONTHLY_RATE] = amount(salary / 2);
+                // Hourly rate is the monthly salary over 168 hours, like the real file
+                row[FileHandler.COL_HOURLY_RATE] = String.format(Locale.ROOT, "%.2f", salary / 168.0);
+                writer.write(FileHandler.toCsvLine(row));
+                writer.newLine();
+            }
+        }
+        return Files.size(file);
+    }
+
+    /**
+     * @return Index (0 based) of the supervisor of employee index i (i > 0)
+     */
+    static int supervisor(int i) {
+        return (i - 1) / FAN_OUT;
+    }
+
+    // 0 for the CEO, 1 for department managers, ...
+    private static int depth(int i) {
+        int depth = 0;
+        while (i > 0) {
+            i = supervisor(i);
+            depth++;
+        }
+        return depth;
+    }
+
+    // Every combination of last and first name once, then again with a number after the first name
+    private static String lastName(int i) {
+        return LAST_NAMES[i % LAST_NAMES.length];
+    }
+
+    private static String firstName(int i) {
+        int round = i / LAST_NAMES.length;
+        String first = FIRST_NAMES[round % FIRST_NAMES.length];
+        int repeat = round / FIRST_NAMES.length;
+        return repeat == 0 ? first : first + " " + (repeat + 1);
+    }
+
+    /**
+     * One day's punch for one employee: time in in the upper 16 bits, time out
+     * in the lower 16, or -1 if they were absent. Worked out from the seed,
+     * employee and day alone, so both attendance files get the same punches
+     * whatever order they're written in.
+     */
+    static long punch(long seed, int employee, int epochDay) {
+        long h = mix(seed, employee, epochDay);
+        if ((h & 0xFF) < 8) {
+            return -1;  // ~3% absent
+        }
+        int in = 7 * 60 + 30 + (int) ((h >>> 8) % 181);
+        int out = 16 * 60 + (int) ((h >>> 24) % 241);
+        return ((long) in << 16) | out;
+    }
+
+    // SplitMix64 finalizer over seed, employee and day - always >= 0
+    private static long mix(long seed, int employee, int epochDay) {
+        long z = seed + 0x9E3779B97F4A7C15L * (employee + 1) + 0xC2B2AE3D27D4EB4FL * epochDay;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+
+    private static String digits(long h, int count) {
+        char[] text = new char[count];
+        for (int i = 0; i < count; i++) {
+            text[i] = (char) ('0' + h % 10);
+            h = h / 10 + 7 * (i + 1);
+        }
+        return new String(text);
+    }
+
+    // 90000 -> "90,000"
+    private static String amount(int value) {
+        return String.format(Locale.ROOT, "%,d", value);
+    }
+
+    // "7:30" etc. for every minute of the day, so the millions of rows don't format times
+    private static String[] timeStrings() {
+        String[] times = new String[24 * 60];
+        for (int minute = 0; minute < times.length; minute++) {
+            times[minute] = AttendanceStore.formatTime(minute);
+        }
+        return times;
+    }
+}
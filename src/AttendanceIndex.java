@@ -0,0 +1,199 @@
+// AttendanceIndex.java
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of attendance records keyed by employee ID.
+ *
+ * The attendance file is read exactly once and every employee's records
+ * are kept sorted by date, so looking up one employee is a single map get
+ * instead of a full rescan of attendance.csv.
+ *
+ * Rows with a bad ID, date or time are left out of the index and listed in
+ * getQuarantine() (see AttendanceQuarantine) instead of turning into records
+ * that pay 0 hours.
+ */
+public class AttendanceIndex {
+    // Sorts records by their MM/dd/yyyy date (year first, then month, then day)
+    private static final Comparator<TimeKeeping> BY_DATE =
+            Comparator.comparingInt(record -> dateSortKey(record.getDate()));
+
+    private static final TimeKeeping[] NO_RECORDS = new TimeKeeping[0];
+
+    private final String filePath;                     // where the records came from
+    private final Map<String, TimeKeeping[]> records;  // employee ID -> date-sorted records
+    private final int rowCount;                        // rows that made it into the index
+    private final int skippedRowCount;                 // header and blank rows
+    private final AttendanceQuarantine quarantine;     // rows that were rejected, and why
+    private final long loadTimeNanos;                  // how long load() took
+
+    private AttendanceIndex(String filePath, Map<String, TimeKeeping[]> records, int rowCount,
+                            int skippedRowCount, AttendanceQuarantine quarantine, long loadTimeNanos) {
+        this.filePath = filePath;
+        this.records = records;
+        this.rowCount = rowCount;
+        this.skippedRowCount = skippedRowCount;
+        this.quarantine = quarantine;
+        this.loadTimeNanos = loadTimeNanos;
+    }
+
+    /**
+     * Reads an attendance file in one pass and builds the index.
+     * Expected columns: Employee #,Last Name,First Name,Date,Log In,Log Out
+     *
+     * @param filePath Path to the attendance csv file
+     * @return The loaded index
+     * @throws IOException If the file can't be read
+     */
+    public static AttendanceIndex load(String filePath) throws IOException {
+        long start = System.nanoTime();
+        Map<String, List<TimeKeeping>> grouped = new HashMap<>();
+        List<AttendanceQuarantine.Entry> rejected = new ArrayList<>();
+        int rowCount = 0;
+        int skipped = 0;
+        int lineNumber = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] parts = line.split(",");
+                // Header row and blank lines
+                if (line.trim().isEmpty() || (lineNumber == 1 && !startsWithDigit(parts[0]))) {
+                    skipped++;
+                    continue;
+                }
+                String reason = null;
+                if (!startsWithDigit(parts[0])) {
+                    reason = "Bad employee number";
+                } else if (parts.length < 6) {
+                    reason = "Missing columns";
+                }
+                TimeKeeping record = null;
+                if (reason == null) {
+                    record = new TimeKeeping(parts[0].trim(), parts[3].trim(), parts[4].trim(), parts[5].trim());
+                    if (dateSortKey(record.getDate()) == 0) {
+                        reason = "Bad date";
+                    } else if (!record.isValid()) {
+                        reason = record.getParseError();
+                    }
+                }
+                if (reason != null) {
+                    rejected.add(new AttendanceQuarantine.Entry(null, lineNumber, reason, line));
+                    continue;
+                }
+                grouped.computeIfAbsent(record.getEmployeeId(), key -> new ArrayList<>()).add(record);
+                rowCount++;
+            }
+        }
+        AttendanceQuarantine quarantine = AttendanceQuarantine.of(Paths.get(filePath), rowCount, rejected);
+
+        // Freeze each employee's list into a date-sorted array
+        Map<String, TimeKeeping[]> sorted = new HashMap<>(grouped.size() * 2);
+        for (Map.Entry<String, List<TimeKeeping>> entry : grouped.entrySet()) {
+            TimeKeeping[] days = entry.getValue().toArray(NO_RECORDS);
+            Arrays.sort(days, BY_DATE);
+            sorted.put(entry.getKey(), days);
+        }
+
+        return new AttendanceIndex(filePath, sorted, rowCount, skipped, quarantine, System.nanoTime() - start);
+    }
+
+    private static boolean startsWithDigit(String text) {
+        return !text.isEmpty() && Character.isDigit(text.charAt(0));
+    }
+
+    /**
+     * Turns an MM/dd/yyyy date into a sortable yyyymmdd number.
+     * Unparseable dates sort first instead of failing the whole load.
+     */
+    static int dateSortKey(String date) {
+        String[] parts = date.split("/");
+        if (parts.length != 3) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(parts[2]) * 10000
+                 + Integer.parseInt(parts[0]) * 100
+                 + Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Gets all records for one employee, oldest first.
+     * The returned array is shared by the index, so don't modify it.
+     *
+     * @param employeeId Employee ID to look up
+     * @return Date-sorted records (empty if the employee has none)
+     */
+    public TimeKeeping[] getRecords(String employeeId) {
+        TimeKeeping[] days = records.get(employeeId);
+        return days != null ? days : NO_RECORDS;
+    }
+
+    /**
+     * @return IDs of every employee that has at least one record
+     */
+    public Set<String> getEmployeeIds() {
+        return Collections.unmodifiableSet(records.keySet());
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public int getEmployeeCount() {
+        return records.size();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getSkippedRowCount() {
+        return skippedRowCount;
+    }
+
+    public int getRejectedRowCount() {
+        return quarantine.getRejectedRowCount();
+    }
+
+    /**
+     * @return Accepted / rejected counts of the load, and where the rejects went
+     */
+    public AttendanceQuarantine getQuarantine() {
+        return quarantine;
+    }
+
+    public double getLoadTimeMillis() {
+        return loadTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return Indexed rows per second for the load (0 if the load was too fast to measure)
+     */
+    public double getRowsPerSecond() {
+        return loadTimeNanos > 0 ? rowCount / (loadTimeNanos / 1_000_000_000.0) : 0.0;
+    }
+
+    /**
+     * One-line load report, handy for the console
+     */
+    public String getLoadSummary() {
+        return String.format("Loaded %d rows for %d employees from %s in %.1f ms (%.0f rows/sec, %d skipped, %d rejected)",
+                rowCount, getEmployeeCount(), filePath, getLoadTimeMillis(), getRowsPerSecond(), skippedRowCount,
+                getRejectedRowCount());
+    }
+}
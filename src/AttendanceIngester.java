@@ -0,0 +1,513 @@
+// AttendanceIngester.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps attendance up to date while files change, without reloading everything.
+ *
+ * It remembers how far into attendance.csv (and each weekly attendance file) it
+ * has read. When a WatchService reports a change only the new bytes are parsed,
+ * merged into the store, and the cached weekly totals of just the employees and
+ * weeks that got new punches are thrown away. Listeners hear about exactly which
+ * employee weeks changed so they can refresh their own caches.
+ *
+ * Only complete lines are read - a half-written row waits until its newline shows
+ * up, and the read position never goes past the last newline. A last line with no
+ * newline at all (attendance.csv ends like that) is taken once the file's size
+ * has stopped changing: on the initial load if the size didn't change during the
+ * load, and while watching once a check SETTLE_MILLIS later still sees the same size.
+ * If a file shrinks (rewritten instead of appended) everything is reloaded.
+ * Rows that can't be parsed are appended to the quarantine file with their real
+ * line number in the file (see AttendanceQuarantine). That file is only a report:
+ * if it can't be written there's a warning on standard error and ingesting goes on.
+ *
+ * Note: the shipped data has the same punches in attendance.csv and in the weekly
+ * files, so point this at one or the other (pass null for the one you don't want).
+ */
+public class AttendanceIngester implements AutoCloseable {
+    // How long a file with an unterminated last line has to stay the same size before that line is read
+    static final long SETTLE_MILLIS = 1000;
+
+    /**
+     * Gets told after new punches were merged in
+     */
+    public interface Listener {
+        /**
+         * @param store The updated store
+         * @param changedWeeks Employee ID -> start (Monday) of each week that got new punches
+         */
+        void attendanceChanged(AttendanceStore store, Map<Integer, Set<LocalDate>> changedWeeks);
+    }
+
+    private final Path csvFile;          // attendance.csv, or null
+    private final Path weeklyDirectory;  // folder with attendance_MM_DD_YYYY.txt files, or null
+
+    // Bytes already read from each file (up to and including the last newline)
+    private final Map<Path, Long> offsets = new HashMap<>();
+    // Line breaks already read from each file, so quarantined rows get the right line number
+    private final Map<Path, Long> lineBreaks = new HashMap<>();
+    // Size of each file last time it ended in a line with no newline (not read yet)
+    private final Map<Path, Long> unterminatedSizes = new ConcurrentHashMap<>();
+
+    private volatile AttendanceStore store;
+    private final Map<Long, WeeklyAttendance.Summary> weekCache = new ConcurrentHashMap<>();
+    // Shift policies the cached weeks were worked out with (the cache is dropped when they're reloaded)
+    private volatile ShiftPolicies weekCachePolicies;
+    // Employee # -> position, so weeks get the same shift as in payroll (see setEmployees)
+    private volatile Map<Integer, String> positions = Collections.emptyMap();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private long rowsIngested;  // rows added since the initial load
+    private long rowsRejected;  // rows quarantined since the last full load
+
+    /**
+     * Creates the ingester and does the initial full load
+     *
+     * @param csvFile attendance.csv to tail (null to skip)
+     * @param weeklyDirectory Folder to pick up weekly files from (null to skip)
+     * @throws IOException If the initial load fails
+     */
+    public AttendanceIngester(Path csvFile, Path weeklyDirectory) throws IOException {
+        this.csvFile = csvFile;
+        this.weeklyDirectory = weeklyDirectory;
+        reloadAll();
+    }
+
+    /**
+     * Starts watching for changes on a background (daemon) thread
+     *
+     * @throws IOException If the folders can't be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watchThread != null) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new HashSet<>();
+        if (csvFile != null) {
+            directories.add(csvFile.toAbsolutePath().getParent());
+        }
+        if (weeklyDirectory != null) {
+            directories.add(weeklyDirectory.toAbsolutePath());
+        }
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                               StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+
+        watchThread = new Thread(this::watchLoop, "attendance-ingester");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                // With a half-finished last line around, look again after a quiet spell
+                // even if nothing else happens, so it gets read once the writer is done
+                WatchKey key = unterminatedSizes.isEmpty() ? watchService.take()
+                        : watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    // Drain the events, we just re-check the files we care about
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            break;
+                        }
+                    }
+                    key.reset();
+                }
+                try {
+                    checkForChanges();
+                } catch (IOException e) {
+                    // Keep watching - the next event will retry
+                    System.err.println("Error ingesting attendance: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close() was called
+        }
+    }
+
+    /**
+     * Reads whatever was added since last time. Called by the watch thread,
+     * but can also be called directly (e.g. on a timer, or when not watching).
+     *
+     * @return Number of new rows merged in
+     * @throws IOException If a file can't be read
+     */
+    public synchronized int checkForChanges() throws IOException {
+        AttendanceRows added = new AttendanceRows(64);
+        boolean shrunk = false;
+
+        if (csvFile != null && Files.exists(csvFile)) {
+            shrunk = !readNewCsvRows(added);
+        }
+        if (!shrunk && weeklyDirectory != null) {
+            for (Path file : WeeklyAttendanceFiles.findWeeklyFiles(weeklyDirectory)) {
+                if (!readNewWeeklyRows(file, added)) {
+                    shrunk = true;
+                    break;
+                }
+            }
+        }
+
+        if (shrunk) {
+            reloadAll();
+            notifyAllChanged();
+            return store.size();
+        }
+        if (added.size() == 0) {
+            return 0;
+        }
+
+        store = store.withRows(added);
+        rowsIngested += added.size();
+        Map<Integer, Set<LocalDate>> changed = changedWeeks(added);
+        for (Map.Entry<Integer, Set<LocalDate>> entry : changed.entrySet()) {
+            for (LocalDate weekStart : entry.getValue()) {
+                weekCache.remove(weekKey(entry.getKey(), (int) weekStart.toEpochDay()));
+            }
+        }
+        for (Listener listener : listeners) {
+            listener.attendanceChanged(store, changed);
+        }
+        return added.size();
+    }
+
+    /**
+     * Throws everything away and reads all the files again from the start
+     */
+    private synchronized void reloadAll() throws IOException {
+        offsets.clear();
+        lineBreaks.clear();
+        unterminatedSizes.clear();
+        weekCache.clear();
+        rowsRejected = 0;
+        try {
+            if (csvFile != null) {
+                AttendanceQuarantine.clear(csvFile);
+            }
+            if (weeklyDirectory != null) {
+                AttendanceQuarantine.clear(weeklyDirectory);
+            }
+        } catch (IOException e) {
+            // Only the report - the attendance itself can still be read
+            System.err.println("Could not clear the quarantine file: " + e.getMessage());
+        }
+        AttendanceRows rows = new AttendanceRows();
+        if (csvFile != null && Files.exists(csvFile)) {
+            readNewCsvRows(rows);
+        }
+        if (weeklyDirectory != null) {
+            for (Path file : WeeklyAttendanceFiles.findWeeklyFiles(weeklyDirectory)) {
+                readNewWeeklyRows(file, rows);
+            }
+        }
+        // Second look at files that ended in a line with no newline: if the size
+        // didn't change while everything above was read, that line is finished
+        for (Path file : new ArrayList<>(unterminatedSizes.keySet())) {
+            if (file.equals(csvFile)) {
+                readNewCsvRows(rows);
+            } else {
+                readNewWeeklyRows(file, rows);
+            }
+        }
+        store = AttendanceStore.fromRows(rows);
+    }
+
+    private void notifyAllChanged() {
+        Map<Integer, Set<LocalDate>> everything = new HashMap<>();
+        for (int row = 0; row < store.size(); row++) {
+            everything.computeIfAbsent(store.getEmployeeId(row), id -> new TreeSet<>())
+                      .add(LocalDate.ofEpochDay(weekStartDay(store.getEpochDay(row))));
+        }
+        for (Listener listener : listeners) {
+            listener.attendanceChanged(store, everything);
+        }
+    }
+
+    /**
+     * @return false if the file got shorter than what we already read
+     */
+    private boolean readNewCsvRows(AttendanceRows into) throws IOException {
+        long offset = offsets.getOrDefault(csvFile, 0L);
+        long end = readableEnd(csvFile, offset);
+        if (end < 0) {
+            return false;
+        }
+        // Mapped and parsed straight from the file, so a big first load never sits on the heap
+        AttendanceRows parsed = MappedAttendanceParser.parse(csvFile, offset, end);
+        long breaks = parsed.getLineCount() - (endsInNewline(csvFile, end) || end == offset ? 0 : 1);
+        quarantine(csvFile, csvFile, parsed, breaks);
+        into.addAll(parsed);
+        offsets.put(csvFile, end);
+        return true;
+    }
+
+    private boolean readNewWeeklyRows(Path file, AttendanceRows into) throws IOException {
+        long offset = offsets.getOrDefault(file, 0L);
+        long end = readableEnd(file, offset);
+        if (end < 0) {
+            return false;
+        }
+        // A weekly file is one week of punches, small enough to just read
+        byte[] bytes = read(file, offset, end);
+        AttendanceRows parsed = WeeklyAttendanceFiles.parse(WeeklyAttendanceFiles.weekStartOf(file),
+                                                            bytes, bytes.length);
+        long breaks = 0;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                breaks++;
+            }
+        }
+        quarantine(file, weeklyDirectory, parsed, breaks);
+        into.addAll(parsed);
+        offsets.put(file, end);
+        return true;
+    }
+
+    /**
+     * Numbers the rejects of a freshly read part from the file's real line count
+     * and appends them to the quarantine file. Counting line breaks (not lines)
+     * keeps the numbers right when the last read ended on a line with no newline.
+     */
+    private void quarantine(Path file, Path quarantineSource, AttendanceRows parsed, long breaks) {
+        long breaksBefore = lineBreaks.getOrDefault(file, 0L);
+        parsed.setSource(file.getFileName().toString(), breaksBefore);
+        lineBreaks.put(file, breaksBefore + breaks);
+        if (parsed.getRejectedRowCount() > 0) {
+            rowsRejected += parsed.getRejectedRowCount();
+            try {
+                AttendanceQuarantine.append(quarantineSource, parsed);
+            } catch (IOException e) {
+                System.err.println("Could not write " + AttendanceQuarantine.fileFor(quarantineSource)
+                        + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * How far a file can be read from offset: just past its last newline, or to
+     * the end if the last line has no newline but the size is still what it was
+     * the last time we looked (see the class comment).
+     *
+     * @return End of the readable part (offset if there's nothing new), or -1 if the file shrank
+     */
+    private long readableEnd(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                return -1;
+            }
+            long lineEnd = afterLastNewline(channel, offset, size);
+            if (lineEnd == size) {
+                unterminatedSizes.remove(file);
+                return size;
+            }
+            Long seen = unterminatedSizes.get(file);
+            if (seen != null && seen == size) {
+                unterminatedSizes.remove(file);
+                return size;
+            }
+            unterminatedSizes.put(file, size);
+            return lineEnd;
+        }
+    }
+
+    // Position just after the last newline between from and to (from if there isn't one), read backwards
+    private static long afterLastNewline(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long end = to;
+        while (end > from) {
+            long start = Math.max(from, end - probe.capacity());
+            probe.clear();
+            probe.limit((int) (end - start));
+            while (probe.hasRemaining() && channel.read(probe, start + probe.position()) > 0) {
+                // keep reading
+            }
+            for (int i = probe.position() - 1; i >= 0; i--) {
+                if (probe.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return from;
+    }
+
+    private static boolean endsInNewline(Path file, long end) throws IOException {
+        if (end == 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            return channel.read(last, end - 1) == 1 && last.get(0) == '\n';
+        }
+    }
+
+    private static byte[] read(Path file, long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE - 8) {
+            throw new IOException(file + " has more new data than fits in one read");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+            while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+                // keep reading
+            }
+            return buffer.position() == buffer.capacity() ? buffer.array()
+                    : Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * Groups new rows by employee and week start
+     */
+    private static Map<Integer, Set<LocalDate>> changedWeeks(AttendanceRows rows) {
+        Map<Integer, Set<Integer>> days = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            days.computeIfAbsent(rows.getEmployeeId(i), id -> new HashSet<>())
+                .add(weekStartDay(rows.getEpochDay(i)));
+        }
+        Map<Integer, Set<LocalDate>> changed = new HashMap<>();
+        for (Map.Entry<Integer, Set<Integer>> entry : days.entrySet()) {
+            Set<LocalDate> weeks = new TreeSet<>();
+            for (int day : entry.getValue()) {
+                weeks.add(LocalDate.ofEpochDay(day));
+            }
+            changed.put(entry.getKey(), weeks);
+        }
+        return changed;
+    }
+
+    // Epoch day of the Monday on or before the given day (1970-01-01 was a Thursday)
+    static int weekStartDay(int epochDay) {
+        return epochDay - Math.floorMod(epochDay + 3, 7);
+    }
+
+    private static long weekKey(int employeeId, int weekStartDay) {
+        return ((long) employeeId << 32) | (weekStartDay & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the totals for one employee's week (Monday to Sunday), from cache if possible.
+     * The numbers are the week's WeeklyAttendance.Summary on the employee's shift
+     * (ShiftPolicies.current(), by their position too once setEmployees was called),
+     * kept until that week gets new punches or the shift policies are reloaded.
+     *
+     * @param employeeId Employee to look up
+     * @param day Any day in the week
+     * @return The week's totals
+     */
+    public WeeklyAttendance.Summary getWeekSummary(int employeeId, LocalDate day) {
+        int weekStart = weekStartDay((int) day.toEpochDay());
+        long key = weekKey(employeeId, weekStart);
+        ShiftPolicies policies = ShiftPolicies.current();
+        if (policies == weekCachePolicies) {
+            WeeklyAttendance.Summary cached = weekCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Work it out under the lock so an ingest can't slip in between reading
+        // the store and caching the result
+        synchronized (this) {
+            if (policies != weekCachePolicies) {
+                weekCache.clear();
+                weekCachePolicies = policies;
+            }
+            ShiftPolicy shift = policies.forEmployee(String.valueOf(employeeId), positions.get(employeeId));
+            return weekCache.computeIfAbsent(key,
+                    k -> store.weeklyAttendance(employeeId, LocalDate.ofEpochDay(weekStart), shift).getSummary());
+        }
+    }
+
+    /**
+     * Tells the ingester everyone's position, so position shifts in
+     * data/shift_policies.csv apply to getWeekSummary like they do in payroll
+     * (without it, only employees' own rows and the default are used)
+     *
+     * @param employees Employees, e.g. DataSnapshot.getEmployees()
+     */
+    public synchronized void setEmployees(List<Employee> employees) {
+        Map<Integer, String> byId = new HashMap<>();
+        for (Employee employee : employees) {
+            try {
+                byId.put(Integer.parseInt(employee.getEmployeeNumber().trim()), employee.getPosition());
+            } catch (NumberFormatException e) {
+                // no attendance can match a non-numeric ID
+            }
+        }
+        positions = byId;
+        weekCache.clear();
+    }
+
+    public AttendanceStore getStore() {
+        return store;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized long getRowsIngested() {
+        return rowsIngested;
+    }
+
+    /**
+     * @return Rows sent to the quarantine files since the last full load
+     */
+    public synchronized long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * @return Number of weeks currently cached
+     */
+    public int getCachedWeekCount() {
+        return weekCache.size();
+    }
+
+    /**
+     * Stops watching. The store stays usable.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+// AttendanceMetrics.java
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Late minutes, undertime and overtime for any employee over any date range,
+ * without building WeeklyAttendance objects or walking the days.
+ *
+ * When it's built, every attendance row gets its day's numbers from the usual
+ * TimeKeeping methods (calculateLateMinutes, calculateUndertimeMinutes,
+ * calculateOvertimeHours, on the employee's shift), and each employee gets a
+ * running total of each one. A range total is then the running total at the
+ * end of the range minus the one at the start.
+ *
+ * Finding where a date falls in an employee's rows is also a plain array read:
+ * each employee has a table with one entry per calendar day from their first
+ * punch to their last, holding how many of their rows come before that day.
+ * (An employee whose punches are spread very thin - e.g. one bad date years
+ * away from the rest - gets a binary search instead, so the table can't blow up.)
+ *
+ * Overtime is per day, like TimeKeeping.calculateOvertimeHours: 0 on a late
+ * day, but the weekly "no overtime in a week with lateness" rule isn't applied
+ * (payroll still goes week by week for that). It's kept in hundredths of an hour
+ * so adding up years of days doesn't drift.
+ *
+ * Never changes after it's built. DataSnapshot.getMetrics() builds one per load;
+ * for attendance that keeps growing, a Tracker added to the AttendanceIngester
+ * makes a new one as soon as new punches are merged in (see withChanges: only
+ * the employees that got punches are worked out again, and only from their
+ * earliest changed week on), so the running totals never lag behind the store.
+ */
+public class AttendanceMetrics {
+    // A day table is only made if it's at most this many times the employee's row count (plus a bit)
+    private static final int MAX_DAYS_PER_ROW = 4;
+
+    // Which running total to read
+    private static final int LATE = 0;
+    private static final int UNDERTIME = 1;
+    private static final int OVERTIME = 2;
+    private static final int DAYS = 3;
+
+    private final AttendanceStore store;
+    private final ShiftPolicies policies;
+    private final Map<Integer, ShiftPolicy> shifts;  // by position, for the employees we were given
+
+    private final int[] ids;           // employee IDs, ascending (same as the store)
+    private final int[] firstRow;      // each employee's first row in the store
+    private final Totals[] totals;     // each employee's numbers, shared with older metrics if they didn't change
+
+    /**
+     * One employee's numbers. The running totals have one entry per row plus a
+     * leading 0: entry k is the total of their first k rows.
+     */
+    private static final class Totals {
+        final ShiftPolicy shift;
+        final int rowCount;
+        final int firstDay;      // epoch day of the first row
+        final int lastDay;
+        final int[] dayTable;    // rows before each day from firstDay on, or null
+        final int[] late;
+        final int[] undertime;
+        final int[] overtime;    // hundredths of an hour
+        final int[] days;        // distinct days (a day with two rows counts once)
+
+        /**
+         * Works out the numbers for rows start to end of the store, keeping the
+         * first keep rows' totals from before (their rows haven't changed)
+         */
+        Totals(AttendanceStore store, int start, int end, ShiftPolicy shift, Totals before, int keep) {
+            this.shift = shift;
+            this.rowCount = end - start;
+            this.firstDay = store.getEpochDay(start);
+            this.lastDay = store.getEpochDay(end - 1);
+            this.dayTable = dayTable(store, start, end, firstDay, lastDay);
+            late = new int[rowCount + 1];
+            undertime = new int[rowCount + 1];
+            overtime = new int[rowCount + 1];
+            days = new int[rowCount + 1];
+            if (before != null && keep > 0) {
+                System.arraycopy(before.late, 0, late, 0, keep + 1);
+                System.arraycopy(before.undertime, 0, undertime, 0, keep + 1);
+                System.arraycopy(before.overtime, 0, overtime, 0, keep + 1);
+                System.arraycopy(before.days, 0, days, 0, keep + 1);
+            } else {
+                keep = 0;
+            }
+
+            AttendanceStore.RecordView day = new AttendanceStore.RecordView(store);
+            int lateTotal = late[keep];
+            int undertimeTotal = undertime[keep];
+            int overtimeTotal = overtime[keep];
+            int dayTotal = days[keep];
+            for (int k = keep; k < rowCount; k++) {
+                int row = start + k;
+                day.moveTo(row);
+                if (k == 0 || store.getEpochDay(row) != store.getEpochDay(row - 1)) {
+                    dayTotal++;
+                }
+                lateTotal += day.calculateLateMinutes(shift);
+                undertimeTotal += day.calculateUndertimeMinutes(shift);
+                overtimeTotal += (int) Math.round(day.calculateOvertimeHours(shift) * 100.0);
+                late[k + 1] = lateTotal;
+                undertime[k + 1] = undertimeTotal;
+                overtime[k + 1] = overtimeTotal;
+                days[k + 1] = dayTotal;
+            }
+        }
+
+        // Rows before each day, or null if the punches are too spread out for a table
+        private static int[] dayTable(AttendanceStore store, int start, int end, int firstDay, int lastDay) {
+            long span = (long) lastDay - firstDay + 1;
+            if (span > (long) (end - start) * MAX_DAYS_PER_ROW + 64) {
+                return null;
+            }
+            int[] table = new int[(int) span + 1];
+            int nextDay = firstDay;
+            for (int k = 0; k < end - start; k++) {
+                // Every day up to this row's day has k rows before it
+                int epochDay = store.getEpochDay(start + k);
+                while (nextDay <= epochDay) {
+                    table[nextDay - firstDay] = k;
+                    nextDay++;
+                }
+            }
+            table[lastDay - firstDay + 1] = end - start;
+            return table;
+        }
+    }
+
+    private AttendanceMetrics(AttendanceStore store, ShiftPolicies policies, Map<Integer, ShiftPolicy> shifts,
+                              int[] ids, int[] firstRow, Totals[] totals) {
+        this.store = store;
+        this.policies = policies;
+        this.shifts = shifts;
+        this.ids = ids;
+        this.firstRow = firstRow;
+        this.totals = totals;
+    }
+
+    /**
+     * Works out the numbers for every row of a store
+     *
+     * @param store Everyone's attendance
+     * @param employees Employees (for their positions' shifts); anyone not listed gets their own or the default shift
+     * @param policies Shift assignments
+     * @return The metrics
+     */
+    public static AttendanceMetrics build(AttendanceStore store, List<Employee> employees, ShiftPolicies policies) {
+        Map<Integer, ShiftPolicy> shifts = new HashMap<>();
+        for (Employee employee : employees) {
+            try {
+                shifts.put(Integer.parseInt(employee.getEmployeeNumber().trim()), policies.forEmployee(employee));
+            } catch (NumberFormatException e) {
+                // no attendance can match a non-numeric ID
+            }
+        }
+        AttendanceMetrics none = new AttendanceMetrics(null, policies, shifts, new int[0], new int[0], new Totals[0]);
+        return none.withChanges(store, null);
+    }
+
+    /**
+     * Metrics for a newer store that only differs from this one by the punches
+     * in changedWeeks (what AttendanceIngester.Listener gets). Employees with no
+     * changed week keep their numbers as they are; the others keep their
+     * running totals up to their earliest changed week, and only the rows from
+     * there on are worked out again.
+     *
+     * @param newer The store with the new punches merged in
+     * @param changedWeeks Employee ID to the Mondays of the weeks that got punches (null = everything)
+     * @return The metrics for the newer store
+     */
+    public AttendanceMetrics withChanges(AttendanceStore newer, Map<Integer, Set<LocalDate>> changedWeeks) {
+        int[] newIds = newer.getEmployeeIds();
+        int[] newFirstRow = new int[newIds.length];
+        Totals[] newTotals = new Totals[newIds.length];
+        for (int i = 0; i < newIds.length; i++) {
+            int id = newIds[i];
+            int start = newer.startRow(id);
+            int end = newer.endRow(id);
+            newFirstRow[i] = start;
+
+            int slot = slotOf(id);
+            Totals before = slot >= 0 ? totals[slot] : null;
+            Set<LocalDate> weeks = changedWeeks == null ? null : changedWeeks.get(id);
+            if (before != null && changedWeeks != null && (weeks == null || weeks.isEmpty())
+                    && before.rowCount == end - start) {
+                newTotals[i] = before;
+                continue;
+            }
+
+            int keep = 0;
+            if (before != null && weeks != null && !weeks.isEmpty()) {
+                // New punches are all on or after the earliest changed Monday, so the rows before it are the same
+                int earliest = Integer.MAX_VALUE;
+                for (LocalDate weekStart : weeks) {
+                    earliest = Math.min(earliest, (int) weekStart.toEpochDay());
+                }
+                keep = Math.min(newer.firstRowOnOrAfter(id, earliest) - start, before.rowCount);
+            }
+            ShiftPolicy shift = before != null ? before.shift : shiftOf(id);
+            newTotals[i] = new Totals(newer, start, end, shift, before, keep);
+        }
+        return new AttendanceMetrics(newer, policies, shifts, newIds, newFirstRow, newTotals);
+    }
+
+    private ShiftPolicy shiftOf(int employeeId) {
+        ShiftPolicy shift = shifts.get(employeeId);
+        return shift != null ? shift : policies.forEmployee(String.valueOf(employeeId), null);
+    }
+
+    /**
+     * @return Minutes late (after the shift start) from one day to another, both included
+     */
+    public int getLateMinutes(int employeeId, LocalDate from, LocalDate to) {
+        return total(employeeId, from, to, LATE);
+    }
+
+    /**
+     * @return Minutes left before the shift end from one day to another, both included
+     */
+    public int getUndertimeMinutes(int employeeId, LocalDate from, LocalDate to) {
+        return total(employeeId, from, to, UNDERTIME);
+    }
+
+    /**
+     * @return Overtime hours from one day to another, both included (none on late days)
+     */
+    public double getOvertimeHours(int employeeId, LocalDate from, LocalDate to) {
+        return total(employeeId, from, to, OVERTIME) / 100.0;
+    }
+
+    /**
+     * @return Days with a punch from one day to another, both included (a day with two rows counts once)
+     */
+    public int getDays(int employeeId, LocalDate from, LocalDate to) {
+        return total(employeeId, from, to, DAYS);
+    }
+
+    /**
+     * @return Attendance rows from one day to another, both included
+     */
+    public int getRows(int employeeId, LocalDate from, LocalDate to) {
+        int slot = slotOf(employeeId);
+        if (slot < 0) {
+            return 0;
+        }
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        return toDay < fromDay ? 0 : rowsBefore(slot, toDay + 1) - rowsBefore(slot, fromDay);
+    }
+
+    private int total(int employeeId, LocalDate from, LocalDate to, int which) {
+        int slot = slotOf(employeeId);
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        if (slot < 0 || toDay < fromDay) {
+            return 0;
+        }
+        int[] running;
+        switch (which) {
+            case LATE: running = totals[slot].late; break;
+            case UNDERTIME: running = totals[slot].undertime; break;
+            case OVERTIME: running = totals[slot].overtime; break;
+            default: running = totals[slot].days; break;
+        }
+        return running[rowsBefore(slot, toDay + 1)] - running[rowsBefore(slot, fromDay)];
+    }
+
+    // How many of the employee's rows are before the given day
+    private int rowsBefore(int slot, int epochDay) {
+        Totals employee = totals[slot];
+        if (epochDay <= employee.firstDay) {
+            return 0;
+        }
+        if (epochDay > employee.lastDay) {
+            return employee.rowCount;
+        }
+        if (employee.dayTable != null) {
+            return employee.dayTable[epochDay - employee.firstDay];
+        }
+        return store.firstRowOnOrAfter(ids[slot], epochDay) - firstRow[slot];
+    }
+
+    private int slotOf(int employeeId) {
+        return Arrays.binarySearch(ids, employeeId);
+    }
+
+    public AttendanceStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return The shift assignments the numbers were worked out with
+     */
+    public ShiftPolicies getPolicies() {
+        return policies;
+    }
+
+    public int getEmployeeCount() {
+        return ids.length;
+    }
+
+    /**
+     * Keeps metrics in step with an AttendanceIngester: every time new punches
+     * are merged in (or the files are read again), the metrics are brought up to
+     * the new store right away, instead of on the next question. This runs while
+     * the ingester is merging, so it only redoes the changed employees from their
+     * first changed week (withChanges), not the whole store.
+     */
+    public static class Tracker implements AttendanceIngester.Listener {
+        private final List<Employee> employees;
+        private volatile AttendanceMetrics metrics;
+
+        private Tracker(List<Employee> employees) {
+            this.employees = employees;
+        }
+
+        /**
+         * Builds metrics for what the ingester has now and keeps them up to date
+         *
+         * @param ingester Where the punches come from
+         * @param employees Employees (for their positions' shifts)
+         * @return The tracker (already added as a listener)
+         */
+        public static Tracker follow(AttendanceIngester ingester, List<Employee> employees) {
+            Tracker tracker = new Tracker(employees);
+            // Listen first so nothing ingested in between is missed
+            ingester.addListener(tracker);
+            tracker.update(ingester.getStore(), null);
+            return tracker;
+        }
+
+        @Override
+        public void attendanceChanged(AttendanceStore store, Map<Integer, Set<LocalDate>> changedWeeks) {
+            update(store, changedWeeks);
+        }
+
+        // Newer stores have higher generations, so an older one showing up late is ignored
+        private synchronized void update(AttendanceStore store, Map<Integer, Set<LocalDate>> changedWeeks) {
+            AttendanceMetrics current = metrics;
+            if (current == null || changedWeeks == null || current.getPolicies() != ShiftPolicies.current()) {
+                if (current == null || store.getGeneration() > current.getStore().getGeneration()) {
+                    metrics = build(store, employees, ShiftPolicies.current());
+                }
+            } else if (store.getGeneration() > current.getStore().getGeneration()) {
+                metrics = current.withChanges(store, changedWeeks);
+            }
+        }
+
+        /**
+         * @return Metrics for the ingester's latest store (rebuilt here only if the shift policies were reloaded)
+         */
+        public AttendanceMetrics get() {
+            AttendanceMetrics current = metrics;
+            if (current.getPolicies() != ShiftPolicies.current()) {
+                synchronized (this) {
+                    current = metrics;
+                    if (current.getPolicies() != ShiftPolicies.current()) {
+                        current = build(current.getStore(), employees, ShiftPolicies.current());
+                        metrics = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+// AttendanceQuarantine.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rows that couldn't be loaded, and why.
+ *
+ * The parsers never throw on bad data - they skip the row, note the line number
+ * and a short reason, and keep going. Those notes end up here. The loaders only
+ * keep them in memory (of()); whoever owns the data can write them to a
+ * quarantine file next to it (attendance_quarantine.csv) with save(), so someone
+ * can fix the source instead of the employee quietly getting paid for 0 hours.
+ * DataSnapshot does that when it re-reads attendance.csv.
+ *
+ * Quarantine file columns: Source,Line,Reason,Row
+ */
+public class AttendanceQuarantine {
+    public static final String FILE_SUFFIX = "_quarantine.csv";
+    private static final String HEADER = "Source,Line,Reason,Row";
+
+    private final Path source;         // file or folder the rows came from
+    private final Path file;           // where the rejects were written (null if nothing was written)
+    private final long acceptedRowCount;
+    private final List<Entry> entries;
+
+    private AttendanceQuarantine(Path source, Path file, long acceptedRowCount, List<Entry> entries) {
+        this.source = source;
+        this.file = file;
+        this.acceptedRowCount = acceptedRowCount;
+        this.entries = entries;
+    }
+
+    /**
+     * The rejected rows of a load, kept in memory only (nothing is written)
+     *
+     * @param source File or folder the rows came from
+     * @param rows Result of parsing it
+     * @return Counters for this run
+     */
+    public static AttendanceQuarantine of(Path source, AttendanceRows rows) {
+        return of(source, rows.size(), rows.getRejectedRows());
+    }
+
+    static AttendanceQuarantine of(Path source, long accepted, List<Entry> rejected) {
+        return new AttendanceQuarantine(source, null, accepted, rejected);
+    }
+
+    /**
+     * Writes these rejects to the quarantine file, like write(). This is only a
+     * report, so if the file can't be written (read-only folder, full disk) it
+     * just warns on standard error and the rejects stay in memory.
+     *
+     * @return The quarantine with its file set, or this one if it couldn't be written
+     */
+    public AttendanceQuarantine save() {
+        try {
+            return write(source, acceptedRowCount, entries, false);
+        } catch (IOException e) {
+            System.err.println("Could not write " + fileFor(source) + ": " + e.getMessage());
+            return this;
+        }
+    }
+
+    /**
+     * Writes the rejected rows of a load to the quarantine file for its source.
+     * If nothing was rejected an old quarantine file is removed, so the file
+     * always matches the latest load.
+     *
+     * @param source File or folder the rows came from
+     * @param rows Result of parsing it
+     * @return Counters for this run
+     * @throws IOException If the quarantine file can't be written
+     */
+    public static AttendanceQuarantine write(Path source, AttendanceRows rows) throws IOException {
+        return write(source, rows.size(), rows.getRejectedRows(), false);
+    }
+
+    /**
+     * Same as write(), but adds to the existing quarantine file instead of
+     * replacing it (used when only the new end of a file was read)
+     */
+    public static AttendanceQuarantine append(Path source, AttendanceRows rows) throws IOException {
+        return write(source, rows.size(), rows.getRejectedRows(), true);
+    }
+
+    /**
+     * Deletes the quarantine file for a source (before starting over with append())
+     */
+    public static void clear(Path source) throws IOException {
+        Files.deleteIfExists(fileFor(source));
+    }
+
+    static AttendanceQuarantine write(Path source, long accepted, List<Entry> rejected, boolean append)
+            throws IOException {
+        Path target = fileFor(source);
+        String sourceName = source.getFileName().toString();
+        if (rejected.isEmpty()) {
+            if (!append) {
+                Files.deleteIfExists(target);
+            }
+            return new AttendanceQuarantine(source, null, accepted, rejected);
+        }
+
+        boolean writeHeader = !append || !Files.exists(target);
+        StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            if (writeHeader) {
+                writer.write(HEADER);
+                writer.newLine();
+            }
+            for (Entry entry : rejected) {
+                String entrySource = entry.source != null ? entry.source : sourceName;
+                writer.write(FileHandler.toCsvLine(new String[] {
+                    entrySource, String.valueOf(entry.lineNumber), entry.reason, entry.row
+                }));
+                writer.newLine();
+            }
+        }
+        return new AttendanceQuarantine(source, target, accepted, rejected);
+    }
+
+    /**
+     * Quarantine file for a source: attendance.csv -> attendance_quarantine.csv,
+     * data/ -> data/attendance_quarantine.csv
+     */
+    public static Path fileFor(Path source) {
+        if (Files.isDirectory(source)) {
+            return source.resolve("attendance" + FILE_SUFFIX);
+        }
+        String name = source.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return source.resolveSibling(base + FILE_SUFFIX);
+    }
+
+    /**
+     * @return The quarantine file, or null if nothing was written (no rejects, or not saved)
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public long getAcceptedRowCount() {
+        return acceptedRowCount;
+    }
+
+    public int getRejectedRowCount() {
+        return entries.size();
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * One-line report, handy for the console
+     */
+    public String getSummary() {
+        if (file == null) {
+            return String.format("%d rows accepted, %d rejected", acceptedRowCount, entries.size());
+        }
+        return String.format("%d rows accepted, %d rejected (see %s)", acceptedRowCount, entries.size(), file);
+    }
+
+    /**
+     * One rejected row
+     */
+    public static class Entry {
+        final String source;   // file it came from, null if it's the file being written about
+        final long lineNumber; // 1-based
+        final String reason;
+        final String row;      // the line as it was in the file
+
+        Entry(String source, long lineNumber, String reason, String row) {
+            this.source = source;
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.row = row;
+        }
+
+        Entry withSource(String source, long lineOffset) {
+            return new Entry(source, lineNumber + lineOffset, reason, row);
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public String getRow() {
+            return row;
+        }
+    }
+}
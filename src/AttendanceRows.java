@@ -0,0 +1,162 @@
+// AttendanceRows.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Growable buffer of attendance rows kept as primitive columns.
+ *
+ * Each row is just four numbers: employee ID, epoch day of the date and the
+ * log in / log out times as minutes since midnight. No Strings are created,
+ * which is what lets the byte-level parser keep up with big exports.
+ */
+public class AttendanceRows {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // Parallel arrays - row i is employeeIds[i], epochDays[i], timeIns[i], timeOuts[i]
+    int[] employeeIds;
+    int[] epochDays;
+    short[] timeIns;
+    short[] timeOuts;
+    int size;
+
+    private int lineCount;                               // lines looked at, incl. header and rejects
+    private List<AttendanceQuarantine.Entry> rejectedRows; // rows the parser couldn't make sense of
+
+    public AttendanceRows() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public AttendanceRows(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        employeeIds = new int[capacity];
+        epochDays = new int[capacity];
+        timeIns = new short[capacity];
+        timeOuts = new short[capacity];
+    }
+
+    /**
+     * Adds one row to the end of the buffer
+     *
+     * @param employeeId Numeric employee ID (e.g. 10001)
+     * @param epochDay Days since 1970-01-01
+     * @param timeIn Log in time in minutes since midnight
+     * @param timeOut Log out time in minutes since midnight
+     */
+    public void add(int employeeId, int epochDay, int timeIn, int timeOut) {
+        if (size == employeeIds.length) {
+            grow(size + 1);
+        }
+        employeeIds[size] = employeeId;
+        epochDays[size] = epochDay;
+        timeIns[size] = (short) timeIn;
+        timeOuts[size] = (short) timeOut;
+        size++;
+    }
+
+    /**
+     * Appends every row from another buffer (used to merge parsed chunks).
+     * Rejected rows that don't have a source file yet are renumbered as if
+     * the other buffer's lines came right after ours.
+     */
+    public void addAll(AttendanceRows other) {
+        if (size + other.size > employeeIds.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.employeeIds, 0, employeeIds, size, other.size);
+        System.arraycopy(other.epochDays, 0, epochDays, size, other.size);
+        System.arraycopy(other.timeIns, 0, timeIns, size, other.size);
+        System.arraycopy(other.timeOuts, 0, timeOuts, size, other.size);
+        size += other.size;
+
+        for (AttendanceQuarantine.Entry entry : other.getRejectedRows()) {
+            addRejected(entry.source != null ? entry : entry.withSource(null, lineCount));
+        }
+        lineCount += other.lineCount;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, employeeIds.length + (employeeIds.length >> 1));
+        employeeIds = Arrays.copyOf(employeeIds, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        timeIns = Arrays.copyOf(timeIns, capacity);
+        timeOuts = Arrays.copyOf(timeOuts, capacity);
+    }
+
+    /**
+     * Notes a row that couldn't be parsed
+     *
+     * @param lineNumber 1-based line within what this buffer was parsed from
+     * @param reason Short description, e.g. "Bad log in time"
+     * @param row The line as it was in the file
+     */
+    void reject(int lineNumber, String reason, String row) {
+        addRejected(new AttendanceQuarantine.Entry(null, lineNumber, reason, row));
+    }
+
+    private void addRejected(AttendanceQuarantine.Entry entry) {
+        if (rejectedRows == null) {
+            rejectedRows = new ArrayList<>();
+        }
+        rejectedRows.add(entry);
+    }
+
+    /**
+     * Tags every rejected row so far with the file it came from (once a whole
+     * file has been parsed, so merging with other files keeps its line numbers)
+     *
+     * @param source File name
+     * @param lineOffset Lines of the file before the part that was parsed (0 for a whole file)
+     */
+    void setSource(String source, long lineOffset) {
+        if (rejectedRows == null) {
+            return;
+        }
+        for (int i = 0; i < rejectedRows.size(); i++) {
+            AttendanceQuarantine.Entry entry = rejectedRows.get(i);
+            if (entry.source == null) {
+                rejectedRows.set(i, entry.withSource(source, lineOffset));
+            }
+        }
+    }
+
+    void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getRejectedRowCount() {
+        return rejectedRows == null ? 0 : rejectedRows.size();
+    }
+
+    /**
+     * @return Rows the parser skipped, with line numbers and reasons
+     */
+    public List<AttendanceQuarantine.Entry> getRejectedRows() {
+        return rejectedRows == null ? Collections.emptyList() : Collections.unmodifiableList(rejectedRows);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getEmployeeId(int row) {
+        return employeeIds[row];
+    }
+
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    public int getTimeIn(int row) {
+        return timeIns[row];
+    }
+
+    public int getTimeOut(int row) {
+        return timeOuts[row];
+    }
+}
@@ -0,0 +1,437 @@
+// AttendanceStore.java
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Column-oriented attendance storage.
+ *
+ * Instead of one TimeKeeping object (with four Strings) per punch, every punch
+ * is one slot in four primitive arrays: employee ID, epoch day, and log in /
+ * log out as minutes since midnight. That's 12 bytes per punch, so years of
+ * history for thousands of employees fit easily in memory.
+ *
+ * Rows are sorted by employee and then by date, so one employee's records (or
+ * one week of them) are a contiguous row range. RecordView lets existing code
+ * that expects TimeKeeping objects walk those rows without creating any.
+ *
+ * A store never changes once it's built (withRows makes a new one), so its
+ * generation number is enough for a cache to know the rows are the same.
+ */
+public class AttendanceStore {
+    // Every store gets its own number, so caches can tell them apart
+    private static final AtomicLong nextGeneration = new AtomicLong(1);
+
+    // Row columns - row i is employeeIds[i], epochDays[i], timeIns[i], timeOuts[i]
+    private final int[] employeeIds;
+    private final int[] epochDays;
+    private final short[] timeIns;
+    private final short[] timeOuts;
+
+    // Per-employee directory - rows of distinctIds[k] are rowStart[k] until rowStart[k + 1]
+    private final int[] distinctIds;
+    private final int[] rowStart;
+    private final long generation;
+
+    private AttendanceStore(int[] employeeIds, int[] epochDays, short[] timeIns, short[] timeOuts,
+                            int[] distinctIds, int[] rowStart) {
+        this.employeeIds = employeeIds;
+        this.epochDays = epochDays;
+        this.timeIns = timeIns;
+        this.timeOuts = timeOuts;
+        this.distinctIds = distinctIds;
+        this.rowStart = rowStart;
+        this.generation = nextGeneration.getAndIncrement();
+    }
+
+    /**
+     * Parses an attendance.csv file straight into a store.
+     * Rows that can't be read are left out (parse it with MappedAttendanceParser
+     * and use fromRows if you want to see them).
+     *
+     * @param path Attendance csv file
+     * @return The sorted store
+     * @throws IOException If the file can't be read
+     */
+    public static AttendanceStore load(Path path) throws IOException {
+        return fromRows(MappedAttendanceParser.parse(path));
+    }
+
+    /**
+     * Builds a store from parsed rows, sorting them by employee then date.
+     * Rows for the same employee and day keep their original order.
+     *
+     * @param rows Parsed rows in any order
+     * @return The sorted store
+     */
+    public static AttendanceStore fromRows(AttendanceRows rows) {
+        int n = rows.size();
+
+        // 1. Find the distinct employee IDs
+        int[] sortedIds = Arrays.copyOf(rows.employeeIds, n);
+        Arrays.sort(sortedIds);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || sortedIds[distinct - 1] != sortedIds[i]) {
+                sortedIds[distinct++] = sortedIds[i];
+            }
+        }
+        int[] distinctIds = Arrays.copyOf(sortedIds, distinct);
+
+        // 2. Count rows per employee and turn the counts into start offsets
+        int[] slotOfRow = new int[n];
+        int[] rowStart = new int[distinct + 1];
+        for (int i = 0; i < n; i++) {
+            int slot = Arrays.binarySearch(distinctIds, rows.employeeIds[i]);
+            slotOfRow[i] = slot;
+            rowStart[slot + 1]++;
+        }
+        for (int k = 0; k < distinct; k++) {
+            rowStart[k + 1] += rowStart[k];
+        }
+
+        // 3. Scatter rows into their employee's range as (epoch day, original row)
+        //    keys, then sort each range - one primitive sort, no boxing
+        long[] keys = new long[n];
+        int[] fill = Arrays.copyOf(rowStart, distinct);
+        for (int i = 0; i < n; i++) {
+            keys[fill[slotOfRow[i]]++] = ((long) rows.epochDays[i] << 32) | i;
+        }
+        for (int k = 0; k < distinct; k++) {
+            Arrays.sort(keys, rowStart[k], rowStart[k + 1]);
+        }
+
+        // 4. Copy the columns over in the new order
+        int[] employeeIds = new int[n];
+        int[] epochDays = new int[n];
+        short[] timeIns = new short[n];
+        short[] timeOuts = new short[n];
+        for (int k = 0; k < distinct; k++) {
+            for (int row = rowStart[k]; row < rowStart[k + 1]; row++) {
+                int source = (int) keys[row];
+                employeeIds[row] = distinctIds[k];
+                epochDays[row] = rows.epochDays[source];
+                timeIns[row] = rows.timeIns[source];
+                timeOuts[row] = rows.timeOuts[source];
+            }
+        }
+
+        return new AttendanceStore(employeeIds, epochDays, timeIns, timeOuts, distinctIds, rowStart);
+    }
+
+    /**
+     * Creates a new store with some extra rows added.
+     * The new rows are sorted on their own and then merged with ours in one
+     * linear pass, so adding a day's punches doesn't re-sort years of history.
+     * This store is left as it was.
+     *
+     * @param added Rows to add, in any order
+     * @return Store holding our rows plus the new ones
+     */
+    public AttendanceStore withRows(AttendanceRows added) {
+        if (added.size() == 0) {
+            return this;
+        }
+        AttendanceStore extra = fromRows(added);
+        int n = size() + extra.size();
+        int[] mergedIds = new int[n];
+        int[] mergedDays = new int[n];
+        short[] mergedIns = new short[n];
+        short[] mergedOuts = new short[n];
+
+        int a = 0;
+        int b = 0;
+        for (int row = 0; row < n; row++) {
+            // Take ours first on ties so same-day rows stay in arrival order
+            boolean takeOurs = b == extra.size()
+                    || (a < size() && (employeeIds[a] < extra.employeeIds[b]
+                        || (employeeIds[a] == extra.employeeIds[b] && epochDays[a] <= extra.epochDays[b])));
+            AttendanceStore source = takeOurs ? this : extra;
+            int sourceRow = takeOurs ? a++ : b++;
+            mergedIds[row] = source.employeeIds[sourceRow];
+            mergedDays[row] = source.epochDays[sourceRow];
+            mergedIns[row] = source.timeIns[sourceRow];
+            mergedOuts[row] = source.timeOuts[sourceRow];
+        }
+
+        return fromSortedColumns(mergedIds, mergedDays, mergedIns, mergedOuts);
+    }
+
+    /**
+     * Wraps columns that are already sorted by employee then date (e.g. read back
+     * from a snapshot) and rebuilds the employee directory. The arrays are used as is.
+     */
+    static AttendanceStore fromSortedColumns(int[] employeeIds, int[] epochDays, short[] timeIns, short[] timeOuts) {
+        int n = employeeIds.length;
+        int distinct = 0;
+        for (int row = 0; row < n; row++) {
+            if (row == 0 || employeeIds[row] != employeeIds[row - 1]) {
+                distinct++;
+            }
+        }
+        int[] distinctIds = new int[distinct];
+        int[] rowStart = new int[distinct + 1];
+        int slot = 0;
+        for (int row = 0; row < n; row++) {
+            if (row == 0 || employeeIds[row] != employeeIds[row - 1]) {
+                distinctIds[slot] = employeeIds[row];
+                rowStart[slot++] = row;
+            }
+        }
+        rowStart[distinct] = n;
+
+        return new AttendanceStore(employeeIds, epochDays, timeIns, timeOuts, distinctIds, rowStart);
+    }
+
+    /**
+     * @return Number that's different for every store object (used as a cache key)
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return employeeIds.length;
+    }
+
+    public int getEmployeeCount() {
+        return distinctIds.length;
+    }
+
+    /**
+     * @return Every employee ID in the store, in ascending order (a copy)
+     */
+    public int[] getEmployeeIds() {
+        return distinctIds.clone();
+    }
+
+    public int getEmployeeId(int row) {
+        return employeeIds[row];
+    }
+
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    public int getTimeIn(int row) {
+        return timeIns[row];
+    }
+
+    public int getTimeOut(int row) {
+        return timeOuts[row];
+    }
+
+    /**
+     * @return First row of the employee's records (equal to endRow if there are none)
+     */
+    public int startRow(int employeeId) {
+        int slot = Arrays.binarySearch(distinctIds, employeeId);
+        return slot >= 0 ? rowStart[slot] : rowStart[-slot - 1];
+    }
+
+    /**
+     * @return One past the last row of the employee's records
+     */
+    public int endRow(int employeeId) {
+        int slot = Arrays.binarySearch(distinctIds, employeeId);
+        return slot >= 0 ? rowStart[slot + 1] : rowStart[-slot - 1];
+    }
+
+    /**
+     * Finds the first row of an employee on or after the given day.
+     * Binary search within the employee's range, so it's cheap even for years of data.
+     *
+     * @return Row index, or endRow(employeeId) if there's nothing that late
+     */
+    public int firstRowOnOrAfter(int employeeId, int epochDay) {
+        int low = startRow(employeeId);
+        int high = endRow(employeeId);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Creates a WeeklyAttendance over the 7 days starting at weekStart.
+     * The week reads straight from this store, nothing gets copied.
+     *
+     * The store only knows employee numbers, so the shift is the employee's own
+     * row in ShiftPolicies.current() or the default; pass the shift in (e.g.
+     * ShiftPolicies.current().forEmployee(employee)) when position shifts matter.
+     *
+     * @param employeeId Employee to look up
+     * @param weekStart First day of the week
+     * @return The employee's week (may have no days in it)
+     */
+    public WeeklyAttendance weeklyAttendance(int employeeId, LocalDate weekStart) {
+        return weeklyAttendance(employeeId, weekStart,
+                ShiftPolicies.current().forEmployee(String.valueOf(employeeId), null));
+    }
+
+    /**
+     * Same as above, on a given shift
+     *
+     * @param shift Shift the days are checked against
+     */
+    public WeeklyAttendance weeklyAttendance(int employeeId, LocalDate weekStart, ShiftPolicy shift) {
+        int startDay = (int) weekStart.toEpochDay();
+        int from = firstRowOnOrAfter(employeeId, startDay);
+        int to = firstRowOnOrAfter(employeeId, startDay + 7);
+        return new WeeklyAttendance(String.valueOf(employeeId), formatDate(startDay), this, from, to, shift);
+    }
+
+    /**
+     * A read-only list over rows [from, to). Nothing is copied; each get() makes
+     * a small RecordView for its row, so the records can be kept like any others.
+     */
+    public List<TimeKeeping> view(int from, int to) {
+        checkRange(from, to);
+        return new RowRange(from, to, false);
+    }
+
+    /**
+     * Like view(), but get() hands back the same RecordView each time, moved to
+     * the requested row, so a loop over it creates no objects at all. Only for
+     * one loop on one thread that's done with each record before asking for the
+     * next (WeeklyAttendance's summary pass) - never hand it out.
+     */
+    List<TimeKeeping> cursor(int from, int to) {
+        checkRange(from, to);
+        return new RowRange(from, to, true);
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Rows " + from + " to " + to + " of " + size());
+        }
+    }
+
+    /**
+     * @return A new, reusable view positioned on the given row
+     */
+    public RecordView recordAt(int row) {
+        RecordView view = new RecordView(this);
+        view.moveTo(row);
+        return view;
+    }
+
+    // MM/dd/yyyy, same as attendance.csv
+    static String formatDate(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int month = date.getMonthValue();
+        int day = date.getDayOfMonth();
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            return String.format("%02d/%02d/%04d", month, day, year);
+        }
+        // Built by hand - String.format is slow when streaming millions of rows
+        char[] text = {
+            (char) ('0' + month / 10), (char) ('0' + month % 10), '/',
+            (char) ('0' + day / 10), (char) ('0' + day % 10), '/',
+            (char) ('0' + year / 1000), (char) ('0' + year / 100 % 10),
+            (char) ('0' + year / 10 % 10), (char) ('0' + year % 10)
+        };
+        return new String(text);
+    }
+
+    // H:mm, same as attendance.csv
+    static String formatTime(int minuteOfDay) {
+        int minutes = minuteOfDay % 60;
+        return (minuteOfDay / 60) + (minutes < 10 ? ":0" : ":") + minutes;
+    }
+
+    /**
+     * Flyweight TimeKeeping over one row of the store.
+     *
+     * moveTo() just copies the row's minutes into the TimeKeeping fields, so all the
+     * calculations work as usual. The String getters still work (they format on
+     * demand) but only reports really need them.
+     */
+    public static class RecordView extends TimeKeeping {
+        private final AttendanceStore store;
+        private int row;
+
+        RecordView(AttendanceStore store) {
+            this.store = store;
+        }
+
+        /**
+         * Points this view at a different row
+         */
+        public RecordView moveTo(int row) {
+            this.row = row;
+            this.timeInMinute = store.timeIns[row];
+            this.timeOutMinute = store.timeOuts[row];
+            return this;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return A standalone copy of the current row
+         */
+        public TimeKeeping toTimeKeeping() {
+            return new TimeKeeping(getEmployeeId(), getDate(), getTimeIn(), getTimeOut());
+        }
+
+        @Override
+        public String getEmployeeId() {
+            return String.valueOf(store.employeeIds[row]);
+        }
+
+        @Override
+        public String getDate() {
+            return formatDate(store.epochDays[row]);
+        }
+
+        @Override
+        public String getTimeIn() {
+            return formatTime(store.timeIns[row]);
+        }
+
+        @Override
+        public String getTimeOut() {
+            return formatTime(store.timeOuts[row]);
+        }
+    }
+
+    /**
+     * List returned by view() (a record per get) and cursor() (one shared RecordView)
+     */
+    private class RowRange extends AbstractList<TimeKeeping> {
+        private final int from;
+        private final int to;
+        private final RecordView cursor;  // null for view()
+
+        RowRange(int from, int to, boolean shared) {
+            this.from = from;
+            this.to = to;
+            this.cursor = shared ? new RecordView(AttendanceStore.this) : null;
+        }
+
+        @Override
+        public TimeKeeping get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + (to - from));
+            }
+            return cursor != null ? cursor.moveTo(from + index) : recordAt(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+// AttendanceStream.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams attendance.csv rows lazily instead of loading the whole file.
+ *
+ * The file is read through a sliding memory-mapped window and each row is only
+ * decoded when the stream asks for the next record, so heap use stays the same
+ * whether the file holds a week or ten years. Rows that don't match the employee
+ * or date filter are skipped without creating anything.
+ *
+ * The spliterator splits the file on line boundaries, so .parallel() works and
+ * each core walks its own part of the file.
+ *
+ * Streams hold the file open - use them in try-with-resources:
+ *   try (Stream<TimeKeeping> days = AttendanceStream.stream(path, "10001")) { ... }
+ */
+public class AttendanceStream {
+    // How much of the file is mapped at a time per spliterator
+    private static final long WINDOW_BYTES = 64L << 20;  // 64 MB
+    // Parts smaller than this aren't worth splitting further
+    private static final long MIN_SPLIT_BYTES = 1L << 20; // 1 MB
+
+    private static final int ANY_EMPLOYEE = -1;
+
+    /**
+     * Gets every row as it's decoded, as plain numbers - no objects at all
+     */
+    public interface RowVisitor {
+        /**
+         * @param employeeId Numeric employee ID
+         * @param epochDay Days since 1970-01-01
+         * @param timeIn Log in, minutes since midnight
+         * @param timeOut Log out, minutes since midnight
+         */
+        void visit(int employeeId, int epochDay, int timeIn, int timeOut);
+    }
+
+    /**
+     * Streams one employee's records
+     */
+    public static Stream<TimeKeeping> stream(Path file, String employeeId) throws IOException {
+        return stream(file, employeeId, null, null);
+    }
+
+    /**
+     * Streams everyone's records between two dates (inclusive)
+     */
+    public static Stream<TimeKeeping> stream(Path file, LocalDate from, LocalDate to) throws IOException {
+        return stream(file, null, from, to);
+    }
+
+    /**
+     * Streams records lazily, in file order
+     *
+     * @param file attendance.csv
+     * @param employeeId Only this employee (null for everyone)
+     * @param from First date to include (null for no limit)
+     * @param to Last date to include (null for no limit)
+     * @return Stream of matching records - close it when done
+     * @throws IOException If the file can't be opened
+     */
+    public static Stream<TimeKeeping> stream(Path file, String employeeId, LocalDate from, LocalDate to)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        RowSpliterator spliterator = new RowSpliterator(channel, 0, channel.size(),
+                                                        employeeFilter(employeeId), dayFilter(from, Integer.MIN_VALUE),
+                                                        dayFilter(to, Integer.MAX_VALUE));
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Walks matching rows and hands each one to the visitor as numbers.
+     * Single pass, nothing kept, nothing allocated per row.
+     *
+     * @param file attendance.csv
+     * @param employeeId Only this employee (null for everyone)
+     * @param from First date to include (null for no limit)
+     * @param to Last date to include (null for no limit)
+     * @param visitor Gets each matching row
+     * @throws IOException If the file can't be read
+     */
+    public static void forEach(Path file, String employeeId, LocalDate from, LocalDate to, RowVisitor visitor)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RowSpliterator rows = new RowSpliterator(channel, 0, channel.size(), employeeFilter(employeeId),
+                                                     dayFilter(from, Integer.MIN_VALUE), dayFilter(to, Integer.MAX_VALUE));
+            while (rows.nextRow()) {
+                visitor.visit(rows.parser.employeeId, rows.parser.epochDay, rows.parser.timeIn, rows.parser.timeOut);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static int employeeFilter(String employeeId) {
+        if (employeeId == null) {
+            return ANY_EMPLOYEE;
+        }
+        try {
+            return Integer.parseInt(employeeId.trim());
+        } catch (NumberFormatException e) {
+            return Integer.MIN_VALUE; // can never match a parsed ID
+        }
+    }
+
+    private static int dayFilter(LocalDate date, int noLimit) {
+        return date == null ? noLimit : (int) date.toEpochDay();
+    }
+
+    /**
+     * Lazily decodes the rows that start inside [position, end) of the file.
+     * A line belongs to whichever part its first byte is in, and split points
+     * are always moved to the start of a line.
+     */
+    private static class RowSpliterator implements Spliterator<TimeKeeping> {
+        private final FileChannel channel;
+        private final long fileSize;
+        private long position;  // start of the next line to read
+        private final long end; // lines starting at or after this belong to someone else
+
+        private final int employeeId;
+        private final int fromDay;
+        private final int toDay;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+        private final MappedAttendanceParser.LineParser parser = new MappedAttendanceParser.LineParser(null);
+
+        RowSpliterator(FileChannel channel, long position, long end, int employeeId, int fromDay, int toDay) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+            this.employeeId = employeeId;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            try {
+                this.fileSize = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super TimeKeeping> action) {
+            if (!nextRow()) {
+                return false;
+            }
+            action.accept(new TimeKeeping(String.valueOf(parser.employeeId),
+                                          AttendanceStore.formatDate(parser.epochDay),
+                                          AttendanceStore.formatTime(parser.timeIn),
+                                          AttendanceStore.formatTime(parser.timeOut)));
+            return true;
+        }
+
+        /**
+         * Moves to the next matching row; its values are left in the parser
+         *
+         * @return false once this part of the file is used up
+         */
+        boolean nextRow() {
+            while (position < end) {
+                long lineStart = position;
+                int lineEnd = findLineEnd(lineStart);
+                int start = (int) (lineStart - windowStart);
+                position = windowStart + lineEnd + 1;
+
+                int result = parser.parseLine(start, lineEnd, lineStart == 0);
+                if (result == MappedAttendanceParser.LineParser.ROW
+                        && (employeeId == ANY_EMPLOYEE || parser.employeeId == employeeId)
+                        && parser.epochDay >= fromDay && parser.epochDay <= toDay) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Makes sure the line starting at lineStart is inside the mapped window
+         *
+         * @return Offset of the line's newline (or end of file) within the window
+         */
+        private int findLineEnd(long lineStart) {
+            if (window == null || lineStart < windowStart || lineStart >= windowStart + window.limit()) {
+                remap(lineStart);
+            }
+            while (true) {
+                int i = (int) (lineStart - windowStart);
+                int limit = window.limit();
+                while (i < limit && window.get(i) != '\n') {
+                    i++;
+                }
+                boolean windowReachesEof = windowStart + limit >= fileSize;
+                if (i < limit || windowReachesEof) {
+                    return i;
+                }
+                if (lineStart == windowStart) {
+                    return i; // one line bigger than the whole window - let the parser reject it
+                }
+                remap(lineStart); // line runs past the window, slide it forward
+            }
+        }
+
+        private void remap(long start) {
+            try {
+                long length = Math.min(WINDOW_BYTES, fileSize - start);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                windowStart = start;
+                parser.setBuffer(window);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Spliterator<TimeKeeping> trySplit() {
+            long remaining = end - position;
+            if (remaining < MIN_SPLIT_BYTES) {
+                return null;
+            }
+            long split = nextLineStart(position + remaining / 2);
+            if (split <= position || split >= end) {
+                return null;
+            }
+            // The new part takes the front half; we keep the back half
+            RowSpliterator front = new RowSpliterator(channel, position, split, employeeId, fromDay, toDay);
+            position = split;
+            window = null;
+            return front;
+        }
+
+        private long nextLineStart(long from) {
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long pos = from;
+            try {
+                while (pos < end) {
+                    probe.clear();
+                    int read = channel.read(probe, pos);
+                    if (read <= 0) {
+                        return end;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (probe.get(i) == '\n') {
+                            return pos + i + 1;
+                        }
+                    }
+                    pos += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return end;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (end - position) / 40; // roughly 40 bytes per row
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+    }
+}
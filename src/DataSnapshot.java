@@ -0,0 +1,408 @@
+// DataSnapshot.java
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the parsed employees and attendance.
+ *
+ * Parsing employees.csv and attendance.csv every time a window opens adds up,
+ * so after the first parse everything is saved to motorph.snapshot next to the
+ * csv files. Later starts read that file in one go and copy the attendance
+ * columns straight into arrays - no csv parsing at all.
+ *
+ * The snapshot remembers the size, modified time and CRC32 checksum of both csv
+ * files. If either file changed it's considered stale and gets rebuilt.
+ *
+ * File layout (big-endian):
+ *   int magic, int version
+ *   2 x source info: long size, long lastModified, long crc32
+ *   int employee count, then per employee: int column count, per column: int length + UTF-8 bytes
+ *   int row count, int[] employee IDs, int[] epoch days, short[] time in, short[] time out
+ *   long crc32 of everything above
+ */
+public class DataSnapshot {
+    public static final String FILE_NAME = "motorph.snapshot";
+
+    private static final int MAGIC = 0x4D504853;  // "MPHS"
+    private static final int VERSION = 1;
+
+    // Last snapshot loaded in this run, so windows opened later don't even read the file
+    private static DataSnapshot current;
+
+    private final Path employeesFile;
+    private final Path attendanceFile;
+    private final SourceInfo employeesInfo;
+    private final SourceInfo attendanceInfo;
+    private final List<String[]> employeeRows;
+    private final AttendanceStore attendance;
+    private final Map<String, String[]> rowsById;
+    private final boolean loadedFromSnapshot;
+    private AttendanceMetrics metrics;  // built on first use, see getMetrics
+
+    private DataSnapshot(Path employeesFile, Path attendanceFile, SourceInfo employeesInfo, SourceInfo attendanceInfo,
+                         List<String[]> employeeRows, AttendanceStore attendance, boolean loadedFromSnapshot) {
+        this.employeesFile = employeesFile;
+        this.attendanceFile = attendanceFile;
+        this.employeesInfo = employeesInfo;
+        this.attendanceInfo = attendanceInfo;
+        this.employeeRows = Collections.unmodifiableList(employeeRows);
+        this.attendance = attendance;
+        this.loadedFromSnapshot = loadedFromSnapshot;
+
+        this.rowsById = new HashMap<>(employeeRows.size() * 2);
+        for (String[] row : employeeRows) {
+            rowsById.put(row[FileHandler.COL_EMPLOYEE_ID], row);
+        }
+    }
+
+    /**
+     * Gets the data for the csv files in the working folder
+     * (employees.csv and attendance.csv, like the rest of the app uses)
+     */
+    public static DataSnapshot current() throws IOException {
+        return current(new File("employees.csv").toPath(), new File("attendance.csv").toPath());
+    }
+
+    /**
+     * Gets the data for two csv files, reusing what's already in memory if the
+     * files haven't changed, otherwise loading (or rebuilding) the snapshot.
+     *
+     * @param employeesFile employees.csv
+     * @param attendanceFile attendance.csv
+     * @return Up to date employees and attendance
+     * @throws IOException If the csv files can't be read
+     */
+    public static synchronized DataSnapshot current(Path employeesFile, Path attendanceFile) throws IOException {
+        DataSnapshot snapshot = current;
+        if (snapshot == null || !snapshot.isFor(employeesFile, attendanceFile) || !snapshot.isUpToDate()) {
+            snapshot = load(employeesFile, attendanceFile);
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Loads the snapshot next to employeesFile if it's still valid,
+     * otherwise parses the csv files and writes a fresh snapshot.
+     *
+     * @param employeesFile employees.csv
+     * @param attendanceFile attendance.csv
+     * @return The loaded data
+     * @throws IOException If the csv files can't be read
+     */
+    public static DataSnapshot load(Path employeesFile, Path attendanceFile) throws IOException {
+        Path snapshotFile = snapshotFileFor(employeesFile);
+        if (Files.exists(snapshotFile)) {
+            try {
+                DataSnapshot snapshot = read(snapshotFile, employeesFile, attendanceFile);
+                if (snapshot != null && snapshot.isUpToDate()) {
+                    return snapshot;
+                }
+            } catch (IOException | RuntimeException e) {
+                // Broken or old snapshot - just rebuild it below
+            }
+        }
+        return rebuild(employeesFile, attendanceFile);
+    }
+
+    /**
+     * Parses the csv files and saves a new snapshot.
+     * If the snapshot can't be written the data is still returned.
+     */
+    public static DataSnapshot rebuild(Path employeesFile, Path attendanceFile) throws IOException {
+        // Read the source info before parsing, so a change during the parse makes it stale
+        SourceInfo employeesInfo = SourceInfo.of(employeesFile);
+        SourceInfo attendanceInfo = SourceInfo.of(attendanceFile);
+
+        List<String[]> rows = Files.exists(employeesFile)
+                ? FileHandler.readEmployeeRows(employeesFile.toString()) : new ArrayList<>();
+        AttendanceRows parsed = Files.exists(attendanceFile)
+                ? MappedAttendanceParser.parse(attendanceFile) : new AttendanceRows(16);
+        AttendanceStore store = AttendanceStore.fromRows(parsed);
+        if (Files.exists(attendanceFile)) {
+            // attendance.csv really was re-read, so refresh its quarantine file (best effort)
+            AttendanceQuarantine quarantine = AttendanceQuarantine.of(attendanceFile, parsed).save();
+            if (quarantine.getRejectedRowCount() > 0) {
+                System.err.println("Attendance: " + quarantine.getSummary());
+            }
+        }
+
+        DataSnapshot snapshot = new DataSnapshot(employeesFile, attendanceFile, employeesInfo, attendanceInfo,
+                                                 rows, store, false);
+        try {
+            snapshot.write(snapshotFileFor(employeesFile));
+        } catch (IOException e) {
+            System.err.println("Could not save data snapshot: " + e.getMessage());
+        }
+        return snapshot;
+    }
+
+    static Path snapshotFileFor(Path employeesFile) {
+        Path folder = employeesFile.toAbsolutePath().getParent();
+        return folder.resolve(FILE_NAME);
+    }
+
+    /**
+     * @return true if neither csv file changed since this snapshot was taken
+     */
+    public boolean isUpToDate() throws IOException {
+        boolean employeesSame = employeesInfo.matches(employeesFile);
+        boolean attendanceSame = employeesSame && attendanceInfo.matches(attendanceFile);
+        if (employeesSame && attendanceSame && (employeesInfo.refreshed || attendanceInfo.refreshed)) {
+            // Same content under a new modified time (touched, or saved without changes): the
+            // new time is remembered now, so save it in the snapshot too, or every later check
+            // (and every start) would checksum both files again
+            employeesInfo.refreshed = false;
+            attendanceInfo.refreshed = false;
+            try {
+                write(snapshotFileFor(employeesFile));
+            } catch (IOException e) {
+                System.err.println("Could not save data snapshot: " + e.getMessage());
+            }
+        }
+        return employeesSame && attendanceSame;
+    }
+
+    private boolean isFor(Path employees, Path attendance) {
+        return employeesFile.toAbsolutePath().equals(employees.toAbsolutePath())
+            && attendanceFile.toAbsolutePath().equals(attendance.toAbsolutePath());
+    }
+
+    private void write(Path snapshotFile) throws IOException {
+        // Work out the size first so everything goes into one buffer and one write
+        List<byte[][]> encoded = new ArrayList<>(employeeRows.size());
+        int size = 8 + 2 * 24 + 4;
+        for (String[] row : employeeRows) {
+            byte[][] columns = new byte[row.length][];
+            size += 4;
+            for (int i = 0; i < row.length; i++) {
+                columns[i] = row[i].getBytes(StandardCharsets.UTF_8);
+                size += 4 + columns[i].length;
+            }
+            encoded.add(columns);
+        }
+        int rowCount = attendance.size();
+        size += 4 + rowCount * 12 + 8;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        employeesInfo.writeTo(buffer);
+        attendanceInfo.writeTo(buffer);
+
+        buffer.putInt(encoded.size());
+        for (byte[][] columns : encoded) {
+            buffer.putInt(columns.length);
+            for (byte[] column : columns) {
+                buffer.putInt(column.length).put(column);
+            }
+        }
+
+        buffer.putInt(rowCount);
+        for (int row = 0; row < rowCount; row++) {
+            buffer.putInt(attendance.getEmployeeId(row));
+        }
+        for (int row = 0; row < rowCount; row++) {
+            buffer.putInt(attendance.getEpochDay(row));
+        }
+        for (int row = 0; row < rowCount; row++) {
+            buffer.putShort((short) attendance.getTimeIn(row));
+        }
+        for (int row = 0; row < rowCount; row++) {
+            buffer.putShort((short) attendance.getTimeOut(row));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        // Write to a temp file and swap it in, so readers never see half a snapshot
+        Path temp = snapshotFile.resolveSibling(FILE_NAME + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot file with a single bulk read
+     *
+     * @return The snapshot, or null if it's from another version or damaged
+     */
+    private static DataSnapshot read(Path snapshotFile, Path employeesFile, Path attendanceFile) throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+        if (bytes.length < 8 + 2 * 24 + 8 + 8) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 8);
+        if (crc.getValue() != buffer.getLong(bytes.length - 8)) {
+            return null;
+        }
+
+        SourceInfo employeesInfo = SourceInfo.readFrom(buffer);
+        SourceInfo attendanceInfo = SourceInfo.readFrom(buffer);
+
+        int employeeCount = buffer.getInt();
+        List<String[]> rows = new ArrayList<>(employeeCount);
+        for (int e = 0; e < employeeCount; e++) {
+            String[] row = new String[buffer.getInt()];
+            for (int i = 0; i < row.length; i++) {
+                int length = buffer.getInt();
+                row[i] = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+            rows.add(row);
+        }
+
+        // Attendance columns - bulk copies, no per-row work
+        int rowCount = buffer.getInt();
+        int[] employeeIds = new int[rowCount];
+        int[] epochDays = new int[rowCount];
+        short[] timeIns = new short[rowCount];
+        short[] timeOuts = new short[rowCount];
+        buffer.asIntBuffer().get(employeeIds);
+        buffer.position(buffer.position() + rowCount * 4);
+        buffer.asIntBuffer().get(epochDays);
+        buffer.position(buffer.position() + rowCount * 4);
+        buffer.asShortBuffer().get(timeIns);
+        buffer.position(buffer.position() + rowCount * 2);
+        buffer.asShortBuffer().get(timeOuts);
+
+        AttendanceStore store = AttendanceStore.fromSortedColumns(employeeIds, epochDays, timeIns, timeOuts);
+        return new DataSnapshot(employeesFile, attendanceFile, employeesInfo, attendanceInfo, rows, store, true);
+    }
+
+    /**
+     * @return Every employee row (String[19], same columns as employees.csv)
+     */
+    public List<String[]> getEmployeeRows() {
+        return employeeRows;
+    }
+
+    /**
+     * Finds one employee's row by ID
+     *
+     * @return The row, or null if there's no such employee
+     */
+    public String[] findEmployeeRow(String employeeId) {
+        return rowsById.get(employeeId);
+    }
+
+    /**
+     * @return New Employee objects for every row
+     */
+    public List<Employee> getEmployees() {
+        List<Employee> employees = new ArrayList<>(employeeRows.size());
+        for (String[] row : employeeRows) {
+            employees.add(FileHandler.toEmployee(row));
+        }
+        return employees;
+    }
+
+    public AttendanceStore getAttendance() {
+        return attendance;
+    }
+
+    /**
+     * Running totals of late minutes, undertime and overtime for this data, for
+     * date-range questions. Built the first time it's asked for (one pass over
+     * the attendance) and kept until the shift policies are reloaded.
+     */
+    public synchronized AttendanceMetrics getMetrics() {
+        ShiftPolicies policies = ShiftPolicies.current();
+        if (metrics == null || metrics.getPolicies() != policies) {
+            metrics = AttendanceMetrics.build(attendance, getEmployees(), policies);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return true if this came from the snapshot file, false if the csv files were parsed
+     */
+    public boolean isLoadedFromSnapshot() {
+        return loadedFromSnapshot;
+    }
+
+    /**
+     * What a csv file looked like when the snapshot was taken.
+     * A missing file is stored with size -1.
+     */
+    private static class SourceInfo {
+        final long size;
+        volatile long lastModified;  // moved forward when the file is touched without changing
+        final long checksum;
+        volatile boolean refreshed;  // lastModified was moved since the snapshot file was written
+
+        SourceInfo(long size, long lastModified, long checksum) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+        }
+
+        static SourceInfo of(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return new SourceInfo(-1, 0, 0);
+            }
+            return new SourceInfo(Files.size(file), Files.getLastModifiedTime(file).toMillis(), checksum(file));
+        }
+
+        /**
+         * Size and modified time are checked first since they're free. The checksum
+         * is only worked out when the time changed but the size didn't (e.g. the file
+         * was saved again without changes, or copied somewhere). If it still matches,
+         * the new time is kept so the next check is free again.
+         */
+        boolean matches(Path file) throws IOException {
+            if (!Files.exists(file)) {
+                return size == -1;
+            }
+            if (Files.size(file) != size) {
+                return false;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            if (modified == lastModified) {
+                return true;
+            }
+            if (checksum(file) != checksum) {
+                return false;
+            }
+            lastModified = modified;
+            refreshed = true;
+            return true;
+        }
+
+        static long checksum(Path file) throws IOException {
+            CRC32 crc = new CRC32();
+            byte[] chunk = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(chunk)) > 0) {
+                    crc.update(chunk, 0, read);
+                }
+            }
+            return crc.getValue();
+        }
+
+        void writeTo(ByteBuffer buffer) {
+            buffer.putLong(size).putLong(lastModified).putLong(checksum);
+        }
+
+        static SourceInfo readFrom(ByteBuffer buffer) {
+            return new SourceInfo(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+    }
+}
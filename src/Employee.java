@@ -14,6 +14,8 @@ public class Employee {
     private String firstName;   // Given name
     private String birthday;    // Format: MM/DD/YYYY
     private double hourlyRate;  // Pay rate per hour (PHP)
+    private double semiMonthlyRate; // Gross pay per half month (PHP), from "Gross Semi-monthly Rate"
+    private String position;    // Job title, picks their shift (see ShiftPolicies)
     
     /**
      * Constructor for Employee class - creates a new employee instance
@@ -120,4 +122,41 @@ public class Employee {
         // 2. Log the change for audit purposes
         // 3. Maybe store historical rates
     }
+    
+    /**
+     * Get semi-monthly rate
+     * What the employee is scheduled to get each half month (basic salary / 2)
+     * 
+     * @return Gross semi-monthly rate in PHP
+     */
+    public double getSemiMonthlyRate() {
+        return semiMonthlyRate;
+    }
+    
+    /**
+     * Set semi-monthly rate
+     * 
+     * @param semiMonthlyRate Gross semi-monthly rate in PHP
+     */
+    public void setSemiMonthlyRate(double semiMonthlyRate) {
+        this.semiMonthlyRate = semiMonthlyRate;
+    }
+    
+    /**
+     * Get position
+     * 
+     * @return Position as in employees.csv (null if it wasn't set)
+     */
+    public String getPosition() {
+        return position;
+    }
+    
+    /**
+     * Set position
+     * 
+     * @param position Position, e.g. "HR Manager"
+     */
+    public void setPosition(String position) {
+        this.position = position;
+    }
 }
@@ -0,0 +1,69 @@
+// EmployeeRanges.java
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs something over a list of employees on the common fork-join pool:
+ * the list is split in half until the pieces are small, and each piece
+ * gets the body once with its range of positions. The body loops over the
+ * range itself, so it can make its holders (calculators, details) once per
+ * piece instead of once per employee.
+ *
+ * Used by PayrollRun, PayPeriodRun and PayrollSimulation.
+ */
+class EmployeeRanges {
+    /**
+     * What to do with one piece of the list
+     */
+    interface Body {
+        /**
+         * @param from First position in the piece
+         * @param to One past the last position
+         */
+        void run(int from, int to);
+    }
+
+    private EmployeeRanges() {
+    }
+
+    /**
+     * Runs the body over positions 0 to count, split into pieces
+     *
+     * @param count How many employees
+     * @param body What to do with each piece
+     * @return How many threads the pool had (for the run's report)
+     */
+    static int forEach(int count, Body body) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        // A few pieces per core so a slow employee doesn't hold up the whole run
+        int leafSize = Math.max(1, count / (pool.getParallelism() * 8));
+        pool.invoke(new RangeTask(body, 0, count, leafSize));
+        return pool.getParallelism();
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Body body;  // tasks are never actually serialized
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        RangeTask(Body body, int from, int to, int leafSize) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(body, from, mid, leafSize), new RangeTask(body, mid, to, leafSize));
+        }
+    }
+}
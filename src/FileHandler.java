@@ -1,49 +1,223 @@
 // FileHandler.java
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * This class helps us read employee and attendance records from csv files.
  * We use it to load data into our program for processing.
  */
 public class FileHandler {
+    // Attendance files we've already indexed, so each file is only parsed once
+    private static final Map<String, CachedIndex> ATTENDANCE_CACHE = new HashMap<>();
+
+    // employees.csv layout - 19 columns, see EmployeeListFrame for the full list
+    public static final int EMPLOYEE_COLUMNS = 19;
+    public static final int COL_EMPLOYEE_ID = 0;
+    public static final int COL_LAST_NAME = 1;
+    public static final int COL_FIRST_NAME = 2;
+    public static final int COL_BIRTHDAY = 3;
+    public static final int COL_POSITION = 11;
+    public static final int COL_SUPERVISOR = 12;
+    public static final int COL_BASIC_SALARY = 13;
+    public static final int COL_SEMI_MONTHLY_RATE = 17;
+    public static final int COL_HOURLY_RATE = 18;
 
     /**
      * Reads attendance records for a specific employee from a csv file.
-     * This method scans each line and checks if the employee ID matches.
-     * 
+     * The file is indexed once (see AttendanceIndex) and later calls just
+     * look the employee up, so looping over every employee stays cheap.
+     *
      * @param filePath Path to the attendance data file
      * @param employeeId Employee ID to filter records
-     * @return Array of TimeKeeping objects for the specified employee
+     * @return Array of TimeKeeping objects for the specified employee, sorted by date
      * @throws IOException If there's an error reading the file
      */
     public static TimeKeeping[] readAttendanceRecords(String filePath, String employeeId) throws IOException {
-        List<TimeKeeping> records = new ArrayList<>(); // List to store valid records
-        
-        // Open file and start reading line by line
-        try (BufferedReader reader = new BufferedReader(new FileReader("attendance.csv"))) {
-            String line; // Stores each line from the file
+        TimeKeeping[] records = loadAttendanceIndex(filePath).getRecords(employeeId);
+
+        // Copy so callers can't mess up the shared index
+        return Arrays.copyOf(records, records.length);
+    }
+
+    /**
+     * Streams one employee's attendance records straight from the file, without
+     * loading the rest of it (see AttendanceStream). Close the stream when done.
+     *
+     * @param filePath Path to the attendance data file
+     * @param employeeId Employee ID to filter records
+     * @return Lazy stream of the employee's records, in file order
+     * @throws IOException If the file can't be opened
+     */
+    public static Stream<TimeKeeping> streamAttendanceRecords(String filePath, String employeeId) throws IOException {
+        return AttendanceStream.stream(Paths.get(filePath), employeeId);
+    }
+
+    /**
+     * Gets the attendance index for a file, loading it on first use.
+     * The file is re-read only if its size or modified time changed since the last load.
+     *
+     * @param filePath Path to the attendance data file
+     * @return Index of the file's records by employee ID
+     * @throws IOException If there's an error reading the file
+     */
+    public static synchronized AttendanceIndex loadAttendanceIndex(String filePath) throws IOException {
+        File file = new File(filePath);
+        CachedIndex cached = ATTENDANCE_CACHE.get(filePath);
+        if (cached != null && cached.matches(file)) {
+            return cached.index;
+        }
+
+        AttendanceIndex index = AttendanceIndex.load(filePath);
+        ATTENDANCE_CACHE.put(filePath, new CachedIndex(index, file.length(), file.lastModified()));
+        return index;
+    }
+
+    /**
+     * Reads every employee row from employees.csv.
+     * Handles quoted values like "90,000", a header row and the byte order
+     * mark Excel likes to put at the start of the file.
+     *
+     * @param filePath Path to employees.csv
+     * @return One String[19] per employee, in file order
+     * @throws IOException If there's an error reading the file
+     */
+    public static List<String[]> readEmployeeRows(String filePath) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8))) {
+            String line;
+            boolean firstLine = true;
             while ((line = reader.readLine()) != null) {
-                System.out.println("Reading line: " + line); // Debugging output
-                String[] parts = line.split(","); // Split line by commas
-                if (parts.length >= 4) { // Ensure there are enough columns
-                    String id = parts[0].trim(); // Get employee ID
-                    if (id.equals(employeeId)) { // Check if it matches
-                        String date = parts[1].trim();
-                        String timeIn = parts[2].trim();
-                        String timeOut = parts[3].trim();
-                        
-                        // Add new attendance record
-                        records.add(new TimeKeeping(employeeId, date, timeIn, timeOut));
-                    }
+                if (firstLine && line.startsWith("\uFEFF")) {
+                    line = line.substring(1); // drop the BOM
                 }
+                String[] row = parseCsvLine(line);
+                boolean header = firstLine && row[0].startsWith("Employee");
+                firstLine = false;
+                if (header || row.length < EMPLOYEE_COLUMNS) {
+                    continue;
+                }
+                rows.add(row.length == EMPLOYEE_COLUMNS ? row : Arrays.copyOf(row, EMPLOYEE_COLUMNS));
             }
         }
-        
-        // Convert list into an array (Needed to return multiple records)
-        return records.toArray(new TimeKeeping[0]); 
+        return rows;
+    }
+
+    /**
+     * Reads employees.csv into Employee objects (with their hourly rates filled in)
+     *
+     * @param filePath Path to employees.csv
+     * @return Employees in file order
+     * @throws IOException If there's an error reading the file
+     */
+    public static List<Employee> readEmployees(String filePath) throws IOException {
+        List<String[]> rows = readEmployeeRows(filePath);
+        List<Employee> employees = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            employees.add(toEmployee(row));
+        }
+        return employees;
+    }
+
+    /**
+     * Builds an Employee from one employees.csv row (rates filled in)
+     */
+    public static Employee toEmployee(String[] row) {
+        Employee employee = new Employee(row[COL_EMPLOYEE_ID], row[COL_LAST_NAME],
+                                         row[COL_FIRST_NAME], row[COL_BIRTHDAY]);
+        employee.setHourlyRate(parseAmount(row[COL_HOURLY_RATE]));
+        employee.setSemiMonthlyRate(parseAmount(row[COL_SEMI_MONTHLY_RATE]));
+        employee.setPosition(row[COL_POSITION]);
+        return employee;
+    }
+
+    /**
+     * Parses an amount like "90,000" or 535.71 (0 if it isn't a number)
+     */
+    public static double parseAmount(String text) {
+        try {
+            return Double.parseDouble(text.replace(",", "").trim());
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    /**
+     * Splits one csv line, keeping commas that are inside double quotes
+     *
+     * @param line A line like: 10001,Garcia,"90,000"
+     * @return The values without the quotes
+     */
+    public static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>(EMPLOYEE_COLUMNS);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"'); // "" inside quotes is a literal quote
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values.toArray(new String[0]);
+    }
+
+    /**
+     * Joins values back into a csv line, quoting the ones that need it
+     */
+    public static String toCsvLine(String[] values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String value = values[i] == null ? "" : values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Cache entry - remembers what the file looked like when it was indexed
+     */
+    private static class CachedIndex {
+        final AttendanceIndex index;
+        final long length;
+        final long lastModified;
+
+        CachedIndex(AttendanceIndex index, long length, long lastModified) {
+            this.index = index;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        boolean matches(File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
     }
 }
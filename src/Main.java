@@ -3,17 +3,21 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import com.opencsv.CSVReader;
-import java.io.FileReader;
-import java.util.List;
-import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Main class to launch the application.
+ * With --batch it runs payroll from the command line instead (see PayrollCli).
  */
 public class Main {
     public static void main(String[] args) {
+        // Headless batch run - has to happen before anything touches Swing/AWT
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(PayrollCli.run(args));
+        }
         // Ensures GUI is created on the Event Dispatch Thread for thread safety
         SwingUtilities.invokeLater(() -> new MainGUI().setVisible(true));
     }
@@ -177,12 +181,10 @@ class EmployeeListFrame extends JFrame {
      */
    private void loadEmployeeData() {
     tableModel.setRowCount(0);
-    try (CSVReader reader = new CSVReader(new FileReader("employees.csv"))) {
-        List<String[]> allRows = reader.readAll();
-        for (String[] row : allRows) {
-            if (row.length >= 19) {
-                tableModel.addRow(Arrays.copyOfRange(row, 0, 19));
-            }
+    try {
+        // Comes from the binary snapshot unless employees.csv changed
+        for (String[] row : DataSnapshot.current().getEmployeeRows()) {
+            tableModel.addRow(row);
         }
     } catch (Exception e) {
         JOptionPane.showMessageDialog(this, "Error loading employee data: " + e.getMessage());
@@ -262,6 +264,7 @@ class EmployeeDetailFrame extends JFrame {
     private String employeeName;
     private JTextArea detailArea;
     private JTextField monthField;
+    private JButton computeBtn;
 
     public EmployeeDetailFrame(String empId, String empName) {
         this.employeeId = empId;
@@ -278,7 +281,7 @@ class EmployeeDetailFrame extends JFrame {
         JPanel bottomPanel = new JPanel();
         bottomPanel.add(new JLabel("Month (YYYY-MM):"));
         monthField = new JTextField(10);
-        JButton computeBtn = new JButton("Compute");
+        computeBtn = new JButton("Compute");
         bottomPanel.add(monthField);
         bottomPanel.add(computeBtn);
         add(bottomPanel, BorderLayout.SOUTH);
@@ -292,13 +295,10 @@ class EmployeeDetailFrame extends JFrame {
      * Loads and displays employee info based on employee ID.
      */
     private void loadEmployeeData() {
-        try (Scanner scanner = new Scanner(new File("employees.csv"))) {
-            while (scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                if (line.startsWith(employeeId + ",")) {
-                    detailArea.setText("Employee Info:\n" + line + "\n");
-                    return;
-                }
+        try {
+            String[] row = DataSnapshot.current().findEmployeeRow(employeeId);
+            if (row != null) {
+                detailArea.setText("Employee Info:\n" + FileHandler.toCsvLine(row) + "\n");
             }
         } catch (IOException e) {
             detailArea.setText("Error loading employee data.");
@@ -306,15 +306,73 @@ class EmployeeDetailFrame extends JFrame {
     }
     
     /**
-     * Computes salary (currently static) and displays it.
+     * Computes the month's payroll from attendance and displays it.
+     * Runs in the background so the window doesn't freeze, and comes straight
+     * from MonthlyPayCache if the month was already worked out.
      */
     private void computeSalary() {
-        String month = monthField.getText().trim();
-        if (month.isEmpty()) {
+        String text = monthField.getText().trim();
+        if (text.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Enter month for salary computation.");
             return;
         }
-        detailArea.append("\nPayroll for " + employeeName + " (ID: " + employeeId + ") in " + month + ":\nGross: 5000.00\nNet: 4500.00");
+        YearMonth month;
+        try {
+            month = YearMonth.parse(text);
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Enter the month as YYYY-MM (e.g. 2024-06).");
+            return;
+        }
+
+        computeBtn.setEnabled(false);
+        new SwingWorker<PayPeriodRun.PeriodPay, Void>() {
+            @Override
+            protected PayPeriodRun.PeriodPay doInBackground() throws IOException {
+                return MonthlyPayCache.get(employeeId, month);
+            }
+
+            @Override
+            protected void done() {
+                computeBtn.setEnabled(true);
+                try {
+                    PayPeriodRun.PeriodPay pay = get();
+                    if (pay == null) {
+                        detailArea.append("\nEmployee " + employeeId + " is no longer in employees.csv.\n");
+                    } else {
+                        showPay(month, pay);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    detailArea.append("\nError computing payroll: " + cause.getMessage() + "\n");
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Appends one month's pay to the details
+     */
+    private void showPay(YearMonth month, PayPeriodRun.PeriodPay pay) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\nPayroll for ").append(employeeName).append(" (ID: ").append(employeeId).append(") in ")
+          .append(month).append(":\n");
+        if (pay.getDays() == 0) {
+            sb.append("No attendance recorded this month.\n");
+        }
+        sb.append(String.format("Days Worked: %d\n", pay.getDays()));
+        sb.append(String.format("Regular Hours: %.2f\n", pay.getRegularHours()));
+        sb.append(String.format("Overtime Hours: %.2f\n", pay.getOvertimeHours()));
+        sb.append(String.format("Late Minutes: %d\n", pay.getLateMinutes()));
+        sb.append(String.format("Gross: %.2f\n", pay.getGross()));
+        sb.append(String.format("SSS: %.2f\n", pay.getSss()));
+        sb.append(String.format("PhilHealth: %.2f\n", pay.getPhilHealth()));
+        sb.append(String.format("Pag-IBIG: %.2f\n", pay.getPagIbig()));
+        sb.append(String.format("Tax: %.2f\n", pay.getTax()));
+        sb.append(String.format("Net: %.2f\n", pay.getNet()));
+        if (pay.getInvalidDays() > 0) {
+            sb.append("WARNING: ").append(pay.getInvalidDays()).append(" day(s) with unreadable times not paid\n");
+        }
+        detailArea.append(sb.toString());
     }
 }
 
@@ -0,0 +1,406 @@
+// MappedAttendanceParser.java
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Fast parser for attendance.csv that works straight on the file bytes.
+ *
+ * Format: Employee #,Last Name,First Name,Date,Log In,Log Out
+ * e.g.    10001,Garcia,Manuel III,06/03/2024,8:59,18:31
+ *
+ * The file is memory-mapped and the ID, date and times are decoded digit by
+ * digit into ints, so no String is built for any row. Big files are cut into
+ * chunks on line boundaries and the chunks are parsed in parallel on the
+ * common fork-join pool, then merged back in file order.
+ */
+public class MappedAttendanceParser {
+    // Below this size splitting the file costs more than it saves
+    private static final long MIN_CHUNK_BYTES = 1L << 20;   // 1 MB
+    // A single mapping can't go past 2 GB, stay well below that
+    private static final long MAX_CHUNK_BYTES = 1L << 30;   // 1 GB
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * Parses a whole attendance file using as many cores as make sense for its size.
+     *
+     * @param path Attendance csv file
+     * @return All valid rows in file order
+     * @throws IOException If the file can't be read
+     */
+    public static AttendanceRows parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel, 0, channel.size(), defaultChunkCount(channel.size()));
+        }
+    }
+
+    /**
+     * Parses part of an attendance file, e.g. only its complete lines, or just
+     * what was appended since the last read. from should be 0 or the start of a
+     * line; only a part starting at 0 has a header row.
+     *
+     * @param path Attendance csv file
+     * @param from First byte to parse
+     * @param to One past the last byte to parse
+     * @return The valid rows in file order (line numbers count from the start of the part)
+     * @throws IOException If the file can't be read
+     */
+    public static AttendanceRows parse(Path path, long from, long to) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel, from, to, defaultChunkCount(to - from));
+        }
+    }
+
+    // As many cores as make sense for the size, and always enough chunks to stay under MAX_CHUNK_BYTES
+    private static int defaultChunkCount(long size) {
+        int byCores = Runtime.getRuntime().availableProcessors();
+        int bySize = (int) Math.max(1, size / MIN_CHUNK_BYTES);
+        int chunks = Math.min(byCores, bySize);
+        return Math.max(chunks, (int) ((size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES));
+    }
+
+    /**
+     * Parses a whole attendance file split into a fixed number of chunks.
+     *
+     * @param path Attendance csv file
+     * @param chunkCount How many pieces to parse in parallel (1 = single threaded)
+     * @return All valid rows in file order
+     * @throws IOException If the file can't be read
+     */
+    public static AttendanceRows parse(Path path, int chunkCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(channel, 0, channel.size(), chunkCount);
+        }
+    }
+
+    /**
+     * Parses rows from a buffer that's already in memory, e.g. bytes that were
+     * just appended to the file. Only the start of the file has a header row.
+     *
+     * @param buffer Whole lines of attendance.csv
+     * @param startOfFile true if the buffer starts at the beginning of the file
+     * @return The valid rows in order
+     */
+    static AttendanceRows parse(ByteBuffer buffer, boolean startOfFile) {
+        return parseChunk(buffer, startOfFile);
+    }
+
+    private static AttendanceRows parse(FileChannel channel, long from, long to, int chunkCount) throws IOException {
+        long[] bounds = splitOnLines(channel, from, to, Math.max(1, chunkCount));
+        int chunks = bounds.length - 1;
+        if (chunks == 1) {
+            return parseChunk(channel.map(FileChannel.MapMode.READ_ONLY, from, to - from), from == 0);
+        }
+
+        // Map every chunk up front, then hand them out to the pool
+        List<Future<AttendanceRows>> results = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            long start = bounds[i];
+            long length = bounds[i + 1] - start;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            boolean firstChunk = start == 0;
+            results.add(ForkJoinPool.commonPool().submit(() -> parseChunk(buffer, firstChunk)));
+        }
+
+        // Merge in order so the output matches the file
+        int total = 0;
+        List<AttendanceRows> parts = new ArrayList<>(chunks);
+        for (Future<AttendanceRows> result : results) {
+            AttendanceRows part = join(result);
+            parts.add(part);
+            total += part.size();
+        }
+        AttendanceRows merged = new AttendanceRows(total);
+        for (AttendanceRows part : parts) {
+            merged.addAll(part);
+        }
+        return merged;
+    }
+
+    private static AttendanceRows join(Future<AttendanceRows> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing attendance", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error parsing attendance chunk", e.getCause());
+        }
+    }
+
+    /**
+     * Picks chunk start offsets, moving each one forward to just after a newline
+     * so no row is ever split between two chunks.
+     */
+    private static long[] splitOnLines(FileChannel channel, long from, long to, int chunkCount) throws IOException {
+        long size = to - from;
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(from);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+
+        for (int i = 1; i < chunkCount; i++) {
+            long target = Math.max(from + size * i / chunkCount, bounds.get(bounds.size() - 1));
+            long boundary = nextLineStart(channel, target, to, probe);
+            if (boundary > bounds.get(bounds.size() - 1) && boundary < to) {
+                bounds.add(boundary);
+            }
+        }
+        bounds.add(to);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long to, ByteBuffer probe)
+            throws IOException {
+        long pos = position;
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0 || pos >= to) {
+                return to;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+    }
+
+    /**
+     * Parses every line in one mapped chunk
+     */
+    private static AttendanceRows parseChunk(ByteBuffer buffer, boolean firstChunk) {
+        int end = buffer.limit();
+        // Rough guess of ~45 bytes per row keeps array growth to a minimum
+        AttendanceRows rows = new AttendanceRows(end / 40 + 16);
+        LineParser parser = new LineParser(buffer);
+
+        int lineStart = 0;
+        int lineNumber = 0;
+        boolean firstLine = firstChunk;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            lineNumber++;
+            int result = parser.parseLine(lineStart, lineEnd, firstLine);
+            if (result == LineParser.ROW) {
+                rows.add(parser.employeeId, parser.epochDay, parser.timeIn, parser.timeOut);
+            } else if (result == LineParser.REJECTED) {
+                // Rare, so it's fine to make a String here
+                rows.reject(lineNumber, parser.rejectReason, parser.lineText(lineStart, lineEnd));
+            }
+            firstLine = false;
+            lineStart = lineEnd + 1;
+        }
+        rows.setLineCount(lineNumber);
+        return rows;
+    }
+
+    /**
+     * Converts a calendar date to days since 1970-01-01 with plain int math
+     * (same answer as LocalDate.of(year, month, day).toEpochDay()).
+     */
+    static int toEpochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    static boolean isValidDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int maxDay = (month == 2 && leap) ? 29 : DAYS_IN_MONTH[month - 1];
+        return day <= maxDay;
+    }
+
+    /**
+     * Walks one line byte by byte. Kept as a small object per chunk so the
+     * read position doesn't have to be passed around between the helpers.
+     * After parseLine() returns ROW the decoded values are in the fields;
+     * after REJECTED, rejectReason says what was wrong. Nothing here throws.
+     */
+    static class LineParser {
+        static final int ROW = 0;       // valid row, values are in the fields
+        static final int SKIPPED = 1;   // blank line or header
+        static final int REJECTED = 2;  // couldn't be decoded
+
+        private ByteBuffer buffer;
+        private int pos;      // current byte
+        private int lineEnd;  // one past the last byte of the line
+
+        int employeeId;
+        int epochDay;
+        int timeIn;
+        int timeOut;
+        String rejectReason;
+
+        LineParser(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        void setBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        int parseLine(int start, int end, boolean firstLine) {
+            pos = start;
+            lineEnd = end;
+            if (lineEnd > pos && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (pos == lineEnd) {
+                return SKIPPED; // blank line
+            }
+            if (firstLine && !isDigit(buffer.get(pos))) {
+                return SKIPPED; // header row
+            }
+
+            int employeeId = readNumber(',');
+            if (employeeId < 0) {
+                return reject("Bad employee number");
+            }
+            if (!skipField() || !skipField()) { // Last Name, First Name
+                return reject("Missing columns");
+            }
+            int month = readNumber('/');
+            int day = month >= 0 ? readNumber('/') : -1;
+            int year = day >= 0 ? readNumber(',') : -1;
+            if (year < 0) {
+                return reject(pos >= lineEnd ? "Missing columns" : "Bad date");
+            }
+            if (!isValidDate(year, month, day)) {
+                return reject("No such date");
+            }
+            int inHour = readNumber(':');
+            int inMinute = inHour >= 0 ? readMinute(',') : -1;
+            if (inMinute < 0 || inHour > 23 || inMinute > 59) {
+                return reject(inHour < 0 && pos >= lineEnd ? "Missing columns" : "Bad log in time");
+            }
+            int outHour = readNumber(':');
+            int outMinute = outHour >= 0 ? readMinute(',') : -1;
+            if (outMinute < 0 || outHour > 23 || outMinute > 59) {
+                return reject(outHour < 0 && pos >= lineEnd ? "Missing columns" : "Bad log out time");
+            }
+
+            this.employeeId = employeeId;
+            this.epochDay = toEpochDay(year, month, day);
+            this.timeIn = inHour * 60 + inMinute;
+            this.timeOut = outHour * 60 + outMinute;
+            return ROW;
+        }
+
+        // Minutes are always two digits ("8:05", not "8:5"), same as TimeKeeping
+        private int readMinute(char separator) {
+            int start = pos;
+            int value = readNumber(separator);
+            int digits = 0;
+            while (start + digits < lineEnd && isDigit(buffer.get(start + digits))) {
+                digits++;
+            }
+            return digits == 2 ? value : -1;
+        }
+
+        private int reject(String reason) {
+            rejectReason = reason;
+            return REJECTED;
+        }
+
+        /**
+         * The raw line as text (without the line break), for the quarantine file
+         */
+        String lineText(int start, int end) {
+            if (end > start && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads digits up to the given separator (or the end of the line) and
+         * steps past the separator. Returns -1 if there's anything else in there.
+         */
+        private int readNumber(char separator) {
+            skipSpaces();
+            int value = 0;
+            int digits = 0;
+            while (pos < lineEnd) {
+                byte b = buffer.get(pos);
+                if (!isDigit(b)) {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+                digits++;
+                pos++;
+            }
+            skipSpaces();
+            if (digits == 0 || digits > 9) {
+                return -1;
+            }
+            if (pos < lineEnd) {
+                if (buffer.get(pos) != separator) {
+                    return -1;
+                }
+                pos++;
+            }
+            return value;
+        }
+
+        /**
+         * Steps over one field, honouring "quoted, values" just in case
+         */
+        private boolean skipField() {
+            if (pos < lineEnd && buffer.get(pos) == '"') {
+                pos++;
+                while (pos < lineEnd && buffer.get(pos) != '"') {
+                    pos++;
+                }
+                pos++; // closing quote
+            }
+            while (pos < lineEnd && buffer.get(pos) != ',') {
+                pos++;
+            }
+            if (pos >= lineEnd) {
+                return false; // ran out of columns
+            }
+            pos++;
+            return true;
+        }
+
+        private void skipSpaces() {
+            while (pos < lineEnd && buffer.get(pos) == ' ') {
+                pos++;
+            }
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+    }
+}
@@ -0,0 +1,94 @@
+// Money.java
+/**
+ * Money as a whole number of centavos in a long (535.71 pesos = 53571).
+ *
+ * Adding and subtracting centavos is exact, so totals over thousands of
+ * employees come out the same no matter what order they're added in, which
+ * isn't true for doubles. BigDecimal would be exact too but makes objects on
+ * every operation; these are plain long math and never allocate.
+ *
+ * Rounding rule everywhere: to the nearest centavo, halves away from zero
+ * (the usual "round half up" on payslips). It's applied once per amount,
+ * right where a multiply or divide makes a fraction of a centavo.
+ */
+public class Money {
+    public static final long CENTAVOS_PER_PESO = 100;
+    public static final long BASIS_POINTS = 10000;   // 1% = 100 basis points
+
+    private Money() {
+    }
+
+    /**
+     * @return Pesos as centavos, rounded half away from zero (e.g. 535.71 -> 53571)
+     */
+    public static long ofPesos(double pesos) {
+        // Math.round rounds halves up (towards +infinity), so mirror negatives to round them away from zero too
+        return pesos < 0 ? -Math.round(-pesos * CENTAVOS_PER_PESO) : Math.round(pesos * CENTAVOS_PER_PESO);
+    }
+
+    /**
+     * @return Centavos as pesos (for display and for mixing with the double code)
+     */
+    public static double toPesos(long centavos) {
+        return centavos / (double) CENTAVOS_PER_PESO;
+    }
+
+    /**
+     * Hours like 7.83 as whole hundredths (783), rounded the same way as money
+     */
+    public static long hundredths(double hours) {
+        return ofPesos(hours);
+    }
+
+    /**
+     * amount * numerator / denominator, rounded to the nearest centavo
+     * (halves away from zero). The product has to fit in a long, which it
+     * does for any real pay amount.
+     */
+    public static long multiply(long amount, long numerator, long denominator) {
+        return divide(Math.multiplyExact(amount, numerator), denominator);
+    }
+
+    /**
+     * @return amount * basisPoints / 10000, rounded (e.g. 3% is 300 basis points)
+     */
+    public static long percent(long amount, long basisPoints) {
+        return divide(Math.multiplyExact(amount, basisPoints), BASIS_POINTS);
+    }
+
+    /**
+     * Division rounded to the nearest whole number, halves away from zero
+     *
+     * @param denominator Must be positive
+     */
+    public static long divide(long numerator, long denominator) {
+        long half = denominator / 2;
+        // Integer division in Java truncates towards zero, so add/subtract half first
+        return numerator >= 0 ? (numerator + half) / denominator : (numerator - half) / denominator;
+    }
+
+    /**
+     * @return A rate like 0.32 in basis points (3200)
+     */
+    public static long basisPoints(double rate) {
+        return Math.round(rate * BASIS_POINTS);
+    }
+
+    /**
+     * Formats centavos as pesos with two decimals, e.g. 1234567 -> "12345.67"
+     * (built by hand - String.format is slow in a loop over a big register)
+     */
+    public static String format(long centavos) {
+        long abs = Math.abs(centavos);
+        long cents = abs % CENTAVOS_PER_PESO;
+        StringBuilder text = new StringBuilder(20);
+        if (centavos < 0) {
+            text.append('-');
+        }
+        text.append(abs / CENTAVOS_PER_PESO).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+}
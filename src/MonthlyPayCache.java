@@ -0,0 +1,214 @@
+// MonthlyPayCache.java
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of one employee's pay for one calendar month, for the employee detail
+ * window. Working a month out means reading the month's attendance week by week
+ * (WeeklyAttendance) and running it through PayrollCalculator, which is quick but
+ * not free, and people tend to look at the same month a few times.
+ *
+ * Entries are keyed by employee ID and month. Each one remembers what it was
+ * worked out with, and is thrown away if any of it changes:
+ * - the hourly rate (a new rate in employees.csv)
+ * - the SSS schedule version and tax table for the month (edited rule files,
+ *   SssSchedule.reload())
+ * - that month's attendance rows (new punches for that month, an edited
+ *   attendance.csv). Punches for other months don't touch it.
+ * LISTENER can also be added to an AttendanceIngester to drop months as soon
+ * as new punches come in.
+ *
+ * Checking the attendance is cheap on a hit: stores never change, so if it's
+ * the same store (same generation) the rows are the same. Only when the store
+ * was replaced is the month's fingerprint worked out again (a walk over that
+ * employee's rows for the month, not the whole store). get(String, YearMonth)
+ * also goes through DataSnapshot.current(), which only looks at the csv files'
+ * sizes and dates unless they changed.
+ *
+ * Hits and misses are counted (getSummary()), to see whether the cache is
+ * actually saving any work.
+ */
+public class MonthlyPayCache {
+    // "employee ID|yyyy-MM" -> pay
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+
+    /**
+     * Drops the months touched by new punches
+     */
+    public static final AttendanceIngester.Listener LISTENER = (store, changedWeeks) -> {
+        for (Map.Entry<Integer, Set<LocalDate>> changed : changedWeeks.entrySet()) {
+            String employeeId = String.valueOf(changed.getKey());
+            for (LocalDate weekStart : changed.getValue()) {
+                // A week can run into the next month
+                invalidate(employeeId, YearMonth.from(weekStart));
+                invalidate(employeeId, YearMonth.from(weekStart.plusDays(6)));
+            }
+        }
+    };
+
+    private MonthlyPayCache() {
+    }
+
+    /**
+     * Gets an employee's pay for a month from employees.csv and attendance.csv
+     * (through the DataSnapshot), working it out only if it isn't cached or is out of date
+     *
+     * @param employeeId Employee # as in employees.csv
+     * @param month Month to pay
+     * @return The month's pay, or null if there's no such employee
+     * @throws IOException If the data files can't be read
+     */
+    public static PayPeriodRun.PeriodPay get(String employeeId, YearMonth month) throws IOException {
+        DataSnapshot data = DataSnapshot.current();
+        String[] row = data.findEmployeeRow(employeeId);
+        if (row == null) {
+            return null;
+        }
+        return get(FileHandler.toEmployee(row), data.getAttendance(), month);
+    }
+
+    /**
+     * Gets an employee's pay for a month, working it out only if needed
+     *
+     * @param employee Employee (hourly rate filled in)
+     * @param attendance Everyone's attendance
+     * @param month Month to pay
+     * @return The month's pay
+     */
+    public static PayPeriodRun.PeriodPay get(Employee employee, AttendanceStore attendance, YearMonth month) {
+        int employeeId;
+        try {
+            employeeId = Integer.parseInt(employee.getEmployeeNumber().trim());
+        } catch (NumberFormatException e) {
+            employeeId = -1; // no attendance can match a non-numeric ID
+        }
+        LocalDate start = month.atDay(1);
+        LocalDate end = month.atEndOfMonth();
+        double rate = employee.getHourlyRate();
+        PayrollCalculator calculator = PayrollCalculator.forDate(end);
+
+        String key = employee.getEmployeeNumber().trim() + "|" + month;
+        Entry entry = entries.get(key);
+        if (entry != null && entry.hourlyRate == rate && entry.sssVersion == calculator.getSssSchedule().getVersion()
+                && entry.taxTable == calculator.getTaxTable()) {
+            if (entry.attendanceGeneration == attendance.getGeneration()) {
+                hits.increment();
+                return entry.pay;
+            }
+            // A new store - the month may still have the same rows
+            long fingerprint = fingerprint(attendance, employeeId, start, end);
+            if (entry.attendanceFingerprint == fingerprint) {
+                hits.increment();
+                entries.put(key, new Entry(entry.pay, rate, calculator, attendance.getGeneration(), fingerprint));
+                return entry.pay;
+            }
+        }
+
+        misses.increment();
+        PayPeriodRun.PeriodPay pay = PayPeriodRun.payPeriod(employee, employeeId, attendance,
+                PayPeriodRun.Frequency.MONTHLY, start, end, calculator, new PayrollCalculator.SalaryDetails());
+        entries.put(key, new Entry(pay, rate, calculator, attendance.getGeneration(),
+                                   fingerprint(attendance, employeeId, start, end)));
+        return pay;
+    }
+
+    /**
+     * @return true if the month is cached (it may still turn out to be out of date)
+     */
+    public static boolean contains(String employeeId, YearMonth month) {
+        return entries.containsKey(employeeId.trim() + "|" + month);
+    }
+
+    /**
+     * Drops one employee's month
+     */
+    public static void invalidate(String employeeId, YearMonth month) {
+        entries.remove(employeeId.trim() + "|" + month);
+    }
+
+    /**
+     * Drops every month of one employee (e.g. after their rate was edited)
+     */
+    public static void invalidate(String employeeId) {
+        String prefix = employeeId.trim() + "|";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public static void clear() {
+        entries.clear();
+    }
+
+    public static int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Lookups answered from the cache
+     */
+    public static long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Lookups that had to work the month out (not cached, or out of date)
+     */
+    public static long getMissCount() {
+        return misses.sum();
+    }
+
+    public static void resetCounters() {
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * @return e.g. "12 months cached, 30 hits, 12 misses (71.4% hit rate)"
+     */
+    public static String getSummary() {
+        long hitCount = getHitCount();
+        long missCount = getMissCount();
+        long total = hitCount + missCount;
+        double rate = total == 0 ? 0.0 : hitCount * 100.0 / total;
+        return String.format("%d months cached, %d hits, %d misses (%.1f%% hit rate)", size(), hitCount,
+                missCount, rate);
+    }
+
+    // Row count plus a hash of every punch in the month, so any added, removed or edited row changes it
+    private static long fingerprint(AttendanceStore attendance, int employeeId, LocalDate start, LocalDate end) {
+        int first = attendance.firstRowOnOrAfter(employeeId, (int) start.toEpochDay());
+        int last = attendance.firstRowOnOrAfter(employeeId, (int) end.toEpochDay() + 1);
+        long hash = last - first;
+        for (int row = first; row < last; row++) {
+            hash = hash * 31 + attendance.getEpochDay(row);
+            hash = hash * 31 + attendance.getTimeIn(row);
+            hash = hash * 31 + attendance.getTimeOut(row);
+        }
+        return hash;
+    }
+
+    private static class Entry {
+        final PayPeriodRun.PeriodPay pay;
+        final double hourlyRate;
+        final int sssVersion;
+        final TaxTable taxTable;
+        final long attendanceGeneration;
+        final long attendanceFingerprint;
+
+        Entry(PayPeriodRun.PeriodPay pay, double hourlyRate, PayrollCalculator calculator,
+              long attendanceGeneration, long attendanceFingerprint) {
+            this.pay = pay;
+            this.hourlyRate = hourlyRate;
+            this.sssVersion = calculator.getSssSchedule().getVersion();
+            this.taxTable = calculator.getTaxTable();
+            this.attendanceGeneration = attendanceGeneration;
+            this.attendanceFingerprint = attendanceFingerprint;
+        }
+    }
+}
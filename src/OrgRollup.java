@@ -0,0 +1,307 @@
+// OrgRollup.java
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Hours, overtime, lateness and payroll cost added up for every supervisor's
+ * team and every department, from one payroll run.
+ *
+ * Team totals: each employee's numbers are laid out in OrgTree's depth-first
+ * order and turned into running totals with Arrays.parallelPrefix. Every team
+ * is a contiguous range in that order, so any supervisor's total is one
+ * subtraction - the whole hierarchy costs one (parallel) pass, not a scan per
+ * manager.
+ *
+ * Department totals: departments come from the position ("HR Team Leader" ->
+ * HR, "Account Rank and File" -> Account, any "Chief ..." -> Executive). The
+ * employees are split over the common fork-join pool, each piece adds up its
+ * own departments and the pieces are merged.
+ *
+ * Everything is kept in whole units (hundredths of an hour, minutes, centavos),
+ * so the totals don't depend on how the work was split.
+ */
+public class OrgRollup {
+    // Position endings that are the level, not the department
+    private static final String[] LEVELS = {" Rank and File", " Team Leader", " Manager", " Head"};
+
+    private static final int HOURS = 0;           // regular + overtime, hundredths
+    private static final int OVERTIME = 1;        // hundredths
+    private static final int LATE = 2;            // minutes
+    private static final int COST = 3;            // gross pay, centavos
+    private static final int METRICS = 4;
+
+    private final OrgTree tree;
+    private final long[][] runningTotals;         // [metric][position in depth-first order + 1]
+    private final List<String> departments;       // sorted
+    private final Map<String, Totals> byDepartment;
+
+    private OrgRollup(OrgTree tree, long[][] runningTotals, List<String> departments,
+                      Map<String, Totals> byDepartment) {
+        this.tree = tree;
+        this.runningTotals = runningTotals;
+        this.departments = departments;
+        this.byDepartment = byDepartment;
+    }
+
+    /**
+     * Adds up a payroll run over the org tree
+     *
+     * @param tree Who reports to whom
+     * @param payroll Payroll for the same employees (matched by employee #; anyone missing counts as 0)
+     * @return Team and department totals
+     */
+    public static OrgRollup of(OrgTree tree, PayrollRun payroll) {
+        int n = tree.size();
+        long[][] values = new long[METRICS][n];  // per employee, file order
+        for (PayrollRun.EmployeePay pay : payroll.getRegister()) {
+            int index = tree.indexOf(pay.getEmployeeNumber());
+            if (index < 0) {
+                continue;
+            }
+            values[HOURS][index] = Math.round((pay.getRegularHours() + pay.getOvertimeHours()) * 100.0);
+            values[OVERTIME][index] = Math.round(pay.getOvertimeHours() * 100.0);
+            values[LATE][index] = pay.getLateMinutes();
+            values[COST][index] = pay.getGrossCentavos();
+        }
+
+        // Depth-first order with a leading 0, then running totals
+        long[][] runningTotals = new long[METRICS][n + 1];
+        for (int metric = 0; metric < METRICS; metric++) {
+            long[] totals = runningTotals[metric];
+            for (int position = 0; position < n; position++) {
+                totals[position + 1] = values[metric][tree.getAt(position)];
+            }
+            Arrays.parallelPrefix(totals, Long::sum);
+        }
+
+        // Departments, split over the pool
+        String[] departmentOf = new String[n];
+        Map<String, Integer> slots = new HashMap<>();
+        List<String> departments = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            departmentOf[i] = departmentOf(tree.getPosition(i));
+            if (!slots.containsKey(departmentOf[i])) {
+                slots.put(departmentOf[i], slots.size());
+                departments.add(departmentOf[i]);
+            }
+        }
+        int[] slotOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            slotOf[i] = slots.get(departmentOf[i]);
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int leafSize = Math.max(1, n / (pool.getParallelism() * 8));
+        long[] sums = pool.invoke(new DepartmentTask(values, slotOf, slots.size(), 0, n, leafSize));
+
+        Map<String, Totals> byDepartment = new HashMap<>();
+        for (String department : departments) {
+            int slot = slots.get(department);
+            int at = slot * (METRICS + 1);
+            byDepartment.put(department, new Totals((int) sums[at + METRICS], sums[at + HOURS], sums[at + OVERTIME],
+                    sums[at + LATE], sums[at + COST]));
+        }
+        Collections.sort(departments);
+        return new OrgRollup(tree, runningTotals, Collections.unmodifiableList(departments), byDepartment);
+    }
+
+    /**
+     * "HR Team Leader" -> "HR", "Chief Finance Officer" -> "Executive",
+     * anything without a level word is its own department
+     */
+    static String departmentOf(String position) {
+        String trimmed = position == null ? "" : position.trim();
+        if (trimmed.isEmpty()) {
+            return "(none)";
+        }
+        if (trimmed.startsWith("Chief ")) {
+            return "Executive";
+        }
+        for (String level : LEVELS) {
+            if (trimmed.endsWith(level) && trimmed.length() > level.length()) {
+                return trimmed.substring(0, trimmed.length() - level.length());
+            }
+        }
+        return trimmed;
+    }
+
+    /**
+     * @return Totals for an employee and everyone under them
+     */
+    public Totals forTeam(int index) {
+        int from = tree.getEnter(index);
+        int to = tree.getExit(index);
+        return new Totals(to - from, range(HOURS, from, to), range(OVERTIME, from, to),
+                range(LATE, from, to), range(COST, from, to));
+    }
+
+    /**
+     * @return Totals for an employee's team, or null if there's no such employee
+     */
+    public Totals forTeam(String employeeId) {
+        int index = tree.indexOf(employeeId);
+        return index < 0 ? null : forTeam(index);
+    }
+
+    /**
+     * @return Totals for a department (see departmentOf), or null if nobody is in it
+     */
+    public Totals forDepartment(String department) {
+        return byDepartment.get(department);
+    }
+
+    /**
+     * @return Every department, sorted by name
+     */
+    public List<String> getDepartments() {
+        return departments;
+    }
+
+    /**
+     * @return Totals for the whole company
+     */
+    public Totals getCompanyTotals() {
+        int n = tree.size();
+        return new Totals(n, range(HOURS, 0, n), range(OVERTIME, 0, n), range(LATE, 0, n), range(COST, 0, n));
+    }
+
+    public OrgTree getTree() {
+        return tree;
+    }
+
+    private long range(int metric, int from, int to) {
+        return runningTotals[metric][to] - runningTotals[metric][from];
+    }
+
+    /**
+     * Prints every supervisor's team (indented by level) and then every department
+     */
+    public void printReport(PrintStream out) {
+        out.println("+--------------------------+");
+        out.println("|   TEAM AND DEPT TOTALS   |");
+        out.println("+--------------------------+");
+        out.printf("%-40s  %6s  %11s  %9s  %9s  %15s%n", "Supervisor (team)", "People", "Hours", "OT Hrs",
+                "Late Min", "Payroll Cost");
+        for (int position = 0; position < tree.size(); position++) {
+            int index = tree.getAt(position);
+            if (tree.getDirectReportCount(index) == 0) {
+                continue;  // only people with a team
+            }
+            String label = "  ".repeat(Math.min(tree.getDepth(index), 10)) + tree.getName(index);
+            printLine(out, label, forTeam(index));
+        }
+        out.println();
+        out.printf("%-40s  %6s  %11s  %9s  %9s  %15s%n", "Department", "People", "Hours", "OT Hrs",
+                "Late Min", "Payroll Cost");
+        for (String department : departments) {
+            printLine(out, department, byDepartment.get(department));
+        }
+        printLine(out, "Company", getCompanyTotals());
+        if (!tree.getUnmatchedSupervisors().isEmpty()) {
+            out.println("WARNING: " + tree.getUnmatchedSupervisors().size()
+                    + " supervisor name(s) didn't match anyone, e.g. " + tree.getUnmatchedSupervisors().get(0));
+        }
+    }
+
+    private static void printLine(PrintStream out, String label, Totals totals) {
+        out.printf("%-40.40s  %6d  %11.2f  %9.2f  %9d  %15.2f%n", label, totals.getPeople(), totals.getHours(),
+                totals.getOvertimeHours(), totals.getLateMinutes(), totals.getPayrollCost());
+    }
+
+    /**
+     * Adds up one piece of the employees per department:
+     * [slot * (METRICS + 1) + metric], with the head count last
+     */
+    private static class DepartmentTask extends RecursiveTask<long[]> {
+        private final long[][] values;
+        private final int[] slotOf;
+        private final int departmentCount;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        DepartmentTask(long[][] values, int[] slotOf, int departmentCount, int from, int to, int leafSize) {
+            this.values = values;
+            this.slotOf = slotOf;
+            this.departmentCount = departmentCount;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= leafSize) {
+                long[] sums = new long[departmentCount * (METRICS + 1)];
+                for (int i = from; i < to; i++) {
+                    int at = slotOf[i] * (METRICS + 1);
+                    for (int metric = 0; metric < METRICS; metric++) {
+                        sums[at + metric] += values[metric][i];
+                    }
+                    sums[at + METRICS]++;
+                }
+                return sums;
+            }
+            int mid = (from + to) >>> 1;
+            DepartmentTask left = new DepartmentTask(values, slotOf, departmentCount, from, mid, leafSize);
+            left.fork();
+            long[] right = new DepartmentTask(values, slotOf, departmentCount, mid, to, leafSize).compute();
+            long[] sums = left.join();
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += right[i];
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Totals for a team or department
+     */
+    public static class Totals {
+        private final int people;
+        private final long hoursHundredths;
+        private final long overtimeHundredths;
+        private final long lateMinutes;
+        private final long costCentavos;
+
+        Totals(int people, long hoursHundredths, long overtimeHundredths, long lateMinutes, long costCentavos) {
+            this.people = people;
+            this.hoursHundredths = hoursHundredths;
+            this.overtimeHundredths = overtimeHundredths;
+            this.lateMinutes = lateMinutes;
+            this.costCentavos = costCentavos;
+        }
+
+        public int getPeople() {
+            return people;
+        }
+
+        /**
+         * @return Regular plus overtime hours
+         */
+        public double getHours() {
+            return hoursHundredths / 100.0;
+        }
+
+        public double getOvertimeHours() {
+            return overtimeHundredths / 100.0;
+        }
+
+        public long getLateMinutes() {
+            return lateMinutes;
+        }
+
+        /**
+         * @return Gross pay, in pesos
+         */
+        public double getPayrollCost() {
+            return costCentavos / 100.0;
+        }
+    }
+}
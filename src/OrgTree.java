@@ -0,0 +1,291 @@
+// OrgTree.java
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Who reports to whom, from the "Immediate Supervisor" column of employees.csv
+ * (e.g. "Garcia, Manuel III" = last name, first name of another employee).
+ *
+ * Supervisor names are matched without spaces, commas or case, because the real
+ * file isn't consistent about them ("San, Jose Brad" is Brad San Jose, and some
+ * names have a trailing space). "N/A", blanks and names that don't match anyone
+ * make that employee a root; if two people share a name the first one wins.
+ * A supervisor loop (A under B under A) is broken by making one of them a root.
+ *
+ * Everyone is numbered in depth-first order, so each supervisor's whole team
+ * (everyone under them, any number of levels down) is one contiguous range of
+ * positions: [enter, exit). "Is X under Y" is two compares, and OrgRollup can
+ * total every subtree with running totals in that order.
+ */
+public class OrgTree {
+    private final String[] employeeIds;    // employees.csv order
+    private final String[] names;          // "Last, First"
+    private final String[] positions;
+    private final int[] supervisor;        // index of the supervisor, -1 for roots
+    private final int[] childStart;        // children of i are children[childStart[i] .. childStart[i + 1])
+    private final int[] children;
+    private final int[] order;             // employee indexes in depth-first order
+    private final int[] enter;             // position of each employee in order
+    private final int[] exit;              // one past the last position of their team
+    private final int[] depth;             // 0 for roots
+    private final Map<String, Integer> indexById;
+    private final List<String> unmatchedSupervisors;
+
+    private OrgTree(String[] employeeIds, String[] names, String[] positions, int[] supervisor,
+                    List<String> unmatchedSupervisors) {
+        int n = employeeIds.length;
+        this.employeeIds = employeeIds;
+        this.names = names;
+        this.positions = positions;
+        this.supervisor = supervisor;
+        this.unmatchedSupervisors = Collections.unmodifiableList(unmatchedSupervisors);
+
+        this.indexById = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            indexById.putIfAbsent(employeeIds[i], i);
+        }
+
+        // Children lists, packed into one array (counting sort by supervisor, file order kept)
+        this.childStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            if (supervisor[i] >= 0) {
+                childStart[supervisor[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        this.children = new int[childStart[n]];
+        int[] fill = Arrays.copyOf(childStart, n);
+        for (int i = 0; i < n; i++) {
+            if (supervisor[i] >= 0) {
+                children[fill[supervisor[i]]++] = i;
+            }
+        }
+
+        // Depth-first numbering without recursion (a long chain of supervisors can't overflow the stack)
+        this.order = new int[n];
+        this.enter = new int[n];
+        this.exit = new int[n];
+        this.depth = new int[n];
+        int[] stack = new int[n];
+        int[] nextChild = new int[n];
+        int position = 0;
+        for (int root = 0; root < n; root++) {
+            if (supervisor[root] >= 0) {
+                continue;
+            }
+            int top = 0;
+            stack[0] = root;
+            enter[root] = position;
+            order[position++] = root;
+            nextChild[root] = childStart[root];
+            while (top >= 0) {
+                int node = stack[top];
+                if (nextChild[node] < childStart[node + 1]) {
+                    int child = children[nextChild[node]++];
+                    depth[child] = depth[node] + 1;
+                    enter[child] = position;
+                    order[position++] = child;
+                    nextChild[child] = childStart[child];
+                    stack[++top] = child;
+                } else {
+                    exit[node] = position;
+                    top--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the tree from employees.csv rows (see DataSnapshot.getEmployeeRows)
+     *
+     * @param rows One String[19] per employee
+     * @return The tree
+     */
+    public static OrgTree build(List<String[]> rows) {
+        int n = rows.size();
+        String[] employeeIds = new String[n];
+        String[] names = new String[n];
+        String[] positions = new String[n];
+        Map<String, Integer> byName = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            String[] row = rows.get(i);
+            employeeIds[i] = row[FileHandler.COL_EMPLOYEE_ID].trim();
+            names[i] = row[FileHandler.COL_LAST_NAME].trim() + ", " + row[FileHandler.COL_FIRST_NAME].trim();
+            positions[i] = row[FileHandler.COL_POSITION] == null ? "" : row[FileHandler.COL_POSITION].trim();
+            byName.putIfAbsent(nameKey(row[FileHandler.COL_LAST_NAME] + row[FileHandler.COL_FIRST_NAME]), i);
+        }
+
+        int[] supervisor = new int[n];
+        List<String> unmatched = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            String name = rows.get(i)[FileHandler.COL_SUPERVISOR];
+            String key = name == null ? "" : nameKey(name);
+            Integer boss = key.isEmpty() || key.equals("n/a") ? null : byName.get(key);
+            if (boss == null && !key.isEmpty() && !key.equals("n/a")) {
+                unmatched.add(name.trim());
+            }
+            supervisor[i] = boss == null || boss == i ? -1 : boss;
+        }
+        breakLoops(supervisor);
+        return new OrgTree(employeeIds, names, positions, supervisor, unmatched);
+    }
+
+    // "San, Jose Brad" and "San Jose, Brad " -> "sanjosebrad"
+    static String nameKey(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != ',' && !Character.isWhitespace(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    // Follows each chain up; anyone who leads back into their own chain loses their supervisor
+    private static void breakLoops(int[] supervisor) {
+        int n = supervisor.length;
+        byte[] state = new byte[n];  // 0 = not seen, 1 = on the current chain, 2 = done
+        for (int start = 0; start < n; start++) {
+            int node = start;
+            while (node >= 0 && state[node] == 0) {
+                state[node] = 1;
+                int boss = supervisor[node];
+                if (boss >= 0 && state[boss] == 1) {
+                    supervisor[node] = -1;  // this link closes a loop
+                    boss = -1;
+                }
+                node = boss;
+            }
+            for (node = start; node >= 0 && state[node] == 1; node = supervisor[node]) {
+                state[node] = 2;
+            }
+        }
+    }
+
+    public int size() {
+        return employeeIds.length;
+    }
+
+    /**
+     * @return Index of an employee (employees.csv order), or -1 if there's no such employee
+     */
+    public int indexOf(String employeeId) {
+        Integer index = indexById.get(employeeId.trim());
+        return index == null ? -1 : index;
+    }
+
+    public String getEmployeeId(int index) {
+        return employeeIds[index];
+    }
+
+    /**
+     * @return "Last, First"
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public String getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * @return Index of the employee's supervisor, or -1 if they don't have one
+     */
+    public int getSupervisor(int index) {
+        return supervisor[index];
+    }
+
+    /**
+     * @return Indexes of the people reporting directly to an employee
+     */
+    public int[] getDirectReports(int index) {
+        return Arrays.copyOfRange(children, childStart[index], childStart[index + 1]);
+    }
+
+    public int getDirectReportCount(int index) {
+        return childStart[index + 1] - childStart[index];
+    }
+
+    /**
+     * @return 0 for people with no supervisor, 1 for their reports, ...
+     */
+    public int getDepth(int index) {
+        return depth[index];
+    }
+
+    /**
+     * @return Indexes of everyone with no supervisor, in file order
+     */
+    public List<Integer> getRoots() {
+        List<Integer> roots = new ArrayList<>();
+        for (int i = 0; i < supervisor.length; i++) {
+            if (supervisor[i] < 0) {
+                roots.add(i);
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * @return Size of the employee's team, themselves included
+     */
+    public int getTeamSize(int index) {
+        return exit[index] - enter[index];
+    }
+
+    /**
+     * @return true if employee is somewhere under manager (any number of levels down)
+     */
+    public boolean isUnder(int employee, int manager) {
+        return employee != manager && enter[manager] <= enter[employee] && enter[employee] < exit[manager];
+    }
+
+    /**
+     * Same as isUnder(int, int) with employee numbers (false if either one isn't in the file)
+     */
+    public boolean isUnder(String employeeId, String managerId) {
+        int employee = indexOf(employeeId);
+        int manager = indexOf(managerId);
+        return employee >= 0 && manager >= 0 && isUnder(employee, manager);
+    }
+
+    /**
+     * @return Indexes of everyone under an employee (not themselves), in depth-first order
+     */
+    public int[] getEveryoneUnder(int index) {
+        return Arrays.copyOfRange(order, enter[index] + 1, exit[index]);
+    }
+
+    /**
+     * @return Position of the employee in depth-first order; their team is [getEnter, getExit)
+     */
+    public int getEnter(int index) {
+        return enter[index];
+    }
+
+    public int getExit(int index) {
+        return exit[index];
+    }
+
+    /**
+     * @return Employee index at a position in depth-first order
+     */
+    public int getAt(int position) {
+        return order[position];
+    }
+
+    /**
+     * @return Supervisor names that didn't match anyone in the file (those employees are roots)
+     */
+    public List<String> getUnmatchedSupervisors() {
+        return unmatchedSupervisors;
+    }
+}
@@ -0,0 +1,431 @@
+// PayPeriodRun.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Payroll by calendar month or by half month (1st-15th and 16th-end), the way
+ * the "Gross Semi-monthly Rate" column in employees.csv says people are paid.
+ *
+ * PayrollRun takes SSS, PhilHealth, Pag-IBIG and tax every week as 1/4 of a
+ * monthly amount, so a month does the monthly lookups four or five times and
+ * the weekly pieces don't add up to the monthly amount. Here the hours and pay
+ * are added up week by week (weeks are cut at the period edges) and the
+ * deductions are worked out once per employee per period from the period's
+ * gross (PayrollCalculator.calculatePeriodSalaryDetails).
+ *
+ * Employees are paid in parallel on the common fork-join pool, like PayrollRun.
+ */
+public class PayPeriodRun {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    /**
+     * How often people are paid
+     */
+    public enum Frequency {
+        MONTHLY(1),
+        SEMI_MONTHLY(2);
+
+        private final int periodsPerMonth;
+
+        Frequency(int periodsPerMonth) {
+            this.periodsPerMonth = periodsPerMonth;
+        }
+
+        public int getPeriodsPerMonth() {
+            return periodsPerMonth;
+        }
+    }
+
+    private final Frequency frequency;
+    private final LocalDate[] periodStarts;  // first day of every period in the run
+    private final LocalDate[] periodEnds;    // last day of every period (inclusive)
+    private final PeriodPay[] register;      // employee by employee, each with all their periods in order
+    private final long wallTimeNanos;
+    private final int parallelism;
+
+    private PayPeriodRun(Frequency frequency, LocalDate[] periodStarts, LocalDate[] periodEnds,
+                         PeriodPay[] register, long wallTimeNanos, int parallelism) {
+        this.frequency = frequency;
+        this.periodStarts = periodStarts;
+        this.periodEnds = periodEnds;
+        this.register = register;
+        this.wallTimeNanos = wallTimeNanos;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs payroll for everyone in employees.csv using attendance.csv
+     * (through the DataSnapshot)
+     *
+     * @param frequency Monthly or semi-monthly
+     * @param from Any day in the first period
+     * @param to Any day in the last period
+     * @return The register and timing
+     * @throws IOException If the data files can't be read
+     */
+    public static PayPeriodRun run(Frequency frequency, LocalDate from, LocalDate to) throws IOException {
+        DataSnapshot data = DataSnapshot.current();
+        return run(data.getEmployees(), data.getAttendance(), frequency, from, to);
+    }
+
+    /**
+     * Runs payroll for every whole period from the one containing "from" to the
+     * one containing "to"
+     *
+     * @param employees Employees to pay (hourly rates filled in)
+     * @param attendance Everyone's attendance
+     * @param frequency Monthly or semi-monthly
+     * @param from Any day in the first period
+     * @param to Any day in the last period
+     * @return The register and timing
+     */
+    public static PayPeriodRun run(List<Employee> employees, AttendanceStore attendance, Frequency frequency,
+                                   LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Pay periods end before they start: " + from + " to " + to);
+        }
+        long start = System.nanoTime();
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate day = periodStart(frequency, from); !day.isAfter(to); day = periodEnd(frequency, day).plusDays(1)) {
+            starts.add(day);
+        }
+        LocalDate[] periodStarts = starts.toArray(new LocalDate[0]);
+        LocalDate[] periodEnds = new LocalDate[periodStarts.length];
+        for (int i = 0; i < periodStarts.length; i++) {
+            periodEnds[i] = periodEnd(frequency, periodStarts[i]);
+        }
+
+        Employee[] list = employees.toArray(new Employee[0]);
+        PeriodPay[] register = new PeriodPay[list.length * periodStarts.length];
+        int periods = periodStarts.length;
+        int parallelism = EmployeeRanges.forEach(list.length, (first, last) -> {
+            PayrollCalculator[] calculators = new PayrollCalculator[periods];
+            for (int p = 0; p < periods; p++) {
+                // SSS and tax tables in effect at the end of each period
+                calculators[p] = PayrollCalculator.forDate(periodEnds[p]);
+            }
+            PayrollCalculator.SalaryDetails details = new PayrollCalculator.SalaryDetails();
+            for (int i = first; i < last; i++) {
+                int employeeId;
+                try {
+                    employeeId = Integer.parseInt(list[i].getEmployeeNumber().trim());
+                } catch (NumberFormatException e) {
+                    employeeId = -1; // no attendance can match a non-numeric ID
+                }
+                for (int p = 0; p < periods; p++) {
+                    register[i * periods + p] = payPeriod(list[i], employeeId, attendance, frequency,
+                            periodStarts[p], periodEnds[p], calculators[p], details);
+                }
+            }
+        });
+
+        return new PayPeriodRun(frequency, periodStarts, periodEnds, register, System.nanoTime() - start,
+                                parallelism);
+    }
+
+    /**
+     * @return First day of the period a date falls in (the 1st, or the 16th for the second half month)
+     */
+    public static LocalDate periodStart(Frequency frequency, LocalDate date) {
+        if (frequency == Frequency.SEMI_MONTHLY && date.getDayOfMonth() > 15) {
+            return date.withDayOfMonth(16);
+        }
+        return date.withDayOfMonth(1);
+    }
+
+    /**
+     * @return Last day of the period starting on periodStart (the 15th or the end of the month)
+     */
+    public static LocalDate periodEnd(Frequency frequency, LocalDate periodStart) {
+        if (frequency == Frequency.SEMI_MONTHLY && periodStart.getDayOfMonth() == 1) {
+            return periodStart.withDayOfMonth(15);
+        }
+        return periodStart.withDayOfMonth(periodStart.lengthOfMonth());
+    }
+
+    /**
+     * Pays one employee for one period: hours and pay are added up a week at a
+     * time (OT still depends on that week's lateness), deductions once at the end
+     */
+    static PeriodPay payPeriod(Employee employee, int employeeId, AttendanceStore attendance, Frequency frequency,
+                               LocalDate periodStart, LocalDate periodEnd, PayrollCalculator calculator,
+                               PayrollCalculator.SalaryDetails details) {
+        PeriodPay pay = new PeriodPay(employee, periodStart, periodEnd, frequency);
+        int fromDay = (int) periodStart.toEpochDay();
+        int toDay = (int) periodEnd.toEpochDay();
+        String id = String.valueOf(employeeId);
+        ShiftPolicy shift = ShiftPolicies.current().forEmployee(employee);
+        double rate = employee.getHourlyRate();
+        boolean periodLateness = false;
+        double regularPay = 0;
+        double overtimePay = 0;
+
+        // Monday-to-Sunday weeks, cut at the period edges
+        for (int weekStart = AttendanceIngester.weekStartDay(fromDay); weekStart <= toDay; weekStart += 7) {
+            int first = attendance.firstRowOnOrAfter(employeeId, Math.max(weekStart, fromDay));
+            int last = attendance.firstRowOnOrAfter(employeeId, Math.min(weekStart + 7, toDay + 1));
+            if (first == last) {
+                continue;
+            }
+            WeeklyAttendance week = new WeeklyAttendance(id, AttendanceStore.formatDate(weekStart),
+                                                         attendance, first, last, shift);
+            WeeklyAttendance.Summary summary = week.getSummary();  // one pass over the week
+            double regularHours = summary.getRegularHours();
+            double overtimeHours = summary.getOvertimeHours();
+            boolean late = summary.hasDeductibleLateness();
+            periodLateness |= late;
+            regularPay += regularHours * rate;
+            overtimePay += calculator.calculateOvertimePay(overtimeHours, rate, late);
+            pay.days += summary.getDays();
+            pay.invalidDays += summary.getInvalidDays();
+            pay.lateMinutes += summary.getLateMinutes();
+            pay.regularHours += regularHours;
+            pay.overtimeHours += overtimeHours;
+        }
+
+        pay.setDetails(calculator.calculatePeriodSalaryDetails(regularPay, overtimePay,
+                frequency.getPeriodsPerMonth(), periodLateness, details));
+        return pay;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getPeriodCount() {
+        return periodStarts.length;
+    }
+
+    public LocalDate getPeriodStart(int period) {
+        return periodStarts[period];
+    }
+
+    public LocalDate getPeriodEnd(int period) {
+        return periodEnds[period];
+    }
+
+    /**
+     * @return One line per employee per period (each employee's periods together, oldest first)
+     */
+    public List<PeriodPay> getRegister() {
+        return Collections.unmodifiableList(Arrays.asList(register));
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    public double getTotalGross() {
+        double total = 0;
+        for (PeriodPay pay : register) {
+            total += pay.gross;
+        }
+        return total;
+    }
+
+    public double getTotalNet() {
+        double total = 0;
+        for (PeriodPay pay : register) {
+            total += pay.net;
+        }
+        return total;
+    }
+
+    /**
+     * One-line timing report, handy for the console
+     */
+    public String getSummary() {
+        int employees = periodStarts.length > 0 ? register.length / periodStarts.length : 0;
+        return String.format("%s payroll %s to %s: %d employees x %d periods in %.1f ms (%d threads)",
+                frequency == Frequency.MONTHLY ? "Monthly" : "Semi-monthly",
+                periodStarts.length > 0 ? periodStarts[0].format(DATE_FORMAT) : "-",
+                periodEnds.length > 0 ? periodEnds[periodEnds.length - 1].format(DATE_FORMAT) : "-",
+                employees, periodStarts.length, getWallTimeMillis(), parallelism);
+    }
+
+    /**
+     * Prints the register as a table, one block per period
+     */
+    public void printRegister(PrintStream out) {
+        out.println("+--------------------------+");
+        out.println("|   PAY PERIOD REGISTER    |");
+        out.println("+--------------------------+");
+        int periods = periodStarts.length;
+        for (int p = 0; p < periods; p++) {
+            out.println();
+            out.println("Period: " + periodStarts[p].format(DATE_FORMAT) + " to " + periodEnds[p].format(DATE_FORMAT));
+            out.printf("%-8s  %-26s  %5s  %8s  %7s  %11s  %11s  %9s  %9s  %9s  %9s  %11s\n", "Emp #", "Name",
+                    "Days", "Reg Hrs", "OT Hrs", "Scheduled", "Gross", "SSS", "PhilHlth", "Pag-IBIG", "Tax", "Net");
+            for (int i = p; i < register.length; i += periods) {
+                PeriodPay pay = register[i];
+                out.printf("%-8s  %-26.26s  %5d  %8.2f  %7.2f  %11.2f  %11.2f  %9.2f  %9.2f  %9.2f  %9.2f  %11.2f%s\n",
+                        pay.employeeNumber, pay.name, pay.days, pay.regularHours, pay.overtimeHours,
+                        pay.scheduledPay, pay.gross, pay.sss, pay.philHealth, pay.pagIbig, pay.tax, pay.net,
+                        pay.invalidDays > 0 ? "  (" + pay.invalidDays + " unreadable days)" : "");
+            }
+        }
+        out.println();
+        out.printf("Total Gross: %.2f\n", getTotalGross());
+        out.printf("Total Net: %.2f\n", getTotalNet());
+        out.println(getSummary());
+    }
+
+    /**
+     * Writes the register to a csv file
+     */
+    public void writeRegister(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Employee #,Name,Period Start,Period End,Days,Regular Hours,Overtime Hours,Late Minutes,"
+                    + "Scheduled Pay,Regular Pay,Overtime Pay,Gross,SSS,PhilHealth,Pag-IBIG,Taxable,Tax,Net,"
+                    + "Unreadable Days");
+            writer.newLine();
+            for (PeriodPay pay : register) {
+                writer.write(FileHandler.toCsvLine(new String[] {
+                    pay.employeeNumber, pay.name, pay.periodStart.format(DATE_FORMAT), pay.periodEnd.format(DATE_FORMAT),
+                    String.valueOf(pay.days), money(pay.regularHours), money(pay.overtimeHours),
+                    String.valueOf(pay.lateMinutes), money(pay.scheduledPay), money(pay.regularPay),
+                    money(pay.overtimePay), money(pay.gross), money(pay.sss), money(pay.philHealth),
+                    money(pay.pagIbig), money(pay.taxable), money(pay.tax), money(pay.net),
+                    String.valueOf(pay.invalidDays)
+                }));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String money(double amount) {
+        return String.format("%.2f", amount);
+    }
+
+    /**
+     * One employee's pay for one period
+     */
+    public static class PeriodPay {
+        final String employeeNumber;
+        final String name;
+        final LocalDate periodStart;
+        final LocalDate periodEnd;
+        final double scheduledPay;   // semi-monthly rate (x2 for a month), for comparing with gross
+        int days;
+        int invalidDays;
+        int lateMinutes;
+        double regularHours;
+        double overtimeHours;
+        double regularPay;
+        double overtimePay;
+        double gross;
+        double sss;
+        double philHealth;
+        double pagIbig;
+        double taxable;
+        double tax;
+        double net;
+
+        PeriodPay(Employee employee, LocalDate periodStart, LocalDate periodEnd, Frequency frequency) {
+            this.employeeNumber = employee.getEmployeeNumber();
+            this.name = employee.getFullName();
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.scheduledPay = employee.getSemiMonthlyRate() * (frequency == Frequency.MONTHLY ? 2 : 1);
+        }
+
+        // Copies the period's calculatePeriodSalaryDetails() result
+        void setDetails(PayrollCalculator.SalaryDetails details) {
+            this.regularPay = details.getRegularPay();
+            this.overtimePay = details.getOvertimePay();
+            this.gross = details.getGross();
+            this.sss = details.getSss();
+            this.philHealth = details.getPhilHealth();
+            this.pagIbig = details.getPagIbig();
+            this.taxable = details.getTaxable();
+            this.tax = details.getTax();
+            this.net = details.getNet();
+        }
+
+        public String getEmployeeNumber() {
+            return employeeNumber;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+
+        public LocalDate getPeriodEnd() {
+            return periodEnd;
+        }
+
+        public double getScheduledPay() {
+            return scheduledPay;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public int getInvalidDays() {
+            return invalidDays;
+        }
+
+        public int getLateMinutes() {
+            return lateMinutes;
+        }
+
+        public double getRegularHours() {
+            return regularHours;
+        }
+
+        public double getOvertimeHours() {
+            return overtimeHours;
+        }
+
+        public double getRegularPay() {
+            return regularPay;
+        }
+
+        public double getOvertimePay() {
+            return overtimePay;
+        }
+
+        public double getGross() {
+            return gross;
+        }
+
+        public double getSss() {
+            return sss;
+        }
+
+        public double getPhilHealth() {
+            return philHealth;
+        }
+
+        public double getPagIbig() {
+            return pagIbig;
+        }
+
+        public double getTaxable() {
+            return taxable;
+        }
+
+        public double getTax() {
+            return tax;
+        }
+
+        public double getNet() {
+            return net;
+        }
+    }
+}
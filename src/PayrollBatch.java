@@ -0,0 +1,153 @@
+// PayrollBatch.java
+/**
+ * Pay inputs and results for many employees, kept as parallel primitive arrays.
+ *
+ * Row i is one employee (or one employee-week): regular hours, overtime hours,
+ * hourly rate and the lateness flag go in, and PayrollCalculator.calculateBatch()
+ * fills gross, SSS, PhilHealth, Pag-IBIG, taxable, tax and net for every row in
+ * a few straight loops. No objects are made per row, so the same batch can be
+ * cleared and refilled for every pay run without making garbage.
+ */
+public class PayrollBatch {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // Inputs
+    double[] regularHours;
+    double[] overtimeHours;
+    double[] hourlyRates;
+    boolean[] hasLateness;
+
+    // Results (filled by PayrollCalculator.calculateBatch)
+    double[] regularPay;
+    double[] overtimePay;
+    double[] gross;
+    double[] sss;
+    double[] philHealth;
+    double[] pagIbig;
+    double[] taxable;
+    double[] tax;
+    double[] net;
+
+    int size;
+
+    public PayrollBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PayrollBatch(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 16));
+    }
+
+    private void allocate(int capacity) {
+        regularHours = new double[capacity];
+        overtimeHours = new double[capacity];
+        hourlyRates = new double[capacity];
+        hasLateness = new boolean[capacity];
+        regularPay = new double[capacity];
+        overtimePay = new double[capacity];
+        gross = new double[capacity];
+        sss = new double[capacity];
+        philHealth = new double[capacity];
+        pagIbig = new double[capacity];
+        taxable = new double[capacity];
+        tax = new double[capacity];
+        net = new double[capacity];
+    }
+
+    /**
+     * Adds one row of inputs to the end of the batch
+     *
+     * @param regularHours Normal hours worked
+     * @param overtimeHours Extra hours
+     * @param hourlyRate Pay per hour
+     * @param hasLateness Whether the employee was late (same meaning as in calculateFullSalaryDetails)
+     * @return Index of the new row
+     */
+    public int add(double regularHours, double overtimeHours, double hourlyRate, boolean hasLateness) {
+        if (size == this.regularHours.length) {
+            grow(size + 1);
+        }
+        this.regularHours[size] = regularHours;
+        this.overtimeHours[size] = overtimeHours;
+        this.hourlyRates[size] = hourlyRate;
+        this.hasLateness[size] = hasLateness;
+        return size++;
+    }
+
+    // Only the inputs need copying, the results get recalculated anyway
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, regularHours.length + (regularHours.length >> 1));
+        double[] oldRegular = regularHours;
+        double[] oldOvertime = overtimeHours;
+        double[] oldRates = hourlyRates;
+        boolean[] oldLateness = hasLateness;
+        allocate(capacity);
+        System.arraycopy(oldRegular, 0, regularHours, 0, size);
+        System.arraycopy(oldOvertime, 0, overtimeHours, 0, size);
+        System.arraycopy(oldRates, 0, hourlyRates, 0, size);
+        System.arraycopy(oldLateness, 0, hasLateness, 0, size);
+    }
+
+    /**
+     * Empties the batch but keeps the arrays, so refilling it doesn't allocate
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getRegularHours(int row) {
+        return regularHours[row];
+    }
+
+    public double getOvertimeHours(int row) {
+        return overtimeHours[row];
+    }
+
+    public double getHourlyRate(int row) {
+        return hourlyRates[row];
+    }
+
+    public boolean hasLateness(int row) {
+        return hasLateness[row];
+    }
+
+    public double getRegularPay(int row) {
+        return regularPay[row];
+    }
+
+    public double getOvertimePay(int row) {
+        return overtimePay[row];
+    }
+
+    public double getGross(int row) {
+        return gross[row];
+    }
+
+    public double getSss(int row) {
+        return sss[row];
+    }
+
+    public double getPhilHealth(int row) {
+        return philHealth[row];
+    }
+
+    public double getPagIbig(int row) {
+        return pagIbig[row];
+    }
+
+    public double getTaxable(int row) {
+        return taxable[row];
+    }
+
+    public double getTax(int row) {
+        return tax[row];
+    }
+
+    public double getNet(int row) {
+        return net[row];
+    }
+}
@@ -1,4 +1,6 @@
 // PayrollCalculator.java
+import java.time.LocalDate;
+
 public class PayrollCalculator {
     // rates for deductions - these are from the MotorPH website
     private static final double PHILHEALTH_RATE = 0.03;       // 3% PhilHealth (total amount)
@@ -6,7 +8,7 @@ public class PayrollCalculator {
     private static final double PAGIBIG_RATE_LOWER = 0.01;    // 1% for lower salary
     private static final double PAGIBIG_RATE_UPPER = 0.02;    // 2% for higher salary
     private static final double PAGIBIG_MAX = 100.0;          // Max contribution is 100 pesos
-    public static final double LATE_PENALTY_RATE = 0.10; // penalty for tardiness 
+    public static final double LATE_PENALTY_RATE = 0.10; // penalty for tardiness (default, see latePenaltyRate)
     
     // PhilHealth stuff
     private static final double PHILHEALTH_MIN_SALARY = 10000.0;
@@ -17,36 +19,73 @@ public class PayrollCalculator {
     // Pag-IBIG threshold 
     private static final double PAGIBIG_THRESHOLD = 1500.0;
     
-    // Tax brackets monthly (From MotorPH website)
-    private static final double TAX_BRACKET_1 = 20832.0;   // no tax below this
-    private static final double TAX_BRACKET_2 = 33333.0;   // 20% over bracket 1
-    private static final double TAX_BRACKET_3 = 66667.0;   // 2,500 + 25% over bracket 2
-    private static final double TAX_BRACKET_4 = 166667.0;  // 10,833 + 30% over bracket 3
-    private static final double TAX_BRACKET_5 = 666667.0;  // 40,833.33 + 32% over bracket 4
-    
-    // tax rates 
-    private static final double TAX_RATE_1 = 0.0;
-    private static final double TAX_RATE_2 = 0.20;
-    private static final double TAX_RATE_3 = 0.25;
-    private static final double TAX_RATE_4 = 0.30;
-    private static final double TAX_RATE_5 = 0.32;
-    private static final double TAX_RATE_6 = 0.35;
-    
-    // fixed tax parts
-    private static final double TAX_FIXED_3 = 2500.0;
-    private static final double TAX_FIXED_4 = 10833.0;
-    private static final double TAX_FIXED_5 = 40833.33;
-    private static final double TAX_FIXED_6 = 200833.33;
-    
-    // OT is 1.25x
-    private static final double OVERTIME_MULTIPLIER = 1.25;
+    // OT is 1.25x (default, see overtimeMultiplier)
+    public static final double OVERTIME_MULTIPLIER = 1.25;
     
     // for late calculation
     private static final double MINUTES_PER_HOUR = 60.0;
     
+    // The same rules in centavos / basis points for the centavo path (see Money)
+    private static final long PHILHEALTH_RATE_BP = Money.basisPoints(PHILHEALTH_RATE);
+    private static final long PHILHEALTH_MIN_SALARY_CENTAVOS = Money.ofPesos(PHILHEALTH_MIN_SALARY);
+    private static final long PHILHEALTH_MAX_SALARY_CENTAVOS = Money.ofPesos(PHILHEALTH_MAX_SALARY);
+    private static final long PHILHEALTH_MIN_CONTRIBUTION_CENTAVOS = Money.ofPesos(PHILHEALTH_MIN_CONTRIBUTION);
+    private static final long PHILHEALTH_MAX_CONTRIBUTION_CENTAVOS = Money.ofPesos(PHILHEALTH_MAX_CONTRIBUTION);
+    private static final long PAGIBIG_THRESHOLD_CENTAVOS = Money.ofPesos(PAGIBIG_THRESHOLD);
+    private static final long PAGIBIG_RATE_LOWER_BP = Money.basisPoints(PAGIBIG_RATE_LOWER);
+    private static final long PAGIBIG_RATE_UPPER_BP = Money.basisPoints(PAGIBIG_RATE_UPPER);
+    private static final long PAGIBIG_MAX_CENTAVOS = Money.ofPesos(PAGIBIG_MAX);
+    
+    // SSS contribution table (see SssSchedule / data/sss_schedules.csv)
+    private final SssSchedule sssSchedule;
+    // Monthly tax brackets (see TaxTable / data/tax_tables.csv)
+    private final TaxTable taxTable;
+    // Company rules - normally the constants above, different for what-if runs (see PayrollSimulation)
+    private final double overtimeMultiplier;
+    private final double latePenaltyRate;
+    private final long overtimeMultiplierBp;  // overtimeMultiplier for the centavo path
+
+    /**
+     * Calculator using the newest SSS schedule and tax table
+     */
+    public PayrollCalculator() {
+        this(SssSchedule.latest(), TaxTable.latest());
+    }
+
+    /**
+     * Calculator using specific tables
+     */
+    public PayrollCalculator(SssSchedule sssSchedule, TaxTable taxTable) {
+        this(sssSchedule, taxTable, OVERTIME_MULTIPLIER, LATE_PENALTY_RATE);
+    }
+
+    /**
+     * Calculator with its own rules, e.g. to see what a 1.5x OT rate would have cost
+     *
+     * @param overtimeMultiplier OT pay per hour as a multiple of the hourly rate
+     * @param latePenaltyRate Penalty rate used by calculateLatePenalty
+     */
+    public PayrollCalculator(SssSchedule sssSchedule, TaxTable taxTable, double overtimeMultiplier,
+                             double latePenaltyRate) {
+        this.sssSchedule = sssSchedule;
+        this.taxTable = taxTable;
+        this.overtimeMultiplier = overtimeMultiplier;
+        this.latePenaltyRate = latePenaltyRate;
+        this.overtimeMultiplierBp = Money.basisPoints(overtimeMultiplier);
+    }
+
+    /**
+     * Calculator with the SSS schedule and tax table that apply on a pay date
+     */
+    public static PayrollCalculator forDate(LocalDate payDate) {
+        return new PayrollCalculator(SssSchedule.forDate(payDate), TaxTable.forDate(payDate));
+    }
+
     /**
      * Gets SSS contribution based on salary
      * Followed the table from SSS as per MotorPH website
+     * The table used to be a long if/else chain here, now it's looked up
+     * in SssSchedule (same numbers, loaded from data/sss_schedules.csv)
      * 
      * @param grossSalary Weekly gross salary
      * @return How much to contribute to SSS
@@ -54,53 +93,11 @@ public class PayrollCalculator {
     public double calculateSSS(double grossSalary) {
         // Make weekly into monthly (x4)
         double monthlySalary = grossSalary * 4; 
-        
-        // many conditions, maybe there's a better way to do this??
-        if (monthlySalary < 3250) return 135.00;
-        else if (monthlySalary < 3750) return 157.50;
-        else if (monthlySalary < 4250) return 180.00;
-        else if (monthlySalary < 4750) return 202.50;
-        else if (monthlySalary < 5250) return 225.00;
-        else if (monthlySalary < 5750) return 247.50;
-        else if (monthlySalary < 6250) return 270.00;
-        else if (monthlySalary < 6750) return 292.50;
-        else if (monthlySalary < 7250) return 315.00;
-        else if (monthlySalary < 7750) return 337.50;
-        else if (monthlySalary < 8250) return 360.00;
-        else if (monthlySalary < 8750) return 382.50;
-        else if (monthlySalary < 9250) return 405.00;
-        else if (monthlySalary < 9750) return 427.50;
-        else if (monthlySalary < 10250) return 450.00;
-        else if (monthlySalary < 10750) return 472.50;
-        else if (monthlySalary < 11250) return 495.00;
-        else if (monthlySalary < 11750) return 517.50;
-        else if (monthlySalary < 12250) return 540.00;
-        else if (monthlySalary < 12750) return 562.50;
-        else if (monthlySalary < 13250) return 585.00;
-        else if (monthlySalary < 13750) return 607.50;
-        else if (monthlySalary < 14250) return 630.00;
-        else if (monthlySalary < 14750) return 652.50;
-        else if (monthlySalary < 15250) return 675.00;
-        else if (monthlySalary < 15750) return 697.50;
-        else if (monthlySalary < 16250) return 720.00;
-        else if (monthlySalary < 16750) return 742.50;
-        else if (monthlySalary < 17250) return 765.00;
-        else if (monthlySalary < 17750) return 787.50;
-        else if (monthlySalary < 18250) return 810.00;
-        else if (monthlySalary < 18750) return 832.50;
-        else if (monthlySalary < 19250) return 855.00;
-        else if (monthlySalary < 19750) return 877.50;
-        else if (monthlySalary < 20250) return 900.00;
-        else if (monthlySalary < 20750) return 922.50;
-        else if (monthlySalary < 21250) return 945.00;
-        else if (monthlySalary < 21750) return 967.50;
-        else if (monthlySalary < 22250) return 990.00;
-        else if (monthlySalary < 22750) return 1012.50;
-        else if (monthlySalary < 23250) return 1035.00;
-        else if (monthlySalary < 23750) return 1057.50;
-        else if (monthlySalary < 24250) return 1080.00;
-        else if (monthlySalary < 24750) return 1102.50;
-        else return 1125.00; // max contribution 
+        return sssSchedule.contributionFor(monthlySalary);
+    }
+
+    public SssSchedule getSssSchedule() {
+        return sssSchedule;
     }
     
     /**
@@ -111,8 +108,17 @@ public class PayrollCalculator {
      */
     public double calculatePhilHealth(double grossSalary) {
         // Convert to monthly (x4) - hope this is right
-        double monthlySalary = grossSalary * 4;
-        
+        return monthlyPhilHealth(grossSalary * 4);
+    }
+
+    /**
+     * PhilHealth for a whole month's salary (calculatePhilHealth does weekly).
+     * Every double path goes through this one, so the rule only lives here.
+     * 
+     * @param monthlySalary Monthly salary before deductions
+     * @return Employee's PhilHealth contribution for the month
+     */
+    public static double monthlyPhilHealth(double monthlySalary) {
         double totalContribution;
         
         // PhilHealth rules:
@@ -139,8 +145,17 @@ public class PayrollCalculator {
      */
     public double calculatePagIbig(double grossSalary) {
         // Monthly estimate
-        double monthlySalary = grossSalary * 4;
-        
+        return monthlyPagIbig(grossSalary * 4);
+    }
+
+    /**
+     * Pag-IBIG for a whole month's salary (calculatePagIbig does weekly).
+     * Every double path goes through this one, so the rule only lives here.
+     * 
+     * @param monthlySalary Monthly salary
+     * @return Pag-IBIG contribution for the month
+     */
+    public static double monthlyPagIbig(double monthlySalary) {
         double contribution;
         
         if (monthlySalary <= PAGIBIG_THRESHOLD) {
@@ -157,6 +172,7 @@ public class PayrollCalculator {
     
     /**
      * Figures out how much tax to deduct
+     * The brackets are in TaxTable now (loaded from data/tax_tables.csv)
      * 
      * @param taxableIncome Income after other deductions
      * @return Tax amount
@@ -164,38 +180,48 @@ public class PayrollCalculator {
     public double calculateTax(double taxableIncome) {
         // Convert to monthly for tax brackets
         double monthlyTaxableIncome = taxableIncome * 4;
-        
-        // Find which bracket applies
-        double monthlyTax;
-        
-        if (monthlyTaxableIncome <= TAX_BRACKET_1) {
-            // No tax for low income
-            monthlyTax = 0.0;
-        } else if (monthlyTaxableIncome <= TAX_BRACKET_2) {
-            // 20% of amount over first bracket
-            monthlyTax = (monthlyTaxableIncome - TAX_BRACKET_1) * TAX_RATE_2;
-        } else if (monthlyTaxableIncome <= TAX_BRACKET_3) {
-            // Fixed amount + 25% of excess
-            monthlyTax = TAX_FIXED_3 + ((monthlyTaxableIncome - TAX_BRACKET_2) * TAX_RATE_3);
-        } else if (monthlyTaxableIncome <= TAX_BRACKET_4) {
-            // Fixed amount + 30% of excess
-            monthlyTax = TAX_FIXED_4 + ((monthlyTaxableIncome - TAX_BRACKET_3) * TAX_RATE_4);
-        } else if (monthlyTaxableIncome <= TAX_BRACKET_5) {
-            // Fixed amount + 32% of excess
-            monthlyTax = TAX_FIXED_5 + ((monthlyTaxableIncome - TAX_BRACKET_4) * TAX_RATE_5);
-        } else {
-            // Highest bracket
-            monthlyTax = TAX_FIXED_6 + ((monthlyTaxableIncome - TAX_BRACKET_5) * TAX_RATE_6);
-        }
+        double monthlyTax = taxTable.monthlyTax(monthlyTaxableIncome);
         
         // Back to weekly amount
         return monthlyTax / 4;
     }
+
+    /**
+     * Tax for a whole batch of weekly taxable incomes in one pass
+     * (same answer as calling calculateTax on each one)
+     * 
+     * @param taxableIncomes Weekly incomes after other deductions
+     * @param taxes Gets the weekly tax for each one (can be the same array)
+     * @param count How many to do
+     */
+    public void calculateTax(double[] taxableIncomes, double[] taxes, int count) {
+        for (int i = 0; i < count; i++) {
+            taxes[i] = taxableIncomes[i] * 4;
+        }
+        taxTable.monthlyTax(taxes, taxes, count);
+        for (int i = 0; i < count; i++) {
+            taxes[i] = taxes[i] / 4;
+        }
+    }
+
+    public TaxTable getTaxTable() {
+        return taxTable;
+    }
+
+    public double getOvertimeMultiplier() {
+        return overtimeMultiplier;
+    }
+
+    public double getLatePenaltyRate() {
+        return latePenaltyRate;
+    }
     
     /**
     * Calculates everything about a salary
     * This is the main function that our system uses
-    * Returns array with all the details we need
+    * Returns array with all the details we need:
+    * 0 gross, 1 SSS, 2 PhilHealth, 3 Pag-IBIG, 4 taxable, 5 tax, 6 net, 7 regular pay, 8 OT pay
+    * (new code should use the SalaryDetails version below instead of remembering these)
     * 
     * @param regularHours Normal hours worked
     * @param overtimeHours Extra hours
@@ -205,20 +231,31 @@ public class PayrollCalculator {
     * @return All the salary details in an array
     */
     public double[] calculateFullSalaryDetails(double regularHours, double overtimeHours, double hourlyRate, boolean hasLateness, boolean prorateDeductions) {
-        double[] details = new double[9]; // uses array
+        return calculateFullSalaryDetails(regularHours, overtimeHours, hourlyRate, hasLateness, prorateDeductions,
+                                          new SalaryDetails()).toArray();
+    }
 
+    /**
+    * Same as above but fills in a SalaryDetails the caller owns, so a loop over
+    * lots of employees can reuse one instead of getting a new array every time
+    * 
+    * @param details Where the results go (overwritten)
+    * @return details, for chaining
+    */
+    public SalaryDetails calculateFullSalaryDetails(double regularHours, double overtimeHours, double hourlyRate,
+                                                    boolean hasLateness, boolean prorateDeductions, SalaryDetails details) {
         // Regular pay calculation
         double regularPay = regularHours * hourlyRate;
 
         // OT pay - none if employee was late (company policy)
         double overtimePay = 0;
         if (!hasLateness && overtimeHours > 0) {
-            overtimePay = overtimeHours * hourlyRate * OVERTIME_MULTIPLIER;
+            overtimePay = overtimeHours * hourlyRate * overtimeMultiplier;
         }
 
         // Add them up for gross
         double grossSalary = regularPay + overtimePay;
-        details[0] = grossSalary;
+        details.gross = grossSalary;
 
         // Initializing these variables to zero before potentially calculating them later when called
         double sssContribution = 0;
@@ -226,26 +263,24 @@ public class PayrollCalculator {
         double pagibigContribution = 0;
 
         if (hasLateness) {
+            sssContribution = calculateSSS(grossSalary);
+            philhealthContribution = calculatePhilHealth(grossSalary);
+            pagibigContribution = calculatePagIbig(grossSalary);
             if (prorateDeductions) {
                 // Use 1/4 of monthly for weekly pay
-                sssContribution = calculateSSS(grossSalary) / 4;
-                philhealthContribution = calculatePhilHealth(grossSalary) / 4;
-                pagibigContribution = calculatePagIbig(grossSalary) / 4;
-            } else {
-                // Full deduction amount
-                sssContribution = calculateSSS(grossSalary);
-                philhealthContribution = calculatePhilHealth(grossSalary);
-                pagibigContribution = calculatePagIbig(grossSalary);
+                sssContribution = sssContribution / 4;
+                philhealthContribution = philhealthContribution / 4;
+                pagibigContribution = pagibigContribution / 4;
             }
         }
 
-        details[1] = sssContribution;
-        details[2] = philhealthContribution;
-        details[3] = pagibigContribution;
+        details.sss = sssContribution;
+        details.philHealth = philhealthContribution;
+        details.pagIbig = pagibigContribution;
 
         // Taxable income is what's left after contributions
         double taxableIncome = grossSalary - sssContribution - philhealthContribution - pagibigContribution;
-        details[4] = taxableIncome;
+        details.taxable = taxableIncome;
 
         // Tax calculation
         double tax = 0;
@@ -256,16 +291,271 @@ public class PayrollCalculator {
                 tax = calculateTax(taxableIncome); // full tax
             }
         }
-        details[5] = tax;
+        details.tax = tax;
 
         // Take-home pay
-        double netSalary = taxableIncome - tax;
-        details[6] = netSalary;
+        details.net = taxableIncome - tax;
 
         // Save these for the GUI display
-        details[7] = regularPay;
-        details[8] = overtimePay;
+        details.regularPay = regularPay;
+        details.overtimePay = overtimePay;
+
+        return details;
+    }
+
+    /**
+    * Payroll for a whole batch at once. Gives exactly the same numbers as calling
+    * calculateFullSalaryDetails on every row, but works in plain loops over the
+    * arrays, so nothing gets allocated however big the batch is (the array
+    * version makes a double[9] per call) and the JIT gets simple loops to optimize.
+    * 
+    * @param batch Inputs to read and results to fill in
+    * @param prorateDeductions Prorate deductions to 1/4
+    */
+    public void calculateBatch(PayrollBatch batch, boolean prorateDeductions) {
+        int count = batch.size;
+        double[] regularHours = batch.regularHours;
+        double[] overtimeHours = batch.overtimeHours;
+        double[] rates = batch.hourlyRates;
+        boolean[] late = batch.hasLateness;
+        double[] regularPay = batch.regularPay;
+        double[] overtimePay = batch.overtimePay;
+        double[] gross = batch.gross;
+        double multiplier = overtimeMultiplier;
+        // Pass 1: regular and OT pay (OT only for people who weren't late), each worked out once
+        for (int i = 0; i < count; i++) {
+            regularPay[i] = regularHours[i] * rates[i];
+            overtimePay[i] = !late[i] && overtimeHours[i] > 0 ? overtimeHours[i] * rates[i] * multiplier : 0.0;
+            gross[i] = regularPay[i] + overtimePay[i];
+        }
+        calculateDeductions(late, count, prorateDeductions, gross, batch.sss, batch.philHealth, batch.pagIbig,
+                            batch.taxable, batch.tax, batch.net);
+    }
+
+    /**
+    * Same thing on arrays the caller owns. Row i of every array is one employee.
+    * The outputs must have room for count rows.
+    * 
+    * @param regularHours Normal hours worked
+    * @param overtimeHours Extra hours
+    * @param hourlyRates Pay per hour
+    * @param hasLateness Whether each employee was late
+    * @param count How many rows to do
+    * @param prorateDeductions Prorate deductions to 1/4
+    */
+    public void calculateBatch(double[] regularHours, double[] overtimeHours, double[] hourlyRates,
+                               boolean[] hasLateness, int count, boolean prorateDeductions,
+                               double[] gross, double[] sss, double[] philHealth, double[] pagIbig,
+                               double[] taxable, double[] tax, double[] net) {
+        double multiplier = overtimeMultiplier;
+
+        // Pass 1: gross pay (OT only for people who weren't late) - no calls or lookups,
+        // so the JIT can vectorize this one
+        for (int i = 0; i < count; i++) {
+            double overtimePay = !hasLateness[i] && overtimeHours[i] > 0
+                    ? overtimeHours[i] * hourlyRates[i] * multiplier : 0.0;
+            gross[i] = regularHours[i] * hourlyRates[i] + overtimePay;
+        }
+        calculateDeductions(hasLateness, count, prorateDeductions, gross, sss, philHealth, pagIbig,
+                            taxable, tax, net);
+    }
+
+    // Pass 2 of both batch versions: deductions and tax from the gross, only taken when
+    // late (same rule as the single version). One pass instead of one per column, so a
+    // big batch only goes through memory once more.
+    private void calculateDeductions(boolean[] hasLateness, int count, boolean prorateDeductions, double[] gross,
+                                     double[] sss, double[] philHealth, double[] pagIbig, double[] taxable,
+                                     double[] tax, double[] net) {
+        // Weekly share of the monthly amounts. x * 0.25 is exactly x / 4 (power of two),
+        // and a multiply is a lot cheaper than a divide in a tight loop
+        double share = prorateDeductions ? 0.25 : 1.0;
+        SssSchedule schedule = sssSchedule;
+        TaxTable table = taxTable;
+        for (int i = 0; i < count; i++) {
+            double grossSalary = gross[i];
+            double sssAmount = 0.0;
+            double philHealthAmount = 0.0;
+            double pagIbigAmount = 0.0;
+            double taxAmount = 0.0;
+            double taxableIncome = grossSalary;
+            if (hasLateness[i]) {
+                // Same helpers as the single version (small and static, so the JIT inlines them)
+                double monthlySalary = grossSalary * 4;
+                sssAmount = schedule.contributionFor(monthlySalary) * share;
+                philHealthAmount = monthlyPhilHealth(monthlySalary) * share;
+                pagIbigAmount = monthlyPagIbig(monthlySalary) * share;
+                taxableIncome = grossSalary - sssAmount - philHealthAmount - pagIbigAmount;
+                taxAmount = table.monthlyTax(taxableIncome * 4) / 4 * share;
+            }
+            sss[i] = sssAmount;
+            philHealth[i] = philHealthAmount;
+            pagIbig[i] = pagIbigAmount;
+            taxable[i] = taxableIncome;
+            tax[i] = taxAmount;
+            net[i] = taxableIncome - taxAmount;
+        }
+    }
+    
+    /*
+     * Centavo path - the same rules as above on long centavos (see Money), so
+     * every amount is rounded to the centavo exactly once and totals add up
+     * exactly. Weekly <-> monthly is still x4 and /4 like the double code.
+     */
+
+    /**
+     * @param grossCentavos Weekly gross in centavos
+     * @return SSS contribution in centavos
+     */
+    public long calculateSSSCentavos(long grossCentavos) {
+        return sssSchedule.contributionCentavosFor(grossCentavos * 4);
+    }
+
+    /**
+     * @param grossCentavos Weekly gross in centavos
+     * @return Employee's half of PhilHealth in centavos
+     */
+    public long calculatePhilHealthCentavos(long grossCentavos) {
+        long monthlySalary = grossCentavos * 4;
+        long totalContribution;
+        if (monthlySalary <= PHILHEALTH_MIN_SALARY_CENTAVOS) {
+            totalContribution = PHILHEALTH_MIN_CONTRIBUTION_CENTAVOS;
+        } else if (monthlySalary >= PHILHEALTH_MAX_SALARY_CENTAVOS) {
+            totalContribution = PHILHEALTH_MAX_CONTRIBUTION_CENTAVOS;
+        } else {
+            totalContribution = Money.percent(monthlySalary, PHILHEALTH_RATE_BP);
+        }
+        return Money.divide(totalContribution, 2);
+    }
+
+    /**
+     * @param grossCentavos Weekly gross in centavos
+     * @return Pag-IBIG contribution in centavos
+     */
+    public long calculatePagIbigCentavos(long grossCentavos) {
+        long monthlySalary = grossCentavos * 4;
+        long rate = monthlySalary <= PAGIBIG_THRESHOLD_CENTAVOS ? PAGIBIG_RATE_LOWER_BP : PAGIBIG_RATE_UPPER_BP;
+        return Math.min(Money.percent(monthlySalary, rate), PAGIBIG_MAX_CENTAVOS);
+    }
+
+    /**
+     * @param taxableCentavos Weekly taxable income in centavos
+     * @return Weekly tax in centavos
+     */
+    public long calculateTaxCentavos(long taxableCentavos) {
+        return Money.divide(taxTable.monthlyTaxCentavos(taxableCentavos * 4), 4);
+    }
+
+    /**
+    * calculateFullSalaryDetails in centavos. Hours come in hundredths (7.83 h = 783)
+    * since WeeklyAttendance already rounds them to 2 decimals.
+    * Nothing is allocated - the results go into the caller's CentavoDetails.
+    * 
+    * @param regularHundredths Normal hours worked, in hundredths of an hour
+    * @param overtimeHundredths Extra hours, in hundredths of an hour
+    * @param hourlyRateCentavos Pay per hour in centavos
+    * @param hasLateness Check if employee has late
+    * @param prorateDeductions Prorate deductions to 1/4
+    * @param details Where the results go (overwritten)
+    * @return details, for chaining
+    */
+    public CentavoDetails calculateFullSalaryCentavos(long regularHundredths, long overtimeHundredths,
+                                                      long hourlyRateCentavos, boolean hasLateness,
+                                                      boolean prorateDeductions, CentavoDetails details) {
+        long regularPay = Money.multiply(hourlyRateCentavos, regularHundredths, 100);
+        long overtimePay = 0;
+        if (!hasLateness && overtimeHundredths > 0) {
+            // rate x hours x 1.25 in one step, so it's only rounded once
+            overtimePay = Money.multiply(hourlyRateCentavos, overtimeHundredths * overtimeMultiplierBp,
+                                         100 * Money.BASIS_POINTS);
+        }
+        long gross = regularPay + overtimePay;
+
+        long sss = 0;
+        long philHealth = 0;
+        long pagIbig = 0;
+        if (hasLateness) {
+            sss = calculateSSSCentavos(gross);
+            philHealth = calculatePhilHealthCentavos(gross);
+            pagIbig = calculatePagIbigCentavos(gross);
+            if (prorateDeductions) {
+                sss = Money.divide(sss, 4);
+                philHealth = Money.divide(philHealth, 4);
+                pagIbig = Money.divide(pagIbig, 4);
+            }
+        }
+        long taxable = gross - sss - philHealth - pagIbig;
+
+        long tax = 0;
+        if (hasLateness) {
+            tax = calculateTaxCentavos(taxable);
+            if (prorateDeductions) {
+                tax = Money.divide(tax, 4);
+            }
+        }
+
+        details.regularPay = regularPay;
+        details.overtimePay = overtimePay;
+        details.gross = gross;
+        details.sss = sss;
+        details.philHealth = philHealth;
+        details.pagIbig = pagIbig;
+        details.taxable = taxable;
+        details.tax = tax;
+        details.net = taxable - tax;
+        return details;
+    }
+    
+    /**
+    * OT pay for some overtime hours - none if the employee was late (company policy)
+    */
+    public double calculateOvertimePay(double overtimeHours, double hourlyRate, boolean hasLateness) {
+        if (hasLateness || overtimeHours <= 0) {
+            return 0.0;
+        }
+        return overtimeHours * hourlyRate * overtimeMultiplier;
+    }
+
+    /**
+    * Deductions for a whole pay period at once, for PayPeriodRun. Instead of
+    * every week doing x4 / 4, the period's gross is turned into a monthly amount
+    * once, each deduction is looked up once, and the result is split back into
+    * the period (a month is 1 period, a semi-monthly period is 1/2 a month).
+    * Deductions are only taken when hasLateness is set, like the weekly version.
+    * 
+    * @param regularPay Regular pay earned in the period
+    * @param overtimePay OT pay earned in the period
+    * @param periodsPerMonth 1 for monthly pay, 2 for semi-monthly
+    * @param hasLateness Whether there was deductible lateness in the period
+    * @param details Where the results go (overwritten)
+    * @return details, for chaining
+    */
+    public SalaryDetails calculatePeriodSalaryDetails(double regularPay, double overtimePay, int periodsPerMonth,
+                                                      boolean hasLateness, SalaryDetails details) {
+        double grossSalary = regularPay + overtimePay;
+        double sssContribution = 0;
+        double philhealthContribution = 0;
+        double pagibigContribution = 0;
+        double tax = 0;
+        double taxableIncome = grossSalary;
+
+        if (hasLateness) {
+            double monthlySalary = grossSalary * periodsPerMonth;
+            sssContribution = sssSchedule.contributionFor(monthlySalary) / periodsPerMonth;
+            philhealthContribution = monthlyPhilHealth(monthlySalary) / periodsPerMonth;
+            pagibigContribution = monthlyPagIbig(monthlySalary) / periodsPerMonth;
+            taxableIncome = grossSalary - sssContribution - philhealthContribution - pagibigContribution;
+            tax = taxTable.monthlyTax(taxableIncome * periodsPerMonth) / periodsPerMonth;
+        }
 
+        details.regularPay = regularPay;
+        details.overtimePay = overtimePay;
+        details.gross = grossSalary;
+        details.sss = sssContribution;
+        details.philHealth = philhealthContribution;
+        details.pagIbig = pagibigContribution;
+        details.taxable = taxableIncome;
+        details.tax = tax;
+        details.net = taxableIncome - tax;
         return details;
     }
     
@@ -280,7 +570,7 @@ public class PayrollCalculator {
         if (lateMinutes <= 0) return 0.0; // not late = no penalty
 
         // Formula for penalty
-        double latePenaltyAmount = regularPay * LATE_PENALTY_RATE * (lateMinutes / 480.0); // 8 hour day = 480 mins
+        double latePenaltyAmount = regularPay * latePenaltyRate * (lateMinutes / 480.0); // 8 hour day = 480 mins
 
         // Max 20% of pay can be deducted
         return Math.min(latePenaltyAmount, regularPay * 0.20);
@@ -294,4 +584,114 @@ public class PayrollCalculator {
         // Just use the full method with defaults
         return calculateFullSalaryDetails(regularHours, overtimeHours, hourlyRate, false, false);
     }
+
+    /**
+     * Results of one calculateFullSalaryDetails call with names instead of
+     * array positions. Reusable - each call overwrites every field.
+     */
+    public static class SalaryDetails {
+        double gross;
+        double sss;
+        double philHealth;
+        double pagIbig;
+        double taxable;
+        double tax;
+        double net;
+        double regularPay;
+        double overtimePay;
+
+        public double getGross() {
+            return gross;
+        }
+
+        public double getSss() {
+            return sss;
+        }
+
+        public double getPhilHealth() {
+            return philHealth;
+        }
+
+        public double getPagIbig() {
+            return pagIbig;
+        }
+
+        public double getTaxable() {
+            return taxable;
+        }
+
+        public double getTax() {
+            return tax;
+        }
+
+        public double getNet() {
+            return net;
+        }
+
+        public double getRegularPay() {
+            return regularPay;
+        }
+
+        public double getOvertimePay() {
+            return overtimePay;
+        }
+
+        /**
+         * @return The old 9-slot array layout (0 gross ... 6 net, 7 regular pay, 8 OT pay)
+         */
+        public double[] toArray() {
+            return new double[] {gross, sss, philHealth, pagIbig, taxable, tax, net, regularPay, overtimePay};
+        }
+    }
+
+    /**
+     * Results of calculateFullSalaryCentavos, all in centavos. Reusable like SalaryDetails.
+     */
+    public static class CentavoDetails {
+        long gross;
+        long sss;
+        long philHealth;
+        long pagIbig;
+        long taxable;
+        long tax;
+        long net;
+        long regularPay;
+        long overtimePay;
+
+        public long getGross() {
+            return gross;
+        }
+
+        public long getSss() {
+            return sss;
+        }
+
+        public long getPhilHealth() {
+            return philHealth;
+        }
+
+        public long getPagIbig() {
+            return pagIbig;
+        }
+
+        public long getTaxable() {
+            return taxable;
+        }
+
+        public long getTax() {
+            return tax;
+        }
+
+        public long getNet() {
+            return net;
+        }
+
+        public long getRegularPay() {
+            return regularPay;
+        }
+
+        public long getOvertimePay() {
+            return overtimePay;
+        }
+    }
 }
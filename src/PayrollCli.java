@@ -0,0 +1,438 @@
+// PayrollCli.java
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs payroll from the command line, with no window: load the data, pay
+ * everyone for a period, write the register. For cron jobs and servers.
+ *
+ *   java -cp build/classes PayrollCli --from 2024-06-01 --to 2024-06-30 --out register.csv
+ *   java -jar dist/MotorPH-PayrollSystem.jar --batch --from 2024-06-01 --to 2024-06-30
+ *   java -cp build/classes PayrollCli --what-if --ot 1.5 --late-rate 0.15 --from 2024-01-01 --to 2024-06-30
+ *
+ * Options:
+ *   --from / --to <yyyy-MM-dd>    the period (both days included), required
+ *   --frequency <f>               weekly (default, PayrollRun), monthly or semi-monthly (PayPeriodRun)
+ *   --employees <file>            default employees.csv
+ *   --attendance <file>           default attendance.csv (read through the DataSnapshot)
+ *   --weekly-dir <folder>         read attendance_MM_DD_YYYY.txt files from a folder instead
+ *   --out <file>                  write the register csv there
+ *   --org-report <file>           also write the supervisor/department totals (OrgRollup) there
+ *   --timing json                 print the timing as one JSON object instead of key=value lines
+ *   --strict                      exit with 5 if any day couldn't be read
+ *   --what-if                     replay the period under other rules (PayrollSimulation) instead,
+ *                                 weekly only; --out gets the per-employee comparison
+ *   --ot <multiplier>             what-if OT multiplier (default 1.25)
+ *   --late-rate <rate>            what-if late penalty rate (default 0.10)
+ *   --tax-table <file>            what-if tax tables, in the data/tax_tables.csv format
+ *
+ * Everything on standard output is machine-readable: one key=value line per
+ * step (or a single JSON object), ending with status and exit code. Problems go
+ * to standard error.
+ *
+ * Exit codes: 0 done, 1 something unexpected went wrong, 2 bad arguments,
+ * 3 input files missing or unreadable, 4 the output couldn't be written,
+ * 5 (--strict only) some days had unreadable times.
+ *
+ * Nothing here touches Swing or AWT (Main only starts the GUI when it isn't
+ * given --batch), so no display is needed and no GUI classes get loaded.
+ * The JVM also starts faster with e.g. -XX:TieredStopAtLevel=1 for short runs,
+ * and on JDK 19+ -XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=payroll.jsa
+ * keeps the loaded classes in an archive for the next start.
+ */
+public class PayrollCli {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_INPUT = 3;
+    public static final int EXIT_OUTPUT = 4;
+    public static final int EXIT_UNREADABLE_DAYS = 5;
+
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Map<String, String> timing = new LinkedHashMap<>();
+    private boolean json;
+
+    PayrollCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the batch with standard output and error
+     *
+     * @param args Command line (see the class comment)
+     * @return Exit code
+     */
+    public static int run(String[] args) {
+        // Just in case something further down asks for a toolkit
+        System.setProperty("java.awt.headless", "true");
+        // The loaders print their warnings on standard error, so stdout only has the results
+        return new PayrollCli(System.out, System.err).execute(args);
+    }
+
+    int execute(String[] args) {
+        long mainStart = System.nanoTime();
+        // Time from the JVM starting until we got here (the JVM's own start time -
+        // ProcessHandle's start instant is only accurate to about a second on Linux)
+        put("startup_ms", String.valueOf(System.currentTimeMillis()
+                - ManagementFactory.getRuntimeMXBean().getStartTime()));
+
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            err.println("Usage: PayrollCli --from yyyy-MM-dd --to yyyy-MM-dd [--frequency weekly|monthly|semi-monthly]");
+            err.println("       [--employees file] [--attendance file | --weekly-dir folder] [--out file]");
+            err.println("       [--org-report file] [--timing json] [--strict]");
+            err.println("       [--what-if [--ot multiplier] [--late-rate rate] [--tax-table file]]");
+            return finish(EXIT_USAGE, mainStart);
+        }
+        json = options.json;
+
+        try {
+            // Ingest
+            long start = System.nanoTime();
+            if (options.taxTable != null) {
+                requireFile(options.taxTable);
+            }
+            List<Employee> employees;
+            List<String[]> employeeRows;
+            AttendanceStore attendance;
+            if (options.weeklyDir != null) {
+                requireFile(options.employees);
+                if (!Files.isDirectory(options.weeklyDir)) {
+                    throw new FileNotFoundException(options.weeklyDir + " is not a folder");
+                }
+                employeeRows = FileHandler.readEmployeeRows(options.employees.toString());
+                employees = new ArrayList<>(employeeRows.size());
+                for (String[] row : employeeRows) {
+                    employees.add(FileHandler.toEmployee(row));
+                }
+                WeeklyAttendanceFiles weeklyFiles = WeeklyAttendanceFiles.load(options.weeklyDir);
+                attendance = weeklyFiles.getStore();
+                // Loading only keeps the rejects in memory; a batch run is the place to write them out
+                AttendanceQuarantine quarantine = weeklyFiles.getQuarantine().save();
+                if (quarantine.getRejectedRowCount() > 0) {
+                    err.println("Attendance: " + quarantine.getSummary());
+                }
+                put("source", "weekly-files");
+            } else {
+                requireFile(options.employees);
+                requireFile(options.attendance);
+                DataSnapshot data = DataSnapshot.current(options.employees, options.attendance);
+                employeeRows = data.getEmployeeRows();
+                employees = data.getEmployees();
+                attendance = data.getAttendance();
+                put("source", data.isLoadedFromSnapshot() ? "snapshot" : "csv");
+            }
+            put("ingest_ms", millis(start));
+            put("employees", String.valueOf(employees.size()));
+            put("attendance_rows", String.valueOf(attendance.size()));
+
+            // Payroll
+            start = System.nanoTime();
+            PayrollRun weekly = null;
+            PayPeriodRun periods = null;
+            PayrollSimulation whatIf = null;
+            int unreadableDays = 0;
+            double gross;
+            double net;
+            if (options.whatIf) {
+                PayrollSimulation.Rules scenario = PayrollSimulation.scenario(options.overtimeMultiplier,
+                        options.latePenaltyRate, options.taxTable);
+                whatIf = PayrollSimulation.run(employees, attendance, options.from, options.to,
+                        PayrollSimulation.Rules.current(), scenario);
+                unreadableDays = whatIf.getInvalidDayCount();
+                gross = whatIf.getTotals(false)[0];
+                net = whatIf.getTotals(false)[4];
+            } else if (options.frequency == null) {
+                weekly = PayrollRun.run(employees, attendance, options.from, options.to);
+                unreadableDays = weekly.getInvalidDayCount();
+                gross = weekly.getTotalGross();
+                net = weekly.getTotalNet();
+            } else {
+                periods = PayPeriodRun.run(employees, attendance, options.frequency, options.from, options.to);
+                for (PayPeriodRun.PeriodPay pay : periods.getRegister()) {
+                    unreadableDays += pay.getInvalidDays();
+                }
+                gross = periods.getTotalGross();
+                net = periods.getTotalNet();
+            }
+            put("payroll_ms", millis(start));
+            if (whatIf != null) {
+                put("mode", "what-if");
+            }
+            put("frequency", options.frequency == null ? "weekly"
+                    : options.frequency.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            put("period_from", options.from.toString());
+            put("period_to", options.to.toString());
+            put("total_gross", String.format(Locale.ROOT, "%.2f", gross));
+            put("total_net", String.format(Locale.ROOT, "%.2f", net));
+            if (whatIf != null) {
+                // total_gross / total_net above are the baseline (today's rules)
+                double[] scenarioTotals = whatIf.getTotals(true);
+                put("scenario_gross", String.format(Locale.ROOT, "%.2f", scenarioTotals[0]));
+                put("scenario_net", String.format(Locale.ROOT, "%.2f", scenarioTotals[4]));
+                put("scenario_late_penalty", String.format(Locale.ROOT, "%.2f", scenarioTotals[3]));
+                put("net_difference", String.format(Locale.ROOT, "%.2f", scenarioTotals[4] - net));
+            }
+            put("unreadable_days", String.valueOf(unreadableDays));
+
+            // Export
+            start = System.nanoTime();
+            try {
+                if (options.out != null) {
+                    createParent(options.out);
+                    if (whatIf != null) {
+                        whatIf.writeRegister(options.out);
+                    } else if (weekly != null) {
+                        weekly.writeRegister(options.out);
+                    } else {
+                        periods.writeRegister(options.out);
+                    }
+                    put("register", options.out.toString());
+                }
+                if (options.orgReport != null) {
+                    // Team totals need the weekly register; for pay periods run it once over the same days
+                    PayrollRun forOrg = weekly != null ? weekly
+                            : PayrollRun.run(employees, attendance, options.from, options.to);
+                    OrgRollup rollup = OrgRollup.of(OrgTree.build(employeeRows), forOrg);
+                    createParent(options.orgReport);
+                    try (PrintStream report = new PrintStream(Files.newOutputStream(options.orgReport), false,
+                            "UTF-8")) {
+                        rollup.printReport(report);
+                    }
+                    put("org_report", options.orgReport.toString());
+                }
+            } catch (IOException e) {
+                err.println("Error: could not write output: " + e.getMessage());
+                return finish(EXIT_OUTPUT, mainStart);
+            }
+            put("export_ms", millis(start));
+
+            if (options.strict && unreadableDays > 0) {
+                err.println("Error: " + unreadableDays + " day(s) with unreadable times were not paid");
+                return finish(EXIT_UNREADABLE_DAYS, mainStart);
+            }
+            return finish(EXIT_OK, mainStart);
+        } catch (IOException e) {
+            err.println("Error: could not read input: " + e.getMessage());
+            return finish(EXIT_INPUT, mainStart);
+        } catch (RuntimeException e) {
+            err.println("Error: " + e);
+            return finish(EXIT_FAILED, mainStart);
+        }
+    }
+
+    private static void requireFile(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException(file + " not found");
+        }
+    }
+
+    private static void createParent(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    // Prints everything collected so far plus the outcome
+    private int finish(int exitCode, long mainStart) {
+        put("total_ms", millis(mainStart));
+        put("status", exitCode == EXIT_OK ? "ok" : "error");
+        put("exit_code", String.valueOf(exitCode));
+        if (json) {
+            StringBuilder line = new StringBuilder("{");
+            for (Map.Entry<String, String> entry : timing.entrySet()) {
+                if (line.length() > 1) {
+                    line.append(',');
+                }
+                line.append('"').append(entry.getKey()).append("\":");
+                if (isNumber(entry.getValue())) {
+                    line.append(entry.getValue());
+                } else {
+                    line.append('"').append(entry.getValue().replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+                }
+            }
+            out.println(line.append('}'));
+        } else {
+            for (Map.Entry<String, String> entry : timing.entrySet()) {
+                out.println(entry.getKey() + "=" + entry.getValue());
+            }
+        }
+        out.flush();
+        return exitCode;
+    }
+
+    private void put(String key, String value) {
+        timing.put(key, value);
+    }
+
+    private static String millis(long startNanos) {
+        return String.format(Locale.ROOT, "%.1f", (System.nanoTime() - startNanos) / 1e6);
+    }
+
+    private static boolean isNumber(String value) {
+        return value.matches("-?\\d+(\\.\\d+)?");
+    }
+
+    /**
+     * Parsed command line
+     */
+    static class Options {
+        LocalDate from;
+        LocalDate to;
+        PayPeriodRun.Frequency frequency;  // null = weekly (PayrollRun)
+        Path employees = Paths.get("employees.csv");
+        Path attendance = Paths.get("attendance.csv");
+        Path weeklyDir;
+        Path out;
+        Path orgReport;
+        boolean json;
+        boolean strict;
+        boolean whatIf;
+        double overtimeMultiplier = PayrollCalculator.OVERTIME_MULTIPLIER;  // what-if only
+        double latePenaltyRate = PayrollCalculator.LATE_PENALTY_RATE;       // what-if only
+        Path taxTable;                                                      // what-if only
+
+        /**
+         * @throws IllegalArgumentException If something is missing or can't be read
+         */
+        static Options parse(String[] args) {
+            Options options = new Options();
+            boolean scenarioRules = false;
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--batch":
+                        break;  // what Main was started with, nothing to do
+                    case "--from":
+                        options.from = date(arg, value(args, ++i, arg));
+                        break;
+                    case "--to":
+                        options.to = date(arg, value(args, ++i, arg));
+                        break;
+                    case "--frequency":
+                        options.frequency = frequency(value(args, ++i, arg));
+                        break;
+                    case "--employees":
+                        options.employees = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--attendance":
+                        options.attendance = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--weekly-dir":
+                        options.weeklyDir = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--out":
+                        options.out = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--org-report":
+                        options.orgReport = Paths.get(value(args, ++i, arg));
+                        break;
+                    case "--timing":
+                        String format = value(args, ++i, arg);
+                        if (!format.equals("json") && !format.equals("text")) {
+                            throw new IllegalArgumentException("--timing should be json or text");
+                        }
+                        options.json = format.equals("json");
+                        break;
+                    case "--strict":
+                        options.strict = true;
+                        break;
+                    case "--what-if":
+                        options.whatIf = true;
+                        break;
+                    case "--ot":
+                        options.overtimeMultiplier = rate(arg, value(args, ++i, arg));
+                        scenarioRules = true;
+                        break;
+                    case "--late-rate":
+                        options.latePenaltyRate = rate(arg, value(args, ++i, arg));
+                        scenarioRules = true;
+                        break;
+                    case "--tax-table":
+                        options.taxTable = Paths.get(value(args, ++i, arg));
+                        scenarioRules = true;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option " + arg);
+                }
+            }
+            if (options.from == null || options.to == null) {
+                throw new IllegalArgumentException("--from and --to are required");
+            }
+            if (options.to.isBefore(options.from)) {
+                throw new IllegalArgumentException("--to is before --from");
+            }
+            if (scenarioRules && !options.whatIf) {
+                throw new IllegalArgumentException("--ot, --late-rate and --tax-table only work with --what-if");
+            }
+            if (options.whatIf && options.frequency != null) {
+                throw new IllegalArgumentException("--what-if replays weekly pay, it can't take --frequency");
+            }
+            return options;
+        }
+
+        private static String value(String[] args, int i, String option) {
+            if (i >= args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            return args[i];
+        }
+
+        private static LocalDate date(String option, String text) {
+            try {
+                return LocalDate.parse(text);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(option + " should be yyyy-MM-dd, not " + text);
+            }
+        }
+
+        private static double rate(String option, String text) {
+            double rate;
+            try {
+                rate = Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(option + " should be a number, not " + text);
+            }
+            if (!(rate >= 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException(option + " can't be negative, not " + text);
+            }
+            return rate;
+        }
+
+        private static PayPeriodRun.Frequency frequency(String text) {
+            switch (text.toLowerCase(Locale.ROOT)) {
+                case "weekly":
+                    return null;
+                case "monthly":
+                    return PayPeriodRun.Frequency.MONTHLY;
+                case "semi-monthly":
+                case "semimonthly":
+                    return PayPeriodRun.Frequency.SEMI_MONTHLY;
+                default:
+                    throw new IllegalArgumentException("--frequency should be weekly, monthly or semi-monthly");
+            }
+        }
+    }
+}
@@ -0,0 +1,386 @@
+// PayrollRun.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Payroll for the whole company over one pay period.
+ *
+ * Every employee's attendance in the period is cut into Monday-to-Sunday weeks,
+ * each week goes through PayrollCalculator.calculateFullSalaryCentavos, and the
+ * weeks are added up into one register line. Everything in the register is kept
+ * in centavos (see Money), so each week's amounts are rounded once and the line
+ * and company totals add up exactly, in whatever order the threads finish.
+ * Employees are independent of each other, so they're split up over all cores
+ * on the common fork-join pool.
+ *
+ * The weeks read straight from the AttendanceStore (no TimeKeeping objects), and
+ * each worker only writes its own slots of the result array, so there's no locking.
+ */
+public class PayrollRun {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Weekly pay, so SSS/PhilHealth/Pag-IBIG and tax are taken at 1/4 of the monthly amount
+    private static final boolean PRORATE_WEEKLY_DEDUCTIONS = true;
+
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+    private final EmployeePay[] register;  // same order as the employee list
+    private final long wallTimeNanos;
+    private final int parallelism;
+
+    private PayrollRun(LocalDate periodStart, LocalDate periodEnd, EmployeePay[] register,
+                       long wallTimeNanos, int parallelism) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.register = register;
+        this.wallTimeNanos = wallTimeNanos;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs payroll for everyone in employees.csv using attendance.csv
+     * (through the DataSnapshot, so repeat runs skip the CSV parsing)
+     *
+     * @param from First day of the pay period
+     * @param to Last day of the pay period (inclusive)
+     * @return The register and timing
+     * @throws IOException If the data files can't be read
+     */
+    public static PayrollRun run(LocalDate from, LocalDate to) throws IOException {
+        DataSnapshot data = DataSnapshot.current();
+        return run(data.getEmployees(), data.getAttendance(), from, to);
+    }
+
+    /**
+     * Runs payroll for a list of employees over a period, in parallel
+     *
+     * @param employees Employees to pay (hourly rates filled in)
+     * @param attendance Everyone's attendance
+     * @param from First day of the pay period
+     * @param to Last day of the pay period (inclusive)
+     * @return The register (in the same order as employees) and timing
+     */
+    public static PayrollRun run(List<Employee> employees, AttendanceStore attendance, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Pay period ends before it starts: " + from + " to " + to);
+        }
+        long start = System.nanoTime();
+        Employee[] list = employees.toArray(new Employee[0]);
+        EmployeePay[] register = new EmployeePay[list.length];
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        int parallelism = EmployeeRanges.forEach(list.length, (first, last) -> {
+            // SSS and tax tables in effect at the end of the period
+            PayrollCalculator calculator = PayrollCalculator.forDate(to);
+            // One results holder for the whole piece instead of an array per week
+            PayrollCalculator.CentavoDetails details = new PayrollCalculator.CentavoDetails();
+            for (int i = first; i < last; i++) {
+                register[i] = payEmployee(list[i], attendance, fromDay, toDay, calculator, details);
+            }
+        });
+
+        return new PayrollRun(from, to, register, System.nanoTime() - start, parallelism);
+    }
+
+    /**
+     * Pays one employee for the period, week by week
+     */
+    static EmployeePay payEmployee(Employee employee, AttendanceStore attendance, int fromDay, int toDay,
+                                   PayrollCalculator calculator, PayrollCalculator.CentavoDetails details) {
+        EmployeePay pay = new EmployeePay(employee);
+        int employeeId;
+        try {
+            employeeId = Integer.parseInt(employee.getEmployeeNumber().trim());
+        } catch (NumberFormatException e) {
+            return pay; // no attendance can match a non-numeric ID
+        }
+        String id = String.valueOf(employeeId);
+        ShiftPolicy shift = ShiftPolicies.current().forEmployee(employee);
+        long rate = Money.ofPesos(employee.getHourlyRate());
+
+        // Weeks run Monday to Sunday, clipped to the period at both ends
+        for (int weekStart = AttendanceIngester.weekStartDay(fromDay); weekStart <= toDay; weekStart += 7) {
+            int first = attendance.firstRowOnOrAfter(employeeId, Math.max(weekStart, fromDay));
+            int last = attendance.firstRowOnOrAfter(employeeId, Math.min(weekStart + 7, toDay + 1));
+            if (first == last) {
+                continue;
+            }
+            WeeklyAttendance week = new WeeklyAttendance(id, AttendanceStore.formatDate(weekStart),
+                                                         attendance, first, last, shift);
+            WeeklyAttendance.Summary summary = week.getSummary();  // one pass over the week
+            double regularHours = summary.getRegularHours();
+            double overtimeHours = summary.getOvertimeHours();
+            // WeeklyAttendance already rounds hours to 2 decimals, so hundredths are exact
+            calculator.calculateFullSalaryCentavos(Money.hundredths(regularHours), Money.hundredths(overtimeHours),
+                    rate, summary.hasDeductibleLateness(), PRORATE_WEEKLY_DEDUCTIONS, details);
+            pay.addWeek(summary.getDays(), summary.getInvalidDays(), regularHours, overtimeHours,
+                        summary.getLateMinutes(), details);
+        }
+        return pay;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    /**
+     * @return One line per employee, in the order they were passed in
+     */
+    public List<EmployeePay> getRegister() {
+        return Collections.unmodifiableList(Arrays.asList(register));
+    }
+
+    public int getEmployeeCount() {
+        return register.length;
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return Employees paid per second of wall time (0 if the run was too fast to measure)
+     */
+    public double getEmployeesPerSecond() {
+        return wallTimeNanos > 0 ? register.length / (wallTimeNanos / 1_000_000_000.0) : 0.0;
+    }
+
+    public double getTotalGross() {
+        return Money.toPesos(getTotalGrossCentavos());
+    }
+
+    public double getTotalNet() {
+        return Money.toPesos(getTotalNetCentavos());
+    }
+
+    /**
+     * @return Everyone's gross added up exactly, in centavos
+     */
+    public long getTotalGrossCentavos() {
+        long total = 0;
+        for (EmployeePay pay : register) {
+            total += pay.gross;
+        }
+        return total;
+    }
+
+    /**
+     * @return Everyone's net added up exactly, in centavos
+     */
+    public long getTotalNetCentavos() {
+        long total = 0;
+        for (EmployeePay pay : register) {
+            total += pay.net;
+        }
+        return total;
+    }
+
+    /**
+     * Days across the whole run whose times couldn't be read (paid as 0 hours)
+     */
+    public int getInvalidDayCount() {
+        int total = 0;
+        for (EmployeePay pay : register) {
+            total += pay.invalidDays;
+        }
+        return total;
+    }
+
+    /**
+     * One-line timing report, handy for the console
+     */
+    public String getSummary() {
+        return String.format("Payroll %s to %s: %d employees in %.1f ms (%.0f employees/sec, %d threads)",
+                periodStart.format(DATE_FORMAT), periodEnd.format(DATE_FORMAT), register.length,
+                getWallTimeMillis(), getEmployeesPerSecond(), parallelism);
+    }
+
+    /**
+     * Prints the register as a table
+     */
+    public void printRegister(PrintStream out) {
+        out.println("+--------------------------+");
+        out.println("|     PAYROLL REGISTER     |");
+        out.println("+--------------------------+");
+        out.println("Period: " + periodStart.format(DATE_FORMAT) + " to " + periodEnd.format(DATE_FORMAT));
+        out.println();
+        out.printf("%-8s  %-26s  %5s  %8s  %7s  %11s  %9s  %9s  %9s  %9s  %11s\n",
+                "Emp #", "Name", "Days", "Reg Hrs", "OT Hrs", "Gross", "SSS", "PhilHlth", "Pag-IBIG", "Tax", "Net");
+        for (EmployeePay pay : register) {
+            out.printf("%-8s  %-26.26s  %5d  %8.2f  %7.2f  %11.2f  %9.2f  %9.2f  %9.2f  %9.2f  %11.2f%s\n",
+                    pay.employeeNumber, pay.name, pay.days, pay.regularHours, pay.overtimeHours, pay.getGross(),
+                    pay.getSss(), pay.getPhilHealth(), pay.getPagIbig(), pay.getTax(), pay.getNet(),
+                    pay.invalidDays > 0 ? "  (" + pay.invalidDays + " unreadable days)" : "");
+        }
+        out.println();
+        out.println("Total Gross: " + Money.format(getTotalGrossCentavos()));
+        out.println("Total Net: " + Money.format(getTotalNetCentavos()));
+        if (getInvalidDayCount() > 0) {
+            out.println("WARNING: " + getInvalidDayCount() + " day(s) with unreadable times not paid");
+        }
+        out.println(getSummary());
+    }
+
+    /**
+     * Writes the register to a csv file
+     */
+    public void writeRegister(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Employee #,Name,Days,Regular Hours,Overtime Hours,Late Minutes,Regular Pay,Overtime Pay,"
+                    + "Gross,SSS,PhilHealth,Pag-IBIG,Taxable,Tax,Net,Unreadable Days");
+            writer.newLine();
+            for (EmployeePay pay : register) {
+                writer.write(FileHandler.toCsvLine(new String[] {
+                    pay.employeeNumber, pay.name, String.valueOf(pay.days),
+                    hours(pay.regularHours), hours(pay.overtimeHours), String.valueOf(pay.lateMinutes),
+                    Money.format(pay.regularPay), Money.format(pay.overtimePay), Money.format(pay.gross),
+                    Money.format(pay.sss), Money.format(pay.philHealth), Money.format(pay.pagIbig),
+                    Money.format(pay.taxable), Money.format(pay.tax), Money.format(pay.net),
+                    String.valueOf(pay.invalidDays)
+                }));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String hours(double hours) {
+        return String.format("%.2f", hours);
+    }
+
+    /**
+     * One employee's line in the register (period totals, money in centavos)
+     */
+    public static class EmployeePay {
+        final String employeeNumber;
+        final String name;
+        int weeks;
+        int days;
+        int invalidDays;
+        int lateMinutes;
+        double regularHours;
+        double overtimeHours;
+        long regularPay;
+        long overtimePay;
+        long gross;
+        long sss;
+        long philHealth;
+        long pagIbig;
+        long taxable;
+        long tax;
+        long net;
+
+        EmployeePay(Employee employee) {
+            this.employeeNumber = employee.getEmployeeNumber();
+            this.name = employee.getFullName();
+        }
+
+        // Adds one week's calculateFullSalaryCentavos() result
+        void addWeek(int days, int invalidDays, double regularHours, double overtimeHours, int lateMinutes,
+                     PayrollCalculator.CentavoDetails details) {
+            this.weeks++;
+            this.days += days;
+            this.invalidDays += invalidDays;
+            this.lateMinutes += lateMinutes;
+            this.regularHours += regularHours;
+            this.overtimeHours += overtimeHours;
+            this.gross += details.getGross();
+            this.sss += details.getSss();
+            this.philHealth += details.getPhilHealth();
+            this.pagIbig += details.getPagIbig();
+            this.taxable += details.getTaxable();
+            this.tax += details.getTax();
+            this.net += details.getNet();
+            this.regularPay += details.getRegularPay();
+            this.overtimePay += details.getOvertimePay();
+        }
+
+        public String getEmployeeNumber() {
+            return employeeNumber;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeeks() {
+            return weeks;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public int getInvalidDays() {
+            return invalidDays;
+        }
+
+        public int getLateMinutes() {
+            return lateMinutes;
+        }
+
+        public double getRegularHours() {
+            return regularHours;
+        }
+
+        public double getOvertimeHours() {
+            return overtimeHours;
+        }
+
+        public double getRegularPay() {
+            return Money.toPesos(regularPay);
+        }
+
+        public double getOvertimePay() {
+            return Money.toPesos(overtimePay);
+        }
+
+        public double getGross() {
+            return Money.toPesos(gross);
+        }
+
+        public double getSss() {
+            return Money.toPesos(sss);
+        }
+
+        public double getPhilHealth() {
+            return Money.toPesos(philHealth);
+        }
+
+        public double getPagIbig() {
+            return Money.toPesos(pagIbig);
+        }
+
+        public double getTaxable() {
+            return Money.toPesos(taxable);
+        }
+
+        public double getTax() {
+            return Money.toPesos(tax);
+        }
+
+        public double getNet() {
+            return Money.toPesos(net);
+        }
+
+        public long getGrossCentavos() {
+            return gross;
+        }
+
+        public long getNetCentavos() {
+            return net;
+        }
+    }
+}
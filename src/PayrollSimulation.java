@@ -0,0 +1,492 @@
+// PayrollSimulation.java
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * "What if" payroll: replays the attendance history under a different set of
+ * rules (OT multiplier, late penalty rate, tax table) and compares it with the
+ * rules we actually use, employee by employee and for the whole company.
+ *
+ * Both sides run in the same pass. Each employee-week is read from the
+ * AttendanceStore and its hours worked out once, then it goes through the
+ * baseline calculator and the scenario calculator, so the replay costs about
+ * the same as one PayrollRun plus a second set of salary math. The data comes
+ * from the DataSnapshot, so nothing gets parsed again either. Employees are split
+ * over the common fork-join pool like PayrollRun.
+ *
+ * The SSS schedule and tax table can change in the middle of a long replay, so
+ * each week is paid (on both sides) with the ones in effect on the week's last
+ * day. A scenario's own tax tables are picked by date the same way. PayrollCli
+ * --what-if runs this from the command line.
+ *
+ * The baseline side uses the same rules as PayrollRun, but in doubles, so its
+ * totals can be a few centavos off the register's (which rounds every week).
+ * Late penalties aren't taken out of pay anywhere yet, so they're reported as
+ * their own column (calculateLatePenalty on each late week) instead of being
+ * mixed into net pay.
+ */
+public class PayrollSimulation {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Weekly pay, same as PayrollRun
+    private static final boolean PRORATE_WEEKLY_DEDUCTIONS = true;
+
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+    private final PayrollCalculator baseline;  // for the last week
+    private final PayrollCalculator scenario;  // for the last week
+    private final EmployeeDelta[] register;  // same order as the employee list
+    private final long wallTimeNanos;
+    private final int parallelism;
+
+    private PayrollSimulation(LocalDate periodStart, LocalDate periodEnd, PayrollCalculator baseline,
+                              PayrollCalculator scenario, EmployeeDelta[] register, long wallTimeNanos,
+                              int parallelism) {
+        this.periodStart = periodStart;
+        this.periodEnd = periodEnd;
+        this.baseline = baseline;
+        this.scenario = scenario;
+        this.register = register;
+        this.wallTimeNanos = wallTimeNanos;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Rules for a scenario: other OT / late penalty rates and optionally other tax brackets
+     *
+     * @param overtimeMultiplier OT multiplier to try (PayrollCalculator.OVERTIME_MULTIPLIER is today's)
+     * @param latePenaltyRate Late penalty rate to try (PayrollCalculator.LATE_PENALTY_RATE is today's)
+     * @param taxTableFile Tax tables csv in the data/tax_tables.csv format, or null for the current ones
+     * @return The scenario's rules
+     * @throws IOException If the tax table file can't be read
+     */
+    public static Rules scenario(double overtimeMultiplier, double latePenaltyRate, Path taxTableFile)
+            throws IOException {
+        return new Rules(overtimeMultiplier, latePenaltyRate,
+                         taxTableFile != null ? TaxTable.load(taxTableFile) : null);
+    }
+
+    /**
+     * Replays everyone in employees.csv over a period (through the DataSnapshot),
+     * with the current rules as the baseline
+     *
+     * @param from First day to replay
+     * @param to Last day to replay (inclusive)
+     * @param scenario Rules to try (see scenario())
+     * @return Both sides and the differences
+     * @throws IOException If the data files can't be read
+     */
+    public static PayrollSimulation run(LocalDate from, LocalDate to, Rules scenario) throws IOException {
+        DataSnapshot data = DataSnapshot.current();
+        return run(data.getEmployees(), data.getAttendance(), from, to, Rules.current(), scenario);
+    }
+
+    /**
+     * Replays a list of employees under two sets of rules, in parallel
+     *
+     * @param employees Employees to pay (hourly rates filled in)
+     * @param attendance Everyone's attendance
+     * @param from First day to replay
+     * @param to Last day to replay (inclusive)
+     * @param baseline The rules we have now (Rules.current())
+     * @param scenario The rules to try
+     * @return One line per employee (same order as employees) and timing
+     */
+    public static PayrollSimulation run(List<Employee> employees, AttendanceStore attendance, LocalDate from,
+                                        LocalDate to, Rules baseline, Rules scenario) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Period ends before it starts: " + from + " to " + to);
+        }
+        long start = System.nanoTime();
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+
+        // Calculators for every week, by the week's last day (clipped to the period)
+        int firstWeek = AttendanceIngester.weekStartDay(fromDay);
+        int weekCount = (toDay - firstWeek) / 7 + 1;
+        PayrollCalculator[] baselineWeeks = new PayrollCalculator[weekCount];
+        PayrollCalculator[] scenarioWeeks = new PayrollCalculator[weekCount];
+        for (int week = 0; week < weekCount; week++) {
+            LocalDate weekEnd = LocalDate.ofEpochDay(Math.min(firstWeek + week * 7 + 6, toDay));
+            baselineWeeks[week] = baseline.forDate(weekEnd);
+            scenarioWeeks[week] = scenario.forDate(weekEnd);
+        }
+
+        Employee[] list = employees.toArray(new Employee[0]);
+        EmployeeDelta[] register = new EmployeeDelta[list.length];
+        int parallelism = EmployeeRanges.forEach(list.length, (first, last) -> {
+            PayrollCalculator.SalaryDetails before = new PayrollCalculator.SalaryDetails();
+            PayrollCalculator.SalaryDetails after = new PayrollCalculator.SalaryDetails();
+            for (int i = first; i < last; i++) {
+                register[i] = simulateEmployee(list[i], attendance, fromDay, toDay,
+                                               baselineWeeks, scenarioWeeks, before, after);
+            }
+        });
+
+        return new PayrollSimulation(from, to, baselineWeeks[weekCount - 1], scenarioWeeks[weekCount - 1],
+                                     register, System.nanoTime() - start, parallelism);
+    }
+
+    /**
+     * Replays one employee week by week under both sets of rules
+     *
+     * @param baselineWeeks Baseline calculator for each week of the period
+     * @param scenarioWeeks Scenario calculator for each week of the period
+     */
+    static EmployeeDelta simulateEmployee(Employee employee, AttendanceStore attendance, int fromDay, int toDay,
+                                          PayrollCalculator[] baselineWeeks, PayrollCalculator[] scenarioWeeks,
+                                          PayrollCalculator.SalaryDetails before,
+                                          PayrollCalculator.SalaryDetails after) {
+        EmployeeDelta delta = new EmployeeDelta(employee);
+        int employeeId;
+        try {
+            employeeId = Integer.parseInt(employee.getEmployeeNumber().trim());
+        } catch (NumberFormatException e) {
+            return delta;
+        }
+        String id = String.valueOf(employeeId);
+        ShiftPolicy shift = ShiftPolicies.current().forEmployee(employee);
+        double rate = employee.getHourlyRate();
+
+        int firstWeek = AttendanceIngester.weekStartDay(fromDay);
+        for (int weekStart = firstWeek; weekStart <= toDay; weekStart += 7) {
+            int first = attendance.firstRowOnOrAfter(employeeId, Math.max(weekStart, fromDay));
+            int last = attendance.firstRowOnOrAfter(employeeId, Math.min(weekStart + 7, toDay + 1));
+            if (first == last) {
+                continue;
+            }
+            PayrollCalculator baseline = baselineWeeks[(weekStart - firstWeek) / 7];
+            PayrollCalculator scenario = scenarioWeeks[(weekStart - firstWeek) / 7];
+            // The week is read and its hours worked out once, for both sides
+            WeeklyAttendance week = new WeeklyAttendance(id, AttendanceStore.formatDate(weekStart),
+                                                         attendance, first, last, shift);
+            WeeklyAttendance.Summary summary = week.getSummary();
+            double regularHours = summary.getRegularHours();
+            double overtimeHours = summary.getOvertimeHours();
+            boolean late = summary.hasDeductibleLateness();
+            int lateMinutes = summary.getDeductibleLateMinutes();
+
+            baseline.calculateFullSalaryDetails(regularHours, overtimeHours, rate, late,
+                    PRORATE_WEEKLY_DEDUCTIONS, before);
+            scenario.calculateFullSalaryDetails(regularHours, overtimeHours, rate, late,
+                    PRORATE_WEEKLY_DEDUCTIONS, after);
+            delta.invalidDays += summary.getInvalidDays();
+            delta.addWeek(before, baseline.calculateLatePenalty(before.getRegularPay(), lateMinutes),
+                          after, scenario.calculateLatePenalty(after.getRegularPay(), lateMinutes));
+        }
+        return delta;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    /**
+     * @return Baseline calculator for the last week (earlier weeks may have used older tables)
+     */
+    public PayrollCalculator getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * @return Scenario calculator for the last week (earlier weeks may have used older tables)
+     */
+    public PayrollCalculator getScenario() {
+        return scenario;
+    }
+
+    /**
+     * @return One line per employee, in the order they were passed in
+     */
+    public List<EmployeeDelta> getRegister() {
+        return Collections.unmodifiableList(Arrays.asList(register));
+    }
+
+    public int getEmployeeCount() {
+        return register.length;
+    }
+
+    /**
+     * Employee-weeks replayed (each one was paid twice)
+     */
+    public int getWeekCount() {
+        int total = 0;
+        for (EmployeeDelta delta : register) {
+            total += delta.weeks;
+        }
+        return total;
+    }
+
+    /**
+     * Days across the whole replay whose times couldn't be read (paid as 0 hours on both sides)
+     */
+    public int getInvalidDayCount() {
+        int total = 0;
+        for (EmployeeDelta delta : register) {
+            total += delta.invalidDays;
+        }
+        return total;
+    }
+
+    public double getWallTimeMillis() {
+        return wallTimeNanos / 1_000_000.0;
+    }
+
+    /**
+     * Company-wide totals for one side: gross, deductions, tax, late penalty, net
+     *
+     * @param scenarioSide true for the scenario, false for the baseline
+     */
+    public double[] getTotals(boolean scenarioSide) {
+        double[] totals = new double[5];
+        for (EmployeeDelta delta : register) {
+            EmployeeDelta.Side side = scenarioSide ? delta.scenario : delta.baseline;
+            totals[0] += side.gross;
+            totals[1] += side.deductions;
+            totals[2] += side.tax;
+            totals[3] += side.latePenalty;
+            totals[4] += side.net;
+        }
+        return totals;
+    }
+
+    public double getTotalGrossDelta() {
+        return getTotals(true)[0] - getTotals(false)[0];
+    }
+
+    public double getTotalNetDelta() {
+        return getTotals(true)[4] - getTotals(false)[4];
+    }
+
+    /**
+     * One-line timing report for the console
+     */
+    public String getSummary() {
+        return String.format("What-if %s to %s: %d employees, %d weeks x 2 in %.1f ms (%d threads)",
+                periodStart.format(DATE_FORMAT), periodEnd.format(DATE_FORMAT), register.length,
+                getWeekCount(), getWallTimeMillis(), parallelism);
+    }
+
+    /**
+     * Prints the differences per employee and the company totals
+     */
+    public void printRegister(PrintStream out) {
+        out.println("+--------------------------+");
+        out.println("|    WHAT-IF COMPARISON    |");
+        out.println("+--------------------------+");
+        out.println("Period: " + periodStart.format(DATE_FORMAT) + " to " + periodEnd.format(DATE_FORMAT));
+        out.printf("Baseline: OT x%.2f, late penalty %.0f%%, tax table from %s\n", baseline.getOvertimeMultiplier(),
+                baseline.getLatePenaltyRate() * 100, baseline.getTaxTable().getEffectiveDate());
+        out.printf("Scenario: OT x%.2f, late penalty %.0f%%, tax table from %s\n", scenario.getOvertimeMultiplier(),
+                scenario.getLatePenaltyRate() * 100, scenario.getTaxTable().getEffectiveDate());
+        out.println();
+        out.printf("%-8s  %-26s  %11s  %11s  %10s  %10s  %10s  %11s\n",
+                "Emp #", "Name", "Base Gross", "Base Net", "Gross +/-", "Tax +/-", "Penalty +/-", "Net +/-");
+        for (EmployeeDelta delta : register) {
+            out.printf("%-8s  %-26.26s  %11.2f  %11.2f  %10.2f  %10.2f  %11.2f  %11.2f\n",
+                    delta.employeeNumber, delta.name, delta.baseline.gross, delta.baseline.net,
+                    delta.getGrossDelta(), delta.getTaxDelta(), delta.getLatePenaltyDelta(), delta.getNetDelta());
+        }
+
+        double[] before = getTotals(false);
+        double[] after = getTotals(true);
+        String[] labels = {"Gross", "Deductions", "Tax", "Late Penalty", "Net"};
+        out.println();
+        out.printf("%-14s  %14s  %14s  %14s\n", "Company", "Baseline", "Scenario", "Difference");
+        for (int i = 0; i < labels.length; i++) {
+            out.printf("%-14s  %14.2f  %14.2f  %14.2f\n", labels[i], before[i], after[i], after[i] - before[i]);
+        }
+        out.println(getSummary());
+    }
+
+    /**
+     * Writes both sides and the differences per employee to a csv file
+     */
+    public void writeRegister(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("Employee #,Name,Weeks,Baseline Gross,Scenario Gross,Gross Difference,"
+                    + "Baseline Deductions,Scenario Deductions,Baseline Tax,Scenario Tax,Tax Difference,"
+                    + "Baseline Late Penalty,Scenario Late Penalty,Baseline Net,Scenario Net,Net Difference");
+            writer.newLine();
+            for (EmployeeDelta delta : register) {
+                writer.write(FileHandler.toCsvLine(new String[] {
+                    delta.employeeNumber, delta.name, String.valueOf(delta.weeks),
+                    money(delta.baseline.gross), money(delta.scenario.gross), money(delta.getGrossDelta()),
+                    money(delta.baseline.deductions), money(delta.scenario.deductions),
+                    money(delta.baseline.tax), money(delta.scenario.tax), money(delta.getTaxDelta()),
+                    money(delta.baseline.latePenalty), money(delta.scenario.latePenalty),
+                    money(delta.baseline.net), money(delta.scenario.net), money(delta.getNetDelta())
+                }));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String money(double amount) {
+        return String.format("%.2f", amount);
+    }
+
+    /**
+     * One employee's totals under both rule sets
+     */
+    public static class EmployeeDelta {
+        final String employeeNumber;
+        final String name;
+        int weeks;
+        int invalidDays;
+        final Side baseline = new Side();
+        final Side scenario = new Side();
+
+        EmployeeDelta(Employee employee) {
+            this.employeeNumber = employee.getEmployeeNumber();
+            this.name = employee.getFullName();
+        }
+
+        // Adds one week from each calculator
+        void addWeek(PayrollCalculator.SalaryDetails before, double beforePenalty,
+                     PayrollCalculator.SalaryDetails after, double afterPenalty) {
+            weeks++;
+            baseline.add(before, beforePenalty);
+            scenario.add(after, afterPenalty);
+        }
+
+        public String getEmployeeNumber() {
+            return employeeNumber;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeeks() {
+            return weeks;
+        }
+
+        public int getInvalidDays() {
+            return invalidDays;
+        }
+
+        public Side getBaseline() {
+            return baseline;
+        }
+
+        public Side getScenario() {
+            return scenario;
+        }
+
+        public double getGrossDelta() {
+            return scenario.gross - baseline.gross;
+        }
+
+        public double getDeductionsDelta() {
+            return scenario.deductions - baseline.deductions;
+        }
+
+        public double getTaxDelta() {
+            return scenario.tax - baseline.tax;
+        }
+
+        public double getLatePenaltyDelta() {
+            return scenario.latePenalty - baseline.latePenalty;
+        }
+
+        public double getNetDelta() {
+            return scenario.net - baseline.net;
+        }
+
+        /**
+         * Period totals for one rule set
+         */
+        public static class Side {
+            double gross;
+            double deductions;   // SSS + PhilHealth + Pag-IBIG
+            double tax;
+            double latePenalty;  // not taken out of net (see the class comment)
+            double net;
+
+            void add(PayrollCalculator.SalaryDetails details, double penalty) {
+                gross += details.getGross();
+                deductions += details.getSss() + details.getPhilHealth() + details.getPagIbig();
+                tax += details.getTax();
+                latePenalty += penalty;
+                net += details.getNet();
+            }
+
+            public double getGross() {
+                return gross;
+            }
+
+            public double getDeductions() {
+                return deductions;
+            }
+
+            public double getTax() {
+                return tax;
+            }
+
+            public double getLatePenalty() {
+                return latePenalty;
+            }
+
+            public double getNet() {
+                return net;
+            }
+        }
+    }
+
+    /**
+     * One set of payroll rules. OT and late penalty rates stay the same for the
+     * whole replay; the SSS schedule and tax table depend on the date, so
+     * forDate() makes the calculator for each week.
+     */
+    public static class Rules {
+        private final double overtimeMultiplier;
+        private final double latePenaltyRate;
+        private final List<TaxTable> taxTables;  // oldest first; null = data/tax_tables.csv
+
+        /**
+         * @param taxTables Tax tables to pick from by date (oldest first), or null for data/tax_tables.csv
+         */
+        public Rules(double overtimeMultiplier, double latePenaltyRate, List<TaxTable> taxTables) {
+            this.overtimeMultiplier = overtimeMultiplier;
+            this.latePenaltyRate = latePenaltyRate;
+            this.taxTables = taxTables;
+        }
+
+        /**
+         * @return The rules we actually use
+         */
+        public static Rules current() {
+            return new Rules(PayrollCalculator.OVERTIME_MULTIPLIER, PayrollCalculator.LATE_PENALTY_RATE, null);
+        }
+
+        /**
+         * @return Calculator with these rules and the SSS schedule and tax table in effect on a date
+         */
+        public PayrollCalculator forDate(LocalDate date) {
+            TaxTable taxTable = taxTables != null ? TaxTable.forDate(taxTables, date) : TaxTable.forDate(date);
+            return new PayrollCalculator(SssSchedule.forDate(date), taxTable, overtimeMultiplier, latePenaltyRate);
+        }
+
+        public double getOvertimeMultiplier() {
+            return overtimeMultiplier;
+        }
+
+        public double getLatePenaltyRate() {
+            return latePenaltyRate;
+        }
+    }
+}
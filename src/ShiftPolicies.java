@@ -0,0 +1,187 @@
+// ShiftPolicies.java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which shift each employee works, from data/shift_policies.csv:
+ *
+ *   Applies To,Key,Name,Start,End,Grace Minutes,Breaks,Overtime After
+ *   default,,Day shift,8:00,17:00,10,12:00-13:00,17:00
+ *   position,Customer Service and Relations,Mid shift,10:00,19:00,10,14:00-15:00,
+ *   employee,10034,Early shift,6:00,15:00,5,10:00-10:15;12:00-12:45,16:00
+ *
+ * An employee's own row wins over their position's, and the default row covers
+ * everyone else. Breaks are separated by ';' and a blank "Overtime After" means
+ * the shift end.
+ *
+ * Every row is compiled into a ShiftPolicy once when the file loads. Rows with
+ * the same times share one ShiftPolicy object, so even with hundreds of
+ * assignments there's only one object per distinct shift.
+ */
+public class ShiftPolicies {
+    public static final String DEFAULT_FILE = "data/shift_policies.csv";
+
+    // Policies from DEFAULT_FILE, loaded on first use
+    // (volatile so payroll threads can read it without taking the lock every employee)
+    private static volatile ShiftPolicies current;
+
+    private final ShiftPolicy defaultPolicy;
+    private final Map<String, ShiftPolicy> byEmployee;  // employee # -> shift
+    private final Map<String, ShiftPolicy> byPosition;  // position (lower case) -> shift
+    private final int distinctCount;
+
+    private ShiftPolicies(ShiftPolicy defaultPolicy, Map<String, ShiftPolicy> byEmployee,
+                          Map<String, ShiftPolicy> byPosition, int distinctCount) {
+        this.defaultPolicy = defaultPolicy;
+        this.byEmployee = Collections.unmodifiableMap(byEmployee);
+        this.byPosition = Collections.unmodifiableMap(byPosition);
+        this.distinctCount = distinctCount;
+    }
+
+    /**
+     * Everyone on the default 8-to-5 shift
+     */
+    public static ShiftPolicies builtIn() {
+        return new ShiftPolicies(ShiftPolicy.DEFAULT, new HashMap<>(), new HashMap<>(), 1);
+    }
+
+    /**
+     * Reads the assignments from a csv file (see the class comment for the layout)
+     *
+     * @param file Shift policies csv
+     * @return The assignments
+     * @throws IOException If the file can't be read or a row doesn't make sense
+     */
+    public static ShiftPolicies load(Path file) throws IOException {
+        ShiftPolicy defaultPolicy = ShiftPolicy.DEFAULT;
+        Map<String, ShiftPolicy> byEmployee = new HashMap<>();
+        Map<String, ShiftPolicy> byPosition = new HashMap<>();
+        // Same rules -> same object (the built-in default is in there from the start)
+        Map<String, ShiftPolicy> compiled = new HashMap<>();
+        compiled.put(ShiftPolicy.DEFAULT.rulesKey(), ShiftPolicy.DEFAULT);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && line.startsWith("Applies"))) {
+                    continue;
+                }
+                String[] parts = FileHandler.parseCsvLine(line);
+                if (parts.length < 7) {
+                    throw new IOException(file + " line " + lineNumber + ": expected at least 7 columns");
+                }
+                ShiftPolicy policy;
+                try {
+                    policy = ShiftPolicy.compile(parts[2].trim(), parts[3], parts[4],
+                            Integer.parseInt(parts[5].trim()), parts[6], parts.length > 7 ? parts[7] : "");
+                } catch (IllegalArgumentException e) {
+                    // NumberFormatException is one of these too
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+                ShiftPolicy shared = compiled.putIfAbsent(policy.rulesKey(), policy);
+                if (shared != null) {
+                    policy = shared;
+                }
+
+                String appliesTo = parts[0].trim().toLowerCase();
+                String key = parts[1].trim();
+                switch (appliesTo) {
+                    case "default":
+                        defaultPolicy = policy;
+                        break;
+                    case "position":
+                        byPosition.put(key.toLowerCase(), policy);
+                        break;
+                    case "employee":
+                        byEmployee.put(key, policy);
+                        break;
+                    default:
+                        throw new IOException(file + " line " + lineNumber + ": '" + parts[0].trim()
+                                + "' should be default, position or employee");
+                }
+            }
+        }
+        return new ShiftPolicies(defaultPolicy, byEmployee, byPosition, compiled.size());
+    }
+
+    /**
+     * Policies from data/shift_policies.csv, read once. Falls back to everyone
+     * on the default shift if the file is missing or broken.
+     */
+    public static ShiftPolicies current() {
+        ShiftPolicies policies = current;
+        return policies != null ? policies : loadCurrent();
+    }
+
+    private static synchronized ShiftPolicies loadCurrent() {
+        if (current == null) {
+            Path file = Paths.get(DEFAULT_FILE);
+            ShiftPolicies loaded = null;
+            if (Files.exists(file)) {
+                try {
+                    loaded = load(file);
+                } catch (IOException e) {
+                    System.err.println("Error loading shift policies, using the default shift: " + e.getMessage());
+                }
+            }
+            current = loaded != null ? loaded : builtIn();
+        }
+        return current;
+    }
+
+    /**
+     * Forgets the loaded policies so the next lookup reads data/shift_policies.csv
+     * again, and drops the cached month pay worked out with the old ones
+     */
+    public static synchronized void reload() {
+        current = null;
+        MonthlyPayCache.clear();
+    }
+
+    /**
+     * @return The shift an employee works (their own, else their position's, else the default)
+     */
+    public ShiftPolicy forEmployee(Employee employee) {
+        return forEmployee(employee.getEmployeeNumber(), employee.getPosition());
+    }
+
+    /**
+     * @param employeeNumber Employee # as in employees.csv
+     * @param position Position as in employees.csv (may be null)
+     */
+    public ShiftPolicy forEmployee(String employeeNumber, String position) {
+        if (!byEmployee.isEmpty()) {
+            ShiftPolicy own = byEmployee.get(employeeNumber.trim());
+            if (own != null) {
+                return own;
+            }
+        }
+        if (!byPosition.isEmpty() && position != null) {
+            ShiftPolicy forPosition = byPosition.get(position.trim().toLowerCase());
+            if (forPosition != null) {
+                return forPosition;
+            }
+        }
+        return defaultPolicy;
+    }
+
+    public ShiftPolicy getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    /**
+     * @return Number of different shifts (assignments with the same times count once)
+     */
+    public int getDistinctPolicyCount() {
+        return distinctCount;
+    }
+}
@@ -0,0 +1,221 @@
+// ShiftPolicy.java
+import java.util.Arrays;
+
+/**
+ * One work shift: when it starts and ends, how long the grace period is, the
+ * break windows and when overtime starts counting.
+ *
+ * Everything is compiled into minutes since midnight when the policy is made,
+ * so the rules below are just int compares and subtractions - no parsing or
+ * LocalTime per record. Policies never change after they're made, so one
+ * object is shared by every record and employee on that shift (see
+ * ShiftPolicies, which hands out the same object for identical shifts).
+ *
+ * DEFAULT is the company schedule TimeKeeping always used: 8:00 to 17:00,
+ * grace until 8:10 (deductions from 8:11), lunch 12:00-13:00, overtime after 17:00.
+ */
+public class ShiftPolicy {
+    // Breaks only come off the total hours of a day longer than this (5 hours)
+    private static final int BREAK_AFTER_MINUTES = 5 * 60;
+
+    public static final ShiftPolicy DEFAULT = new ShiftPolicy("Default",
+            TimeKeeping.START_MINUTE, TimeKeeping.END_MINUTE,
+            TimeKeeping.GRACE_PERIOD_END_MINUTE - TimeKeeping.START_MINUTE,
+            new int[] {TimeKeeping.LUNCH_START_MINUTE}, new int[] {TimeKeeping.LUNCH_END_MINUTE},
+            TimeKeeping.END_MINUTE);
+
+    private final String name;
+    private final int startMinute;
+    private final int endMinute;
+    private final int graceEndMinute;        // last minute that still counts as on time
+    private final int deductionStartMinute;  // logging in after this is deductible lateness
+    private final int[] breakStarts;         // ascending, no overlaps
+    private final int[] breakEnds;
+    private final int breakMinutes;          // all breaks added up
+    private final int overtimeStartMinute;
+
+    /**
+     * @param name Name for reports (e.g. "Night shift")
+     * @param startMinute Shift start, minutes since midnight
+     * @param endMinute Shift end (same day, after the start)
+     * @param graceMinutes Minutes after the start that still count as on time
+     * @param breakStarts Start of each break window
+     * @param breakEnds End of each break window
+     * @param overtimeStartMinute Time out past this counts as overtime (usually the shift end)
+     */
+    public ShiftPolicy(String name, int startMinute, int endMinute, int graceMinutes,
+                       int[] breakStarts, int[] breakEnds, int overtimeStartMinute) {
+        if (startMinute < 0 || endMinute > 24 * 60 || endMinute <= startMinute) {
+            throw new IllegalArgumentException(name + ": shift has to start and end on the same day");
+        }
+        if (graceMinutes < 0) {
+            throw new IllegalArgumentException(name + ": grace period can't be negative");
+        }
+        if (breakStarts.length != breakEnds.length) {
+            throw new IllegalArgumentException(name + ": every break needs a start and an end");
+        }
+        if (overtimeStartMinute < endMinute) {
+            throw new IllegalArgumentException(name + ": overtime can't start before the shift ends");
+        }
+        int total = 0;
+        for (int i = 0; i < breakStarts.length; i++) {
+            if (breakEnds[i] <= breakStarts[i] || (i > 0 && breakStarts[i] < breakEnds[i - 1])) {
+                throw new IllegalArgumentException(name + ": breaks have to be in order and not overlap");
+            }
+            total += breakEnds[i] - breakStarts[i];
+        }
+        this.name = name;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.graceEndMinute = startMinute + graceMinutes;
+        this.deductionStartMinute = graceEndMinute + 1;
+        this.breakStarts = breakStarts.clone();
+        this.breakEnds = breakEnds.clone();
+        this.breakMinutes = total;
+        this.overtimeStartMinute = overtimeStartMinute;
+    }
+
+    /**
+     * Builds a policy from the text in data/shift_policies.csv
+     *
+     * @param name Name for reports
+     * @param start Start time, "H:mm"
+     * @param end End time, "H:mm"
+     * @param graceMinutes Grace period in minutes
+     * @param breaks Break windows like "12:00-13:00", several separated by ';' (blank for none)
+     * @param overtimeAfter Overtime start, "H:mm" (blank for the shift end)
+     * @throws IllegalArgumentException If a time can't be read or the shift doesn't make sense
+     */
+    public static ShiftPolicy compile(String name, String start, String end, int graceMinutes, String breaks,
+                                      String overtimeAfter) {
+        int startMinute = minute(name, start);
+        int endMinute = minute(name, end);
+        String[] windows = breaks.trim().isEmpty() ? new String[0] : breaks.split(";");
+        int[] breakStarts = new int[windows.length];
+        int[] breakEnds = new int[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            int dash = windows[i].indexOf('-');
+            if (dash < 0) {
+                throw new IllegalArgumentException(name + ": break '" + windows[i].trim() + "' should look like 12:00-13:00");
+            }
+            breakStarts[i] = minute(name, windows[i].substring(0, dash));
+            breakEnds[i] = minute(name, windows[i].substring(dash + 1));
+        }
+        int overtimeStart = overtimeAfter.trim().isEmpty() ? endMinute : minute(name, overtimeAfter);
+        return new ShiftPolicy(name, startMinute, endMinute, graceMinutes, breakStarts, breakEnds, overtimeStart);
+    }
+
+    private static int minute(String name, String time) {
+        int minute = TimeKeeping.parseMinute(time.trim());
+        if (minute == TimeKeeping.INVALID_TIME) {
+            throw new IllegalArgumentException(name + ": '" + time.trim() + "' is not a valid H:mm time");
+        }
+        return minute;
+    }
+
+    /*
+     * The rules, on minutes since midnight (these used to be TimeKeeping's statics)
+     */
+
+    /**
+     * Hours between in and out, minus the breaks if they worked more than 5 hours
+     */
+    public double dailyHours(int inMinute, int outMinute) {
+        int minutes = outMinute - inMinute;
+        if (minutes > BREAK_AFTER_MINUTES) {
+            minutes -= breakMinutes;
+        }
+        // Round to 2 decimal places
+        return Math.round(minutes / 60.0 * 100.0) / 100.0;
+    }
+
+    /**
+     * Hours inside the shift, minus whatever part of the breaks they were there for
+     */
+    public double regularHours(int inMinute, int outMinute) {
+        // Can't start before the shift or end after it
+        int start = Math.max(inMinute, startMinute);
+        int end = Math.min(outMinute, endMinute);
+        int minutes = 0;
+        if (end > start) {
+            minutes = end - start;
+            for (int i = 0; i < breakStarts.length; i++) {
+                int overlap = Math.min(end, breakEnds[i]) - Math.max(start, breakStarts[i]);
+                if (overlap > 0) {
+                    minutes -= overlap;
+                }
+            }
+        }
+        return Math.round(minutes / 60.0 * 100.0) / 100.0;
+    }
+
+    /**
+     * Hours past the overtime start - none at all if they came in late
+     */
+    public double overtimeHours(int inMinute, int outMinute) {
+        if (isLateForDeduction(inMinute)) {
+            return 0.0;
+        }
+        return overtimeMinutesToHours(outMinute);
+    }
+
+    // Hours after the overtime start, rounded
+    double overtimeMinutesToHours(int outMinute) {
+        if (outMinute <= overtimeStartMinute) {
+            return 0.0;
+        }
+        return Math.round((outMinute - overtimeStartMinute) / 60.0 * 100.0) / 100.0;
+    }
+
+    /**
+     * @return true if they logged in after the grace period plus a minute (8:11 on the default shift)
+     */
+    public boolean isLateForDeduction(int inMinute) {
+        return inMinute > deductionStartMinute;
+    }
+
+    public int lateMinutes(int inMinute) {
+        return inMinute > startMinute ? inMinute - startMinute : 0;
+    }
+
+    public int undertimeMinutes(int outMinute) {
+        return outMinute < endMinute ? endMinute - outMinute : 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStartMinute() {
+        return startMinute;
+    }
+
+    public int getEndMinute() {
+        return endMinute;
+    }
+
+    public int getGraceEndMinute() {
+        return graceEndMinute;
+    }
+
+    public int getOvertimeStartMinute() {
+        return overtimeStartMinute;
+    }
+
+    public int getBreakMinutes() {
+        return breakMinutes;
+    }
+
+    /**
+     * Key that's the same for policies with the same rules, for sharing one object between them
+     */
+    String rulesKey() {
+        return startMinute + "|" + endMinute + "|" + graceEndMinute + "|" + overtimeStartMinute + "|"
+             + Arrays.toString(breakStarts) + Arrays.toString(breakEnds);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + AttendanceStore.formatTime(startMinute) + "-" + AttendanceStore.formatTime(endMinute) + ")";
+    }
+}
@@ -0,0 +1,295 @@
+// SssSchedule.java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One SSS contribution table, and the list of tables by the date they start.
+ *
+ * The table used to be a 45-branch if/else chain in PayrollCalculator. Now the
+ * brackets live in data/sss_schedules.csv, one row per bracket:
+ *
+ *   Effective Date,Monthly Salary Below,Employee Contribution
+ *   01/01/2021,3250,135.00
+ *   ...
+ *   01/01/2021,,1125.00       <- empty bound = everything above (the max)
+ *
+ * A new schedule is just more rows with a later effective date. Lookups use a
+ * direct index when the brackets are evenly spaced (the SSS ones are, 500 apart)
+ * and a binary search when they aren't.
+ */
+public class SssSchedule {
+    public static final String DEFAULT_FILE = "data/sss_schedules.csv";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Schedules from DEFAULT_FILE, loaded on first use
+    private static List<SssSchedule> defaultSchedules;
+    // Every schedule gets its own number, so caches can tell them apart
+    private static final AtomicInteger nextVersion = new AtomicInteger(1);
+
+    private final LocalDate effectiveDate;
+    private final double[] upperBounds;    // monthly salary must be below upperBounds[i] for bracket i
+    private final double[] contributions;  // one more than upperBounds - the last is the max
+    private final long[] contributionCentavos; // same amounts as Money centavos
+    private final double firstBound;
+    private final double step;             // bracket width if they're evenly spaced, 0 if not
+    private final int version;
+
+    /**
+     * @param effectiveDate First day the table applies
+     * @param upperBounds Ascending "salary below" bounds
+     * @param contributions Contribution per bracket, plus the max at the end
+     */
+    public SssSchedule(LocalDate effectiveDate, double[] upperBounds, double[] contributions) {
+        if (contributions.length != upperBounds.length + 1) {
+            throw new IllegalArgumentException("Need one contribution per bracket plus the max");
+        }
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Brackets must go up: " + upperBounds[i - 1] + " then " + upperBounds[i]);
+            }
+        }
+        this.effectiveDate = effectiveDate;
+        this.upperBounds = upperBounds.clone();
+        this.contributions = contributions.clone();
+        this.contributionCentavos = new long[contributions.length];
+        for (int i = 0; i < contributions.length; i++) {
+            contributionCentavos[i] = Money.ofPesos(contributions[i]);
+        }
+        this.firstBound = upperBounds.length > 0 ? upperBounds[0] : Double.POSITIVE_INFINITY;
+        this.step = evenStep(upperBounds);
+        this.version = nextVersion.getAndIncrement();
+    }
+
+    // Width of the brackets if every one is the same, otherwise 0
+    private static double evenStep(double[] bounds) {
+        if (bounds.length < 2) {
+            return 0;
+        }
+        double width = bounds[1] - bounds[0];
+        for (int i = 2; i < bounds.length; i++) {
+            if (bounds[i] - bounds[i - 1] != width) {
+                return 0;
+            }
+        }
+        return width;
+    }
+
+    /**
+     * The table PayrollCalculator used to have hard-coded: 135.00 below 3,250,
+     * then 22.50 more every 500 up to 1,125.00 from 24,750. Used when there's no data file.
+     */
+    public static SssSchedule builtIn() {
+        double[] bounds = new double[44];
+        double[] amounts = new double[45];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = 3250 + 500 * i;
+        }
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = 135.00 + 22.50 * i;
+        }
+        return new SssSchedule(LocalDate.of(2021, 1, 1), bounds, amounts);
+    }
+
+    /**
+     * Looks up the employee contribution for a monthly salary
+     *
+     * @param monthlySalary Monthly salary
+     * @return Contribution for the bracket the salary falls in
+     */
+    public double contributionFor(double monthlySalary) {
+        return contributions[bracketOf(monthlySalary)];
+    }
+
+    /**
+     * Same lookup for the centavo payroll path
+     *
+     * @param monthlyCentavos Monthly salary in centavos
+     * @return Contribution in centavos
+     */
+    public long contributionCentavosFor(long monthlyCentavos) {
+        // Bounds have at most 2 decimals, so the double compare puts every centavo
+        // amount in the right bracket
+        return contributionCentavos[bracketOf(Money.toPesos(monthlyCentavos))];
+    }
+
+    /**
+     * @return Index of the bracket: the first i with monthlySalary < upperBounds[i],
+     *         or upperBounds.length if it's above all of them
+     */
+    int bracketOf(double monthlySalary) {
+        if (!(monthlySalary >= firstBound)) {
+            return 0;
+        }
+        int n = upperBounds.length;
+        if (step > 0) {
+            // Evenly spaced: jump straight there, then fix up any rounding at the edges
+            double offset = (monthlySalary - firstBound) / step;
+            int i = offset >= n ? n : (int) offset + 1;
+            while (i > 0 && monthlySalary < upperBounds[i - 1]) {
+                i--;
+            }
+            while (i < n && monthlySalary >= upperBounds[i]) {
+                i++;
+            }
+            return i;
+        }
+        int low = 1;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (monthlySalary < upperBounds[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    /**
+     * @return Number that's different for every schedule object (used as a cache key)
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getBracketCount() {
+        return contributions.length;
+    }
+
+    /**
+     * Reads every schedule from a csv file (see the class comment for the layout)
+     *
+     * @param file Schedules csv
+     * @return Schedules, oldest first
+     * @throws IOException If the file can't be read or a row doesn't make sense
+     */
+    public static List<SssSchedule> load(Path file) throws IOException {
+        Map<LocalDate, List<double[]>> rowsByDate = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && line.startsWith("Effective"))) {
+                    continue;
+                }
+                String[] parts = FileHandler.parseCsvLine(line);
+                if (parts.length < 3) {
+                    throw new IOException(file + " line " + lineNumber + ": expected 3 columns");
+                }
+                try {
+                    LocalDate date = LocalDate.parse(parts[0].trim(), DATE_FORMAT);
+                    String bound = parts[1].replace(",", "").trim();
+                    double below = bound.isEmpty() ? Double.POSITIVE_INFINITY : Double.parseDouble(bound);
+                    double amount = Double.parseDouble(parts[2].replace(",", "").trim());
+                    rowsByDate.computeIfAbsent(date, d -> new ArrayList<>()).add(new double[] {below, amount});
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        List<SssSchedule> schedules = new ArrayList<>(rowsByDate.size());
+        for (Map.Entry<LocalDate, List<double[]>> entry : rowsByDate.entrySet()) {
+            List<double[]> rows = entry.getValue();
+            rows.sort((a, b) -> Double.compare(a[0], b[0]));
+            if (rows.get(rows.size() - 1)[0] != Double.POSITIVE_INFINITY) {
+                throw new IOException(file + ": schedule " + entry.getKey().format(DATE_FORMAT)
+                        + " needs a last row with an empty bound (the max contribution)");
+            }
+            double[] bounds = new double[rows.size() - 1];
+            double[] amounts = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                if (i < bounds.length) {
+                    bounds[i] = rows.get(i)[0];
+                }
+                amounts[i] = rows.get(i)[1];
+            }
+            try {
+                schedules.add(new SssSchedule(entry.getKey(), bounds, amounts));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+        return Collections.unmodifiableList(schedules);
+    }
+
+    /**
+     * Picks the schedule in effect on a date: the latest one that started on or
+     * before it (or the oldest one for dates before all of them)
+     *
+     * @param schedules Schedules, oldest first
+     * @param date Pay date
+     */
+    public static SssSchedule forDate(List<SssSchedule> schedules, LocalDate date) {
+        SssSchedule chosen = schedules.get(0);
+        for (SssSchedule schedule : schedules) {
+            if (!schedule.effectiveDate.isAfter(date)) {
+                chosen = schedule;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Schedule in effect on a date, from data/sss_schedules.csv
+     */
+    public static SssSchedule forDate(LocalDate date) {
+        return forDate(defaultSchedules(), date);
+    }
+
+    /**
+     * The newest schedule from data/sss_schedules.csv (what PayrollCalculator uses by default)
+     */
+    public static SssSchedule latest() {
+        List<SssSchedule> schedules = defaultSchedules();
+        return schedules.get(schedules.size() - 1);
+    }
+
+    /**
+     * Forgets the loaded schedules so the next lookup reads data/sss_schedules.csv
+     * again (after it's been edited)
+     */
+    public static synchronized void reload() {
+        defaultSchedules = null;
+    }
+
+    /**
+     * Schedules from data/sss_schedules.csv, read once. Falls back to the
+     * built-in table if the file is missing or broken, so payroll still runs.
+     */
+    public static synchronized List<SssSchedule> defaultSchedules() {
+        if (defaultSchedules == null) {
+            Path file = Paths.get(DEFAULT_FILE);
+            List<SssSchedule> loaded = null;
+            if (Files.exists(file)) {
+                try {
+                    loaded = load(file);
+                } catch (IOException e) {
+                    System.err.println("Error loading SSS schedules, using built-in table: " + e.getMessage());
+                }
+            }
+            defaultSchedules = loaded != null && !loaded.isEmpty()
+                    ? loaded : Collections.singletonList(builtIn());
+        }
+        return defaultSchedules;
+    }
+}
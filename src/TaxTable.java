@@ -0,0 +1,268 @@
+// TaxTable.java
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Monthly withholding tax table, and the list of tables by the date they start.
+ *
+ * Used to be TAX_BRACKET_1..5 / TAX_RATE_* / TAX_FIXED_* constants in
+ * PayrollCalculator. Now the brackets come from data/tax_tables.csv:
+ *
+ *   Effective Date,Monthly Income Over,Rate,Fixed Amount
+ *   01/01/2018,0,0,0
+ *   01/01/2018,20832,0.20,
+ *   01/01/2018,33333,0.25,2500.00
+ *   ...
+ *
+ * Tax for an income in a bracket = fixed amount + rate * (income - "over").
+ * A blank fixed amount is filled in when the table loads with the tax owed at
+ * the top of the bracket below (the cumulative amount), so lookups never have
+ * to add up the lower brackets. BIR publishes rounded fixed amounts (2,500 not
+ * 2,500.20), so the shipped file lists them to keep results exactly the same.
+ */
+public class TaxTable {
+    public static final String DEFAULT_FILE = "data/tax_tables.csv";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    // Tables from DEFAULT_FILE, loaded on first use
+    private static List<TaxTable> defaultTables;
+
+    private final LocalDate effectiveDate;
+    private final double[] over;    // lower bound of each bracket (exclusive), ascending, over[0] is the floor
+    private final double[] rates;   // rate on the part above over[i]
+    private final double[] fixed;   // tax already owed at over[i]
+    // The same table for the centavo path (see Money)
+    private final long[] overCentavos;
+    private final long[] rateBasisPoints;
+    private final long[] fixedCentavos;
+
+    /**
+     * @param effectiveDate First day the table applies
+     * @param over Lower bound of each bracket, ascending
+     * @param rates Rate for each bracket
+     * @param fixed Fixed amount for each bracket, or NaN to use the cumulative amount
+     */
+    public TaxTable(LocalDate effectiveDate, double[] over, double[] rates, double[] fixed) {
+        if (over.length == 0 || rates.length != over.length || fixed.length != over.length) {
+            throw new IllegalArgumentException("Need a bound, rate and fixed amount for every bracket");
+        }
+        for (int i = 1; i < over.length; i++) {
+            if (over[i] <= over[i - 1]) {
+                throw new IllegalArgumentException("Brackets must go up: " + over[i - 1] + " then " + over[i]);
+            }
+        }
+        this.effectiveDate = effectiveDate;
+        this.over = over.clone();
+        this.rates = rates.clone();
+        this.fixed = fixed.clone();
+        // Precompute the missing fixed amounts once
+        for (int i = 0; i < this.fixed.length; i++) {
+            if (Double.isNaN(this.fixed[i])) {
+                this.fixed[i] = i == 0 ? 0.0 : this.fixed[i - 1] + (this.over[i] - this.over[i - 1]) * this.rates[i - 1];
+            }
+        }
+        this.overCentavos = new long[over.length];
+        this.rateBasisPoints = new long[over.length];
+        this.fixedCentavos = new long[over.length];
+        for (int i = 0; i < over.length; i++) {
+            overCentavos[i] = Money.ofPesos(this.over[i]);
+            rateBasisPoints[i] = Money.basisPoints(this.rates[i]);
+            fixedCentavos[i] = Money.ofPesos(this.fixed[i]);
+        }
+    }
+
+    /**
+     * The table PayrollCalculator used to have hard-coded (TRAIN law rates from 2018)
+     */
+    public static TaxTable builtIn() {
+        return new TaxTable(LocalDate.of(2018, 1, 1),
+                new double[] {0.0, 20832.0, 33333.0, 66667.0, 166667.0, 666667.0},
+                new double[] {0.0, 0.20, 0.25, 0.30, 0.32, 0.35},
+                new double[] {0.0, 0.0, 2500.0, 10833.0, 40833.33, 200833.33});
+    }
+
+    /**
+     * Monthly tax for a monthly taxable income
+     */
+    public double monthlyTax(double monthlyIncome) {
+        int i = bracketOf(monthlyIncome);
+        return fixed[i] + (monthlyIncome - over[i]) * rates[i];
+    }
+
+    /**
+     * Monthly tax in centavos for a monthly taxable income in centavos.
+     * The part over the bracket is rounded to the centavo once (see Money).
+     */
+    public long monthlyTaxCentavos(long monthlyCentavos) {
+        long[] over = overCentavos;
+        int i = 0;
+        for (int b = 1; b < over.length; b++) {
+            i += monthlyCentavos > over[b] ? 1 : 0;
+        }
+        return fixedCentavos[i] + Money.percent(monthlyCentavos - over[i], rateBasisPoints[i]);
+    }
+
+    /**
+     * Monthly tax for many incomes at once - one tight loop over the arrays, no
+     * objects, no calls, so the JIT can unroll it. Same answers as monthlyTax().
+     *
+     * @param monthlyIncomes Monthly taxable incomes
+     * @param taxes Gets the monthly tax for each income (may be the same array)
+     * @param count How many entries to do
+     */
+    public void monthlyTax(double[] monthlyIncomes, double[] taxes, int count) {
+        double[] over = this.over;
+        double[] rates = this.rates;
+        double[] fixed = this.fixed;
+        int last = over.length - 1;
+        for (int k = 0; k < count; k++) {
+            double income = monthlyIncomes[k];
+            // Brackets are sorted, so the bracket is how many bounds the income is over
+            int i = 0;
+            for (int b = 1; b <= last; b++) {
+                i += income > over[b] ? 1 : 0;
+            }
+            taxes[k] = fixed[i] + (income - over[i]) * rates[i];
+        }
+    }
+
+    // Index of the bracket: the last i with income > over[i] (0 if none).
+    // Counts instead of searching so there's no branch to mispredict.
+    private int bracketOf(double monthlyIncome) {
+        double[] over = this.over;
+        int i = 0;
+        for (int b = 1; b < over.length; b++) {
+            i += monthlyIncome > over[b] ? 1 : 0;
+        }
+        return i;
+    }
+
+    public LocalDate getEffectiveDate() {
+        return effectiveDate;
+    }
+
+    public int getBracketCount() {
+        return over.length;
+    }
+
+    /**
+     * Reads every table from a csv file (see the class comment for the layout)
+     *
+     * @param file Tax tables csv
+     * @return Tables, oldest first
+     * @throws IOException If the file can't be read or a row doesn't make sense
+     */
+    public static List<TaxTable> load(Path file) throws IOException {
+        Map<LocalDate, List<double[]>> rowsByDate = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (lineNumber == 1 && line.startsWith("Effective"))) {
+                    continue;
+                }
+                String[] parts = FileHandler.parseCsvLine(line);
+                if (parts.length < 3) {
+                    throw new IOException(file + " line " + lineNumber + ": expected at least 3 columns");
+                }
+                try {
+                    LocalDate date = LocalDate.parse(parts[0].trim(), DATE_FORMAT);
+                    double bound = Double.parseDouble(parts[1].replace(",", "").trim());
+                    double rate = Double.parseDouble(parts[2].trim());
+                    String fixedText = parts.length > 3 ? parts[3].replace(",", "").trim() : "";
+                    double fixedAmount = fixedText.isEmpty() ? Double.NaN : Double.parseDouble(fixedText);
+                    rowsByDate.computeIfAbsent(date, d -> new ArrayList<>())
+                              .add(new double[] {bound, rate, fixedAmount});
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+
+        List<TaxTable> tables = new ArrayList<>(rowsByDate.size());
+        for (Map.Entry<LocalDate, List<double[]>> entry : rowsByDate.entrySet()) {
+            List<double[]> rows = entry.getValue();
+            rows.sort((a, b) -> Double.compare(a[0], b[0]));
+            double[] over = new double[rows.size()];
+            double[] rates = new double[rows.size()];
+            double[] fixed = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                over[i] = rows.get(i)[0];
+                rates[i] = rows.get(i)[1];
+                fixed[i] = rows.get(i)[2];
+            }
+            try {
+                tables.add(new TaxTable(entry.getKey(), over, rates, fixed));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(file + ": " + e.getMessage(), e);
+            }
+        }
+        return Collections.unmodifiableList(tables);
+    }
+
+    /**
+     * Picks the table in effect on a date: the latest one that started on or
+     * before it (or the oldest one for dates before all of them)
+     *
+     * @param tables Tables, oldest first
+     * @param date Pay date
+     */
+    public static TaxTable forDate(List<TaxTable> tables, LocalDate date) {
+        TaxTable chosen = tables.get(0);
+        for (TaxTable table : tables) {
+            if (!table.effectiveDate.isAfter(date)) {
+                chosen = table;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Table in effect on a date, from data/tax_tables.csv
+     */
+    public static TaxTable forDate(LocalDate date) {
+        return forDate(defaultTables(), date);
+    }
+
+    /**
+     * The newest table from data/tax_tables.csv (what PayrollCalculator uses by default)
+     */
+    public static TaxTable latest() {
+        List<TaxTable> tables = defaultTables();
+        return tables.get(tables.size() - 1);
+    }
+
+    /**
+     * Tables from data/tax_tables.csv, read once. Falls back to the built-in
+     * table if the file is missing or broken, so payroll still runs.
+     */
+    public static synchronized List<TaxTable> defaultTables() {
+        if (defaultTables == null) {
+            Path file = Paths.get(DEFAULT_FILE);
+            List<TaxTable> loaded = null;
+            if (Files.exists(file)) {
+                try {
+                    loaded = load(file);
+                } catch (IOException e) {
+                    System.err.println("Error loading tax tables, using built-in table: " + e.getMessage());
+                }
+            }
+            defaultTables = loaded != null && !loaded.isEmpty()
+                    ? loaded : Collections.singletonList(builtIn());
+        }
+        return defaultTables;
+    }
+}
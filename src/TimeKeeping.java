@@ -1,13 +1,12 @@
 // TimeKeeping.java
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.Duration;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
-
 /* TimeKeeping class to handle all the employee time tracking functionality
  * This was challenging but I think I figured out the most efficient way
  * References: Java Duration API documentation and Week 6 lectures
+ *
+ * Times are parsed once in the constructor into minutes since midnight,
+ * after that every rule below is plain int math (no parsing, no objects).
+ * Bad times don't throw anything - the record is just marked invalid (see
+ * isValid() and getParseError()) and the loaders quarantine those rows.
  */
 public class TimeKeeping {
     // Needed properties based on requirements doc
@@ -15,247 +14,267 @@ public class TimeKeeping {
     private String date;        // the work date (format varies)
     private String timeIn;      // when they clocked in
     private String timeOut;     // when they clocked out
-    
+
+    // Parsed versions of timeIn/timeOut - minutes since midnight, or INVALID_TIME
+    protected int timeInMinute;
+    protected int timeOutMinute;
+    // Why parsing failed (only set when the time is INVALID_TIME)
+    private String timeInError;
+    private String timeOutError;
+
+    static final int INVALID_TIME = -1;
+
     // Constants for work schedule - based on company policy from project specs
-    // Using static final for efficiency as discussed in lecture
-    private static final LocalTime REGULAR_START_TIME = LocalTime.of(8, 0); // 8am start time
-    private static final LocalTime REGULAR_END_TIME = LocalTime.of(17, 0);  // 5pm end time
-    private static final LocalTime GRACE_PERIOD_END = LocalTime.of(8, 10);  // 10min grace period
-    private static final LocalTime DEDUCTION_START_TIME = LocalTime.of(8, 11); // when penalties start
+    // Stored as minutes since midnight so comparisons are just int compares.
+    // These make up ShiftPolicy.DEFAULT; employees on other shifts get theirs from ShiftPolicies
+    static final int START_MINUTE = 8 * 60;                 // 8am start time
+    static final int END_MINUTE = 17 * 60;                  // 5pm end time
+    static final int GRACE_PERIOD_END_MINUTE = 8 * 60 + 10; // 10min grace period
+    static final int DEDUCTION_START_MINUTE = 8 * 60 + 11;  // when penalties start
+    static final int LUNCH_START_MINUTE = 12 * 60;          // lunch is 12-1pm
+    static final int LUNCH_END_MINUTE = 13 * 60;
     private static final double REGULAR_HOURS_PER_DAY = 8.0; // standard work day hours
-    
-    // Constructor - pretty straightforward
+
+    // Constructor - parses the times right away so the methods don't have to
     public TimeKeeping(String employeeId, String date, String timeIn, String timeOut) {
         this.employeeId = employeeId;
         this.date = date;
         this.timeIn = timeIn;
         this.timeOut = timeOut;
-        // I considered validating the time formats here but decided to handle in methods
+
+        this.timeInMinute = parseMinute(timeIn);
+        if (timeInMinute == INVALID_TIME) {
+            timeInError = parseError(timeIn);
+        }
+        this.timeOutMinute = parseMinute(timeOut);
+        if (timeOutMinute == INVALID_TIME) {
+            timeOutError = parseError(timeOut);
+        }
+    }
+
+    /**
+     * Constructor for subclasses that keep their data somewhere else
+     * (see AttendanceStore.RecordView) and fill in the minute fields themselves
+     */
+    protected TimeKeeping() {
     }
-    
+
+    /**
+     * Turns "H:mm" into minutes since midnight, by hand - no exceptions even
+     * for garbage, so dirty files don't slow everything down.
+     * Accepts the same things the old LocalTime.parse("H:mm") did: one or more
+     * hour digits (0-23), a colon and exactly two minute digits. "24:00" is
+     * read as midnight like LocalTime did.
+     *
+     * @return Minutes since midnight, or INVALID_TIME if it can't be parsed
+     */
+    static int parseMinute(String time) {
+        if (time == null) {
+            return INVALID_TIME;
+        }
+        int length = time.length();
+        int colon = time.indexOf(':');
+        if (colon < 1 || length - colon != 3) {
+            return INVALID_TIME;
+        }
+        int hour = 0;
+        for (int i = 0; i < colon; i++) {
+            int d = digit(time, i);
+            if (d < 0) {
+                return INVALID_TIME;
+            }
+            hour = hour * 10 + d;
+            if (hour > 24) {
+                return INVALID_TIME; // also stops overflow on very long inputs
+            }
+        }
+        int minute = digit(time, colon + 1) * 10 + digit(time, colon + 2);
+        if (minute < 0 || minute > 59) {
+            return INVALID_TIME;
+        }
+        if (hour == 24) {
+            return minute == 0 ? 0 : INVALID_TIME;
+        }
+        return hour * 60 + minute;
+    }
+
+    // Value of one digit, or a big negative number so the range checks fail
+    private static int digit(String text, int index) {
+        char c = text.charAt(index);
+        return (c >= '0' && c <= '9') ? c - '0' : -1000;
+    }
+
+    // Only called for times parseMinute() rejected, so it can take its time
+    private static String parseError(String time) {
+        if (time == null || time.isEmpty()) {
+            return "Time is missing";
+        }
+        int colon = time.indexOf(':');
+        if (colon < 1 || time.length() - colon != 3) {
+            return "'" + time + "' is not in H:mm format";
+        }
+        return "'" + time + "' is not a valid time of day";
+    }
+
     // Basic getters - these were easy to implement
     public String getEmployeeId() {
         return employeeId;
     }
-    
+
     public String getDate() {
         return date;
     }
-    
+
     public String getTimeIn() {
         return timeIn;
     }
-    
+
     public String getTimeOut() {
         return timeOut;
     }
-    
+
+    /**
+     * @return Log in time in minutes since midnight (-1 if it couldn't be parsed)
+     */
+    public int getTimeInMinute() {
+        return timeInMinute;
+    }
+
+    /**
+     * @return Log out time in minutes since midnight (-1 if it couldn't be parsed)
+     */
+    public int getTimeOutMinute() {
+        return timeOutMinute;
+    }
+
+    /**
+     * @return false if log in or log out couldn't be parsed (the calculations
+     *         then return 0, so check this before paying anyone from it)
+     */
+    public boolean isValid() {
+        return timeInMinute != INVALID_TIME && timeOutMinute != INVALID_TIME;
+    }
+
+    /**
+     * @return Why the record is invalid, e.g. "Log in: '8:5' is not in H:mm format" (null if it's fine)
+     */
+    public String getParseError() {
+        if (timeInMinute == INVALID_TIME) {
+            return "Log in: " + timeInError;
+        }
+        if (timeOutMinute == INVALID_TIME) {
+            return "Log out: " + timeOutError;
+        }
+        return null;
+    }
+
     /* This was the trickiest method to write
      * Had to rewrite it three times to get it right :(
      * The challenge was handling the lunch break deduction
      */
     public double calculateDailyHours() {
-        try {
-            // Convert string times to LocalTime objects using DateTimeFormatter
-            // The "H:mm" pattern means hour (1-24) and minutes - from Week 6 examples
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-            
-            // Get the time difference - Duration class is perfect for this
-            Duration duration = Duration.between(inTime, outTime);
-            
-            // Convert to decimal hours - divide minutes by 60.0 to get fractional hours
-            double hours = duration.toMinutes() / 60.0;
-            
-            // Apply lunch break rule - subtract 1 hour if worked more than 5 hours
-            // Got this rule from the project requirements doc
-            if (hours > 5.0) {
-                hours -= 1.0;  // subtract lunch hour
-            }
-            
-            // Round to 2 decimal places - this formula is more efficient than using DecimalFormat
-            return Math.round(hours * 100.0) / 100.0;
-        } catch (DateTimeParseException e) {
-            // There might be a better error handling approach but this works for now
-            System.out.println("Error parsing time: " + e.getMessage());
-            return 0.0;  // Default to zero hours on error
+        return calculateDailyHours(ShiftPolicy.DEFAULT);
+    }
+
+    /**
+     * Daily hours on a specific shift (breaks come off instead of the 12-1 lunch)
+     */
+    public double calculateDailyHours(ShiftPolicy shift) {
+        if (!isValid()) {
+            return 0.0;  // Default to zero hours on error - isValid() tells callers why
         }
+        return shift.dailyHours(timeInMinute, timeOutMinute);
     }
 
     /**
      * Method to calculate regular hours (capped at standard work hours)
      * Fixed to properly account for late arrival - reducing regular hours
-     * 
+     *
      * @return Regular hours (maximum 8 hours, reduced if late arrival)
      */
     public double calculateRegularHours() {
-        try {
-            // Parse time strings to LocalTime objects
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-
-            // Define workday boundaries for determining regular hours
-            LocalTime workdayStart = REGULAR_START_TIME; // 8:00 AM
-            LocalTime workdayEnd = REGULAR_END_TIME;     // 5:00 PM
-
-            // If employee came in late, their regular hours should be less than 8
-            // Adjust the effective start time - can't be earlier than when they arrived
-            LocalTime effectiveStartTime = inTime.isAfter(workdayStart) ? inTime : workdayStart;
-
-            // Adjust the effective end time - can't be later than when they left or 5pm
-            LocalTime effectiveEndTime = outTime.isBefore(workdayEnd) ? outTime : workdayEnd;
-
-            // Calculate effective regular hours within 8am-5pm window
-            // This finally fixes the bug in the original implementation
-            double effectiveRegularMinutes = 0;
-
-            // Only calculate if there's a valid time period
-            if (effectiveEndTime.isAfter(effectiveStartTime)) {
-                Duration regularDuration = Duration.between(effectiveStartTime, effectiveEndTime);
-                effectiveRegularMinutes = regularDuration.toMinutes();
-
-                // Subtract lunch hour (60 minutes) if regular period includes lunch
-                // Assuming lunch is from 12-1pm
-                LocalTime lunchStart = LocalTime.of(12, 0);
-                LocalTime lunchEnd = LocalTime.of(13, 0);
-
-                // Check if work period covers any part of lunch
-                boolean workIncludesLunchStart = !effectiveStartTime.isAfter(lunchStart) && 
-                                                 effectiveEndTime.isAfter(lunchStart);
-                boolean workIncludesLunchEnd = effectiveStartTime.isBefore(lunchEnd) && 
-                                               !effectiveEndTime.isBefore(lunchEnd);
-                boolean workEncompassesLunch = workIncludesLunchStart && workIncludesLunchEnd;
-                boolean workWithinLunch = !workIncludesLunchStart && !workIncludesLunchEnd && 
-                                          !effectiveStartTime.isBefore(lunchStart) && 
-                                          !effectiveEndTime.isAfter(lunchEnd);
-
-                // Calculate lunch deduction based on overlap
-                int lunchDeduction = 0;
-                if (workEncompassesLunch) {
-                    // Entire lunch period is within work hours
-                    lunchDeduction = 60;
-                } else if (workIncludesLunchStart) {
-                    // Work includes start of lunch until end of work
-                    lunchDeduction = (int) Duration.between(lunchStart, effectiveEndTime).toMinutes();
-                    lunchDeduction = Math.min(lunchDeduction, 60); // Cap at 60 minutes
-                } else if (workIncludesLunchEnd) {
-                    // Work includes from start of work until end of lunch
-                    lunchDeduction = (int) Duration.between(effectiveStartTime, lunchEnd).toMinutes();
-                    lunchDeduction = Math.min(lunchDeduction, 60); // Cap at 60 minutes
-                } else if (workWithinLunch) {
-                    // Entire work period is within lunch
-                    lunchDeduction = (int) effectiveRegularMinutes;
-                }
-
-                // Subtract lunch deduction
-                effectiveRegularMinutes -= lunchDeduction;
-            }
-
-            // Convert minutes to hours and round to 2 decimal places
-            double regularHours = effectiveRegularMinutes / 60.0;
-            return Math.round(regularHours * 100.0) / 100.0;
+        return calculateRegularHours(ShiftPolicy.DEFAULT);
+    }
 
-        } catch (DateTimeParseException e) {
-            System.out.println("Error calculating regular hours: " + e.getMessage());
+    /**
+     * Regular hours inside a specific shift
+     */
+    public double calculateRegularHours(ShiftPolicy shift) {
+        if (!isValid()) {
             return 0.0;
         }
+        return shift.regularHours(timeInMinute, timeOutMinute);
     }
 
     /**
      * Method to calculate overtime hours
      * Only counts hours worked after 5pm, and only if employee wasn't late
-     * 
+     *
      * @return Overtime hours worked beyond 5pm
      */
     public double calculateOvertimeHours() {
+        return calculateOvertimeHours(ShiftPolicy.DEFAULT);
+    }
+
+    /**
+     * Overtime past a specific shift's overtime start
+     */
+    public double calculateOvertimeHours(ShiftPolicy shift) {
         // No overtime for late employees per company policy
-        if (isLateForDeduction()) {
+        if (isLateForDeduction(shift)) {
             return 0.0;
         }
-
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-
-            // Only calculate overtime if they stayed past 5pm
-            if (outTime.isAfter(REGULAR_END_TIME)) {
-                // Calculate minutes worked after 5pm
-                Duration overtimeDuration = Duration.between(REGULAR_END_TIME, outTime);
-                double overtimeMinutes = overtimeDuration.toMinutes();
-
-                // Convert to hours and round
-                double overtimeHours = overtimeMinutes / 60.0;
-                return Math.round(overtimeHours * 100.0) / 100.0;
-            }
-
-            return 0.0;
-        } catch (DateTimeParseException e) {
-            System.out.println("Error calculating overtime: " + e.getMessage());
+        if (timeOutMinute == INVALID_TIME) {
             return 0.0;
         }
+        return shift.overtimeMinutesToHours(timeOutMinute);
     }
+
     /* Checks if employee is late beyond grace period
      * This is used for salary deductions according to company policy
      * Initially had a bug where I was checking against GRACE_PERIOD_END instead of DEDUCTION_START_TIME
      */
     public boolean isLateForDeduction() {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-        
-            // If login time is after 8:11am, they're late enough for deduction
-            return inTime.isAfter(DEDUCTION_START_TIME);
-        } catch (DateTimeParseException e) {
+        return isLateForDeduction(ShiftPolicy.DEFAULT);
+    }
+
+    /**
+     * Lateness past a specific shift's grace period
+     */
+    public boolean isLateForDeduction(ShiftPolicy shift) {
+        if (timeInMinute == INVALID_TIME) {
             // This shouldn't happen if data is valid, but just in case
-            System.out.println("Error parsing time: " + e.getMessage());
             return false;  // Give employee benefit of the doubt on errors
         }
+        return shift.isLateForDeduction(timeInMinute);
     }
 
     // Calculate late minutes (after 8:00 AM)
     // I optimized this by checking if they're late first before calculating
     public int calculateLateMinutes() {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime inTime = LocalTime.parse(timeIn, formatter);
-            
-            // Quick return if not late at all - no need to calculate
-            if (!inTime.isAfter(REGULAR_START_TIME)) {
-                return 0;  // On time or early
-            }
-            
-            // Calculate minutes late - Duration.between is perfect for this
-            Duration lateDuration = Duration.between(REGULAR_START_TIME, inTime);
-            return (int) lateDuration.toMinutes();  // Convert to minutes and cast to int
-        } catch (DateTimeParseException e) {
-            // Using println for debugging - maybe switch to logger in future version
-            System.out.println("Error parsing time: " + e.getMessage());
+        return calculateLateMinutes(ShiftPolicy.DEFAULT);
+    }
+
+    // Late minutes after a specific shift's start
+    public int calculateLateMinutes(ShiftPolicy shift) {
+        if (timeInMinute == INVALID_TIME) {
             return 0;  // Default to on-time if there's an error
         }
+        return shift.lateMinutes(timeInMinute);
     }
-    
+
     /* Calculates how many minutes employee left before end of day
      * Was tempted to call these "early minutes" but "undertime" is the correct term
      */
     public int calculateUndertimeMinutes() {
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("H:mm");
-            LocalTime outTime = LocalTime.parse(timeOut, formatter);
-            
-            // If they left after or at end time, no undertime
-            if (!outTime.isBefore(REGULAR_END_TIME)) {
-                return 0;  // Worked full day or overtime
-            }
-            
-            // Calculate undertime minutes - time between when they left and when day ends
-            Duration undertimeDuration = Duration.between(outTime, REGULAR_END_TIME);
-            return (int) undertimeDuration.toMinutes();  // Cast to int since we want whole minutes
-        } catch (DateTimeParseException e) {
-            // Might improve error handling in v2.0 but this works for now
-            System.out.println("Error parsing time: " + e.getMessage());
+        return calculateUndertimeMinutes(ShiftPolicy.DEFAULT);
+    }
+
+    // Undertime before a specific shift's end
+    public int calculateUndertimeMinutes(ShiftPolicy shift) {
+        if (timeOutMinute == INVALID_TIME) {
             return 0;  // Default to no undertime if there's an error
         }
+        return shift.undertimeMinutes(timeOutMinute);
     }
 }
@@ -1,5 +1,6 @@
 // WeeklyAttendance.java
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -7,11 +8,21 @@ import java.util.List;
  * 
  * This class aggregates daily TimeKeeping records to provide weekly summaries.
  * I improved on the original design by adding methods for lateness tracking
+ *
+ * All the totals come from one pass over the days (see getSummary) that is
+ * cached until addDailyAttendance or setShiftPolicy changes the week, so asking
+ * for the hours, overtime, lateness etc. one after the other doesn't walk the
+ * week again each time.
  */
 public class WeeklyAttendance {
     private String employeeId;        // Employee identifier
     private String weekStartDate;     // Date the week starts (e.g., "06/03/2024")
-    private List<TimeKeeping> dailyAttendance;  // List of daily attendance records
+    private List<TimeKeeping> dailyAttendance;  // List of daily attendance records (null while store-backed)
+    private AttendanceStore store;    // where the days are read from instead, until one is added
+    private int fromRow;              // the week's rows in store: fromRow until toRow
+    private int toRow;
+    private ShiftPolicy shiftPolicy = ShiftPolicy.DEFAULT;  // the employee's shift (see ShiftPolicies)
+    private Summary summary;          // every weekly total, worked out on first use (null until then)
     
     // Standard weekly hours constant - 40 hours (8 hours × 5 days)
     // Used static final for optimization as mentioned in lecture/resources
@@ -28,6 +39,36 @@ public class WeeklyAttendance {
         // Used ArrayList implementation for its dynamic sizing capability
         this.dailyAttendance = new ArrayList<>();  // Initially empty
     }
+
+    /**
+     * Constructor for a week that reads its days straight from an AttendanceStore.
+     * The summary pass walks the rows with its own RecordView, so no TimeKeeping
+     * objects are created for it (getDailyAttendance still hands out real ones).
+     *
+     * @param employeeId Employee identifier
+     * @param weekStartDate Date the week starts
+     * @param store Store holding the week's rows
+     * @param fromRow First row of the week
+     * @param toRow Row just after the week
+     */
+    WeeklyAttendance(String employeeId, String weekStartDate, AttendanceStore store, int fromRow, int toRow) {
+        this.employeeId = employeeId;
+        this.weekStartDate = weekStartDate;
+        this.store = store;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    /**
+     * Same as above, for an employee on a specific shift
+     *
+     * @param shiftPolicy Shift the days are checked against
+     */
+    WeeklyAttendance(String employeeId, String weekStartDate, AttendanceStore store, int fromRow, int toRow,
+                     ShiftPolicy shiftPolicy) {
+        this(employeeId, weekStartDate, store, fromRow, toRow);
+        this.shiftPolicy = shiftPolicy;
+    }
     
     /**
      * Add a daily attendance record to the weekly collection
@@ -38,13 +79,120 @@ public class WeeklyAttendance {
     public void addDailyAttendance(TimeKeeping attendance) {
         // Verify the record belongs to the correct employee
         if (attendance.getEmployeeId().equals(employeeId)) {
+            if (store != null) {
+                copyStoreRecords();
+            }
             dailyAttendance.add(attendance);
+            summary = null;  // totals have to be worked out again
         } else {
             // This error message was helpful during my testing phase
             System.out.println("Error: Employee ID mismatch.");
         }
     }
 
+    /**
+     * Swaps the store's rows for our own list so we can add to it
+     */
+    private void copyStoreRecords() {
+        dailyAttendance = storeRecords(toRow - fromRow + 1);
+        store = null;
+    }
+
+    // A standalone TimeKeeping for each of the week's store rows
+    private List<TimeKeeping> storeRecords(int capacity) {
+        List<TimeKeeping> copy = new ArrayList<>(capacity);
+        AttendanceStore.RecordView row = new AttendanceStore.RecordView(store);
+        for (int i = fromRow; i < toRow; i++) {
+            copy.add(row.moveTo(i).toTimeKeeping());
+        }
+        return copy;
+    }
+
+    // The days for one loop on this thread (a fresh cursor over the rows for store-backed weeks)
+    private List<TimeKeeping> days() {
+        return store != null ? store.cursor(fromRow, toRow) : dailyAttendance;
+    }
+
+    /**
+     * @return Shift the days are checked against (ShiftPolicy.DEFAULT unless set)
+     */
+    public ShiftPolicy getShiftPolicy() {
+        return shiftPolicy;
+    }
+
+    /**
+     * Changes the shift the days are checked against (e.g. ShiftPolicies.current().forEmployee(employee))
+     */
+    public void setShiftPolicy(ShiftPolicy shiftPolicy) {
+        this.shiftPolicy = shiftPolicy;
+        this.summary = null;
+    }
+
+    /**
+     * All the weekly totals at once. They're worked out in a single pass over
+     * the days the first time anything asks, then kept until a day is added
+     * (or the shift changes), so payroll and the report don't walk the week
+     * once per number.
+     *
+     * @return The week's totals
+     */
+    public Summary getSummary() {
+        Summary current = summary;
+        if (current == null) {
+            current = summarize();
+            summary = current;
+        }
+        return current;
+    }
+
+    // The one pass - same rules and rounding as the TimeKeeping calculate methods
+    private Summary summarize() {
+        double totalHours = 0.0;
+        double regularHours = 0.0;
+        double overtimeHours = 0.0;
+        int lateMinutes = 0;
+        int deductibleLateMinutes = 0;
+        int undertimeMinutes = 0;
+        int invalidDays = 0;
+        boolean deductibleLateness = false;
+
+        List<TimeKeeping> days = days();
+        for (TimeKeeping day : days) {
+            int in = day.getTimeInMinute();
+            int out = day.getTimeOutMinute();
+            boolean inValid = in != TimeKeeping.INVALID_TIME;
+            boolean outValid = out != TimeKeeping.INVALID_TIME;
+            if (inValid && outValid) {
+                totalHours += shiftPolicy.dailyHours(in, out);
+                regularHours += shiftPolicy.regularHours(in, out);
+            } else {
+                invalidDays++;
+            }
+            boolean late = inValid && shiftPolicy.isLateForDeduction(in);
+            if (inValid) {
+                int minutes = shiftPolicy.lateMinutes(in);
+                lateMinutes += minutes;
+                if (late) {
+                    deductibleLateness = true;
+                    deductibleLateMinutes += minutes;
+                }
+            }
+            if (outValid) {
+                if (!late) {
+                    overtimeHours += shiftPolicy.overtimeMinutesToHours(out);
+                }
+                undertimeMinutes += shiftPolicy.undertimeMinutes(out);
+            }
+        }
+
+        // Round to 2 decimal places; no overtime at all in a week with lateness
+        return new Summary(days.size(), invalidDays,
+                Math.round(totalHours * 100.0) / 100.0,
+                Math.round(regularHours * 100.0) / 100.0,
+                deductibleLateness ? 0.0 : Math.round(overtimeHours * 100.0) / 100.0,
+                lateMinutes, deductibleLateMinutes, undertimeMinutes, deductibleLateness);
+    }
+
     /**
      * Get count of daily attendance records
      * Added this method to help with validation and testing
@@ -52,7 +200,7 @@ public class WeeklyAttendance {
      * @return Number of daily records in the collection
      */
     public int getDailyAttendanceCount() {
-        return dailyAttendance.size();
+        return store != null ? toRow - fromRow : dailyAttendance.size();
     }
     
     /**
@@ -62,18 +210,7 @@ public class WeeklyAttendance {
      * @return Total hours worked in the week (rounded to 2 decimal places)
      */
     public double calculateWeeklyHours() {
-        // Accumulator pattern for summing values
-        double totalHours = 0.0;
-        
-        // Loop through each day and add up the hours
-        // I chose the enhanced for loop for cleaner code compared to traditional for loop
-        for (TimeKeeping day : dailyAttendance) {
-            totalHours += day.calculateDailyHours();
-        }
-        
-        // Round to 2 decimal places using the efficient math formula
-        // I learned this trick is faster than using DecimalFormat
-        return Math.round(totalHours * 100.0) / 100.0;
+        return getSummary().getTotalHours();
     }
     
     /**
@@ -83,15 +220,7 @@ public class WeeklyAttendance {
      * @return Regular hours (max 40 per week)
      */
     public double calculateRegularHours() {
-        double totalRegularHours = 0.0;
-
-        // Sum the properly calculated daily regular hours
-        for (TimeKeeping day : dailyAttendance) {
-            totalRegularHours += day.calculateRegularHours();
-        }
-
-        // Round to 2 decimal places
-        return Math.round(totalRegularHours * 100.0) / 100.0;
+        return getSummary().getRegularHours();
     }
    /**
     * Calculate overtime hours considering company policies
@@ -100,21 +229,8 @@ public class WeeklyAttendance {
     * @return Total overtime hours for the week
     */
    public double calculateOvertimeHours() {
-       // No overtime for employees with lateness
-       if (hasDeductibleLateness()) {
-           return 0.0;
-       }
-
-       double totalOvertimeHours = 0.0;
-
-       // Sum up overtime from each individual day
-       // This ensures overtime is only counted for days they stayed past 5pm
-       for (TimeKeeping day : dailyAttendance) {
-           totalOvertimeHours += day.calculateOvertimeHours();
-       }
-
-       // Round to 2 decimal places
-       return Math.round(totalOvertimeHours * 100.0) / 100.0;
+       // No overtime for employees with lateness (the summary already checked)
+       return getSummary().getOvertimeHours();
    }
     /**
      * Get total late minutes for the week
@@ -123,15 +239,7 @@ public class WeeklyAttendance {
      * @return Total minutes late across all days
      */
     public int getTotalLateMinutes() {
-        int totalLateMinutes = 0;
-    
-        // Sum up late minutes from each day
-        for (TimeKeeping day : dailyAttendance) {
-            totalLateMinutes += day.calculateLateMinutes();
-        }
-    
-        return totalLateMinutes;
-        // Note: Considered adding rounding but minutes should be whole numbers
+        return getSummary().getLateMinutes();
     }
 
     /**
@@ -141,13 +249,7 @@ public class WeeklyAttendance {
      * @return true if any day has lateness beyond the grace period
      */
     public boolean hasDeductibleLateness() {
-        // Used efficient short-circuit return instead of accumulator pattern
-        for (TimeKeeping day : dailyAttendance) {
-            if (day.isLateForDeduction()) {
-                return true;  // Return early once we find any late day
-            }
-        }
-        return false;  // No lateness found
+        return getSummary().hasDeductibleLateness();
     }
 
     /**
@@ -157,16 +259,7 @@ public class WeeklyAttendance {
      * @return Total deductible late minutes
      */
     public int getDeductibleLateMinutes() {
-        int deductibleLateMinutes = 0;
-    
-        // Only count late minutes for days that exceed the grace period
-        for (TimeKeeping day : dailyAttendance) {
-            if (day.isLateForDeduction()) {
-               deductibleLateMinutes += day.calculateLateMinutes();
-            }
-        }
-    
-        return deductibleLateMinutes;
+        return getSummary().getDeductibleLateMinutes();
     }
 
     /**
@@ -176,16 +269,20 @@ public class WeeklyAttendance {
      * @return Total minutes of undertime across all days
      */
     public int getTotalUndertimeMinutes() {
-        int totalUndertimeMinutes = 0;
-    
-        // Sum up undertime from each day - similar pattern to late minutes
-        for (TimeKeeping day : dailyAttendance) {
-            totalUndertimeMinutes += day.calculateUndertimeMinutes();
-        }
-    
-        return totalUndertimeMinutes;
+        return getSummary().getUndertimeMinutes();
     }
     
+    /**
+     * Count days whose times couldn't be read
+     * Those days add 0 hours, so payroll should warn about them instead of
+     * quietly paying less
+     *
+     * @return Number of invalid daily records
+     */
+    public int getInvalidDayCount() {
+        return getSummary().getInvalidDays();
+    }
+
     /**
      * Display weekly attendance details in a formatted table
      * This was challenging to make it look nice in the console!
@@ -207,26 +304,33 @@ public class WeeklyAttendance {
 
         // Data rows with all values left-aligned
         // Looping through each day to display details
-        for (TimeKeeping day : dailyAttendance) {
+        for (TimeKeeping day : days()) {
+            if (!day.isValid()) {
+                // Show it instead of printing a row of zeros
+                System.out.printf("%-8s  %-10s  %-10s  NOT COUNTED - %s\n",
+                    day.getDate(), day.getTimeIn(), day.getTimeOut(), day.getParseError());
+                continue;
+            }
             System.out.printf("%-8s  %-10s  %-10s  %-8.2f  %-8.2f  %-8.2f\n", 
                 day.getDate(), 
                 day.getTimeIn(), 
                 day.getTimeOut(), 
-                day.calculateDailyHours(),
-                day.calculateRegularHours(),
-                day.calculateOvertimeHours());
+                day.calculateDailyHours(shiftPolicy),
+                day.calculateRegularHours(shiftPolicy),
+                day.calculateOvertimeHours(shiftPolicy));
         }
         
-        // Summary information
+        // Summary information (all from one pass, see getSummary)
+        Summary totals = getSummary();
         System.out.println();
-        System.out.println("Total Hours Worked: " + calculateWeeklyHours());
-        System.out.println("Regular Hours: " + calculateRegularHours());
-        System.out.println("Overtime Hours: " + calculateOvertimeHours());
+        System.out.println("Total Hours Worked: " + totals.getTotalHours());
+        System.out.println("Regular Hours: " + totals.getRegularHours());
+        System.out.println("Overtime Hours: " + totals.getOvertimeHours());
         
         // Only show lateness if applicable
         // I added this conditional to make the output cleaner when no lateness
-        if (getTotalLateMinutes() > 0) {
-            int lateMinutes = getTotalLateMinutes();
+        int lateMinutes = totals.getLateMinutes();
+        if (lateMinutes > 0) {
             int lateHours = lateMinutes / 60;  // Whole hours
             int lateRemainingMinutes = lateMinutes % 60;  // Remaining minutes
 
@@ -239,8 +343,14 @@ public class WeeklyAttendance {
         }
         
         // Only show undertime if applicable
-        if (getTotalUndertimeMinutes() > 0) {
-            System.out.println("Total Undertime Minutes: " + getTotalUndertimeMinutes());
+        if (totals.getUndertimeMinutes() > 0) {
+            System.out.println("Total Undertime Minutes: " + totals.getUndertimeMinutes());
+        }
+
+        // Days with bad times aren't in the totals above - make that obvious
+        int invalidDays = totals.getInvalidDays();
+        if (invalidDays > 0) {
+            System.out.println("WARNING: " + invalidDays + " day(s) with unreadable times not counted");
         }
         
         System.out.println();
@@ -265,10 +375,79 @@ public class WeeklyAttendance {
     
     /**
      * Get the daily attendance records
-     * @return List of daily TimeKeeping records
+     * @return Read-only list of daily TimeKeeping records (use addDailyAttendance to add one,
+     *         so the cached totals get refreshed)
      */
     public List<TimeKeeping> getDailyAttendance() {
-        // Returns the internal list - could return defensive copy if needed
-        return dailyAttendance;
+        if (store != null) {
+            // Copies, so callers can keep them (the summary pass reuses one view instead)
+            return Collections.unmodifiableList(storeRecords(toRow - fromRow));
+        }
+        return Collections.unmodifiableList(dailyAttendance);
+    }
+
+    /**
+     * Every weekly total, from one pass over the days (see getSummary).
+     * Never changes once made, so it can be cached and shared between threads.
+     */
+    public static class Summary {
+        private final int days;
+        private final int invalidDays;
+        private final double totalHours;
+        private final double regularHours;
+        private final double overtimeHours;
+        private final int lateMinutes;
+        private final int deductibleLateMinutes;
+        private final int undertimeMinutes;
+        private final boolean deductibleLateness;
+
+        Summary(int days, int invalidDays, double totalHours, double regularHours, double overtimeHours,
+                int lateMinutes, int deductibleLateMinutes, int undertimeMinutes, boolean deductibleLateness) {
+            this.days = days;
+            this.invalidDays = invalidDays;
+            this.totalHours = totalHours;
+            this.regularHours = regularHours;
+            this.overtimeHours = overtimeHours;
+            this.lateMinutes = lateMinutes;
+            this.deductibleLateMinutes = deductibleLateMinutes;
+            this.undertimeMinutes = undertimeMinutes;
+            this.deductibleLateness = deductibleLateness;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public int getInvalidDays() {
+            return invalidDays;
+        }
+
+        public double getTotalHours() {
+            return totalHours;
+        }
+
+        public double getRegularHours() {
+            return regularHours;
+        }
+
+        public double getOvertimeHours() {
+            return overtimeHours;
+        }
+
+        public int getLateMinutes() {
+            return lateMinutes;
+        }
+
+        public int getDeductibleLateMinutes() {
+            return deductibleLateMinutes;
+        }
+
+        public int getUndertimeMinutes() {
+            return undertimeMinutes;
+        }
+
+        public boolean hasDeductibleLateness() {
+            return deductibleLateness;
+        }
     }
 }
@@ -0,0 +1,335 @@
+// WeeklyAttendanceFiles.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads the weekly attendance files (attendance_MM_DD_YYYY.txt) from a folder.
+ *
+ * Each file holds one week, named after the day the week starts, with rows like
+ * "10001,Mon,8:32,16:59". The real date of a row is the week start plus however
+ * many days it takes to reach that weekday.
+ *
+ * All the files are parsed at the same time on the common fork-join pool and
+ * merged into one AttendanceStore, so a whole year of weeks loads in one go.
+ */
+public class WeeklyAttendanceFiles {
+    private static final Pattern FILE_NAME = Pattern.compile("attendance_(\\d{2})_(\\d{2})_(\\d{4})\\.txt");
+
+    // Mon..Sun, in DayOfWeek order
+    private static final String[] DAY_TOKENS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    private final AttendanceStore store;
+    private final List<LocalDate> weekStarts;  // one per file, oldest first
+    private final AttendanceQuarantine quarantine;
+    private final long loadTimeNanos;
+
+    private WeeklyAttendanceFiles(AttendanceStore store, List<LocalDate> weekStarts,
+                                  AttendanceQuarantine quarantine, long loadTimeNanos) {
+        this.store = store;
+        this.weekStarts = weekStarts;
+        this.quarantine = quarantine;
+        this.loadTimeNanos = loadTimeNanos;
+    }
+
+    /**
+     * Finds and parses every weekly attendance file in a folder.
+     * Rows that can't be read are left out and listed in getQuarantine()
+     * (call save() on it to write data/attendance_quarantine.csv).
+     *
+     * @param directory Folder with the attendance_MM_DD_YYYY.txt files (e.g. data/)
+     * @return All the weeks merged into one store
+     * @throws IOException If the folder or any file can't be read
+     */
+    public static WeeklyAttendanceFiles load(Path directory) throws IOException {
+        long start = System.nanoTime();
+        List<Path> files = findWeeklyFiles(directory);
+
+        AttendanceRows rows;
+        try {
+            rows = ForkJoinPool.commonPool().invoke(new ParseTask(files, 0, files.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        List<LocalDate> weekStarts = new ArrayList<>(files.size());
+        for (Path file : files) {
+            weekStarts.add(weekStartOf(file));
+        }
+        Collections.sort(weekStarts);
+
+        AttendanceQuarantine quarantine = AttendanceQuarantine.of(directory, rows);
+        return new WeeklyAttendanceFiles(AttendanceStore.fromRows(rows), Collections.unmodifiableList(weekStarts),
+                quarantine, System.nanoTime() - start);
+    }
+
+    /**
+     * Lists the weekly attendance files in a folder, sorted by name
+     */
+    public static List<Path> findWeeklyFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "attendance_*.txt")) {
+            for (Path file : stream) {
+                if (FILE_NAME.matcher(file.getFileName().toString()).matches()) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Reads the week start date out of a file name like attendance_07_08_2024.txt
+     *
+     * @throws IllegalArgumentException If the name doesn't follow the pattern
+     */
+    public static LocalDate weekStartOf(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a weekly attendance file: " + file);
+        }
+        return LocalDate.of(Integer.parseInt(matcher.group(3)),
+                            Integer.parseInt(matcher.group(1)),
+                            Integer.parseInt(matcher.group(2)));
+    }
+
+    /**
+     * Parses one weekly file into rows. Rejected rows are tagged with the file name.
+     */
+    static AttendanceRows parseFile(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        AttendanceRows rows = parse(weekStartOf(file), bytes, bytes.length);
+        rows.setSource(file.getFileName().toString(), 0);
+        return rows;
+    }
+
+    /**
+     * Parses the first length bytes of a weekly file's contents
+     *
+     * @param weekStart Week start taken from the file name
+     * @param bytes File contents (whole lines)
+     * @param length How many bytes to look at
+     */
+    static AttendanceRows parse(LocalDate weekStart, byte[] bytes, int length) {
+        int startDay = (int) weekStart.toEpochDay();
+        int startDow = weekStart.getDayOfWeek().getValue() - 1;  // Mon = 0
+        AttendanceRows rows = new AttendanceRows(length / 18 + 16);
+
+        int pos = 0;
+        int lineNumber = 0;
+        while (pos < length) {
+            int end = pos;
+            while (end < length && bytes[end] != '\n') {
+                end++;
+            }
+            lineNumber++;
+            parseLine(bytes, pos, end, lineNumber, startDay, startDow, rows);
+            pos = end + 1;
+        }
+        rows.setLineCount(lineNumber);
+        return rows;
+    }
+
+    // One row: ID,Day,H:mm,H:mm
+    private static void parseLine(byte[] line, int start, int end, int lineNumber,
+                                  int startDay, int startDow, AttendanceRows rows) {
+        if (end > start && line[end - 1] == '\r') {
+            end--;
+        }
+        if (start == end) {
+            return; // blank line
+        }
+
+        int[] pos = {start};
+        String reason = null;
+        int employeeId = readNumber(line, pos, end, ',');
+        int dow = employeeId >= 0 ? readDay(line, pos, end) : -1;
+        int inHour = dow >= 0 ? readNumber(line, pos, end, ':') : -1;
+        int inMinute = inHour >= 0 ? readMinute(line, pos, end, ',') : -1;
+        int outHour = inMinute >= 0 ? readNumber(line, pos, end, ':') : -1;
+        int outMinute = outHour >= 0 ? readMinute(line, pos, end, ',') : -1;
+
+        if (employeeId < 0) {
+            reason = "Bad employee number";
+        } else if (dow < 0) {
+            reason = "Bad day name";
+        } else if (inMinute < 0 || inHour > 23 || inMinute > 59) {
+            reason = "Bad log in time";
+        } else if (outMinute < 0 || outHour > 23 || outMinute > 59) {
+            reason = "Bad log out time";
+        }
+        if (reason != null) {
+            rows.reject(lineNumber, reason, new String(line, start, end - start, StandardCharsets.UTF_8));
+            return;
+        }
+        int epochDay = startDay + (dow - startDow + 7) % 7;
+        rows.add(employeeId, epochDay, inHour * 60 + inMinute, outHour * 60 + outMinute);
+    }
+
+    // Digits up to the separator (or end of line); -1 if anything else is there
+    private static int readNumber(byte[] line, int[] pos, int end, char separator) {
+        int p = pos[0];
+        int value = 0;
+        int digits = 0;
+        while (p < end && line[p] >= '0' && line[p] <= '9' && digits < 9) {
+            value = value * 10 + (line[p] - '0');
+            digits++;
+            p++;
+        }
+        if (digits == 0 || (p < end && line[p++] != separator)) {
+            return -1;
+        }
+        pos[0] = p;
+        return value;
+    }
+
+    // Exactly two digits ("8:05", not "8:5"), same as TimeKeeping
+    private static int readMinute(byte[] line, int[] pos, int end, char separator) {
+        int start = pos[0];
+        int value = readNumber(line, pos, end, separator);
+        int digits = 0;
+        while (start + digits < end && line[start + digits] >= '0' && line[start + digits] <= '9') {
+            digits++;
+        }
+        return digits == 2 ? value : -1;
+    }
+
+    // Three-letter day name followed by a comma; returns 0 for Mon .. 6 for Sun
+    private static int readDay(byte[] line, int[] pos, int end) {
+        int p = pos[0];
+        if (end - p < 4 || line[p + 3] != ',') {
+            return -1;
+        }
+        for (int d = 0; d < DAY_TOKENS.length; d++) {
+            String token = DAY_TOKENS[d];
+            if (line[p] == token.charAt(0) && line[p + 1] == token.charAt(1) && line[p + 2] == token.charAt(2)) {
+                pos[0] = p + 4;
+                return d;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Splits the file list in half until each task has one file, then merges
+     * the results back in file order on the way up
+     */
+    private static class ParseTask extends RecursiveTask<AttendanceRows> {
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+
+        ParseTask(List<Path> files, int from, int to) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected AttendanceRows compute() {
+            if (to - from == 0) {
+                return new AttendanceRows(16);
+            }
+            if (to - from == 1) {
+                try {
+                    return parseFile(files.get(from));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            ParseTask left = new ParseTask(files, from, mid);
+            left.fork();
+            AttendanceRows right = new ParseTask(files, mid, to).compute();
+            AttendanceRows merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+
+    public AttendanceStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return Start date of every loaded week, oldest first
+     */
+    public List<LocalDate> getWeekStarts() {
+        return weekStarts;
+    }
+
+    /**
+     * Gets one employee's week, backed directly by the store
+     * (on their own shift or the default, see AttendanceStore.weeklyAttendance)
+     */
+    public WeeklyAttendance getWeek(int employeeId, LocalDate weekStart) {
+        return store.weeklyAttendance(employeeId, weekStart);
+    }
+
+    /**
+     * Gets one employee's week on their shift
+     */
+    public WeeklyAttendance getWeek(Employee employee, LocalDate weekStart) {
+        return store.weeklyAttendance(Integer.parseInt(employee.getEmployeeNumber().trim()), weekStart,
+                ShiftPolicies.current().forEmployee(employee));
+    }
+
+    /**
+     * Gets every loaded week for one employee, oldest first
+     * (on their own shift or the default, see AttendanceStore.weeklyAttendance)
+     */
+    public List<WeeklyAttendance> getWeeks(int employeeId) {
+        return getWeeks(employeeId, ShiftPolicies.current().forEmployee(String.valueOf(employeeId), null));
+    }
+
+    /**
+     * Gets every loaded week for one employee on their shift, oldest first
+     */
+    public List<WeeklyAttendance> getWeeks(Employee employee) {
+        return getWeeks(Integer.parseInt(employee.getEmployeeNumber().trim()),
+                ShiftPolicies.current().forEmployee(employee));
+    }
+
+    private List<WeeklyAttendance> getWeeks(int employeeId, ShiftPolicy shift) {
+        List<WeeklyAttendance> weeks = new ArrayList<>(weekStarts.size());
+        for (LocalDate weekStart : weekStarts) {
+            weeks.add(store.weeklyAttendance(employeeId, weekStart, shift));
+        }
+        return weeks;
+    }
+
+    public int getFileCount() {
+        return weekStarts.size();
+    }
+
+    public int getRowCount() {
+        return store.size();
+    }
+
+    public int getRejectedRowCount() {
+        return quarantine.getRejectedRowCount();
+    }
+
+    /**
+     * @return Accepted / rejected counts of the load, and where the rejects went
+     */
+    public AttendanceQuarantine getQuarantine() {
+        return quarantine;
+    }
+
+    public double getLoadTimeMillis() {
+        return loadTimeNanos / 1_000_000.0;
+    }
+}